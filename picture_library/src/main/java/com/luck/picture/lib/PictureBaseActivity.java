@@ -18,6 +18,7 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.luck.picture.lib.app.PictureAppMaster;
+import com.luck.picture.lib.compress.CompressTask;
 import com.luck.picture.lib.compress.Luban;
 import com.luck.picture.lib.compress.OnCompressListener;
 import com.luck.picture.lib.config.PictureConfig;
@@ -48,6 +49,7 @@ import com.luck.picture.lib.tools.ToastUtils;
 import com.luck.picture.lib.tools.VoiceUtils;
 import com.yalantis.ucrop.UCrop;
 import com.yalantis.ucrop.model.CutInfo;
+import com.yalantis.ucrop.util.BitmapPool;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -78,10 +80,18 @@ public abstract class PictureBaseActivity extends AppCompatActivity {
      * page
      */
     protected int mPage = 1;
+    /**
+     * The last media _ID of the loaded pages, keyset page position
+     */
+    protected long mLastMediaId;
     /**
      * is onSaveInstanceState
      */
     protected boolean isOnSaveInstanceState;
+    /**
+     * The asynchronous compression in progress
+     */
+    private CompressTask mCompressTask;
 
     /**
      * Whether to use immersion, subclasses copy the method to determine whether to use immersion
@@ -376,6 +386,7 @@ public abstract class PictureBaseActivity extends AppCompatActivity {
                             .isCamera(config.camera)
                             .setTargetDir(config.compressSavePath)
                             .setCompressQuality(config.compressQuality)
+                            .targetSizeKb(config.compressTargetSizeKb)
                             .setFocusAlpha(config.focusAlpha)
                             .setNewCompressFileName(config.renameCompressFileName)
                             .ignoreBy(config.minimumCompressSize).get();
@@ -391,11 +402,12 @@ public abstract class PictureBaseActivity extends AppCompatActivity {
                 }
             });
         } else {
-            Luban.with(this)
+            mCompressTask = Luban.with(this)
                     .loadMediaData(result)
                     .ignoreBy(config.minimumCompressSize)
                     .isCamera(config.camera)
                     .setCompressQuality(config.compressQuality)
+                    .targetSizeKb(config.compressTargetSizeKb)
                     .setTargetDir(config.compressSavePath)
                     .setFocusAlpha(config.focusAlpha)
                     .setNewCompressFileName(config.renameCompressFileName)
@@ -676,6 +688,7 @@ public abstract class PictureBaseActivity extends AppCompatActivity {
         if (config.cropWidth > 0 && config.cropHeight > 0) {
             options.withMaxResultSize(config.cropWidth, config.cropHeight);
         }
+        options.setFullResolutionCrop(config.isCropFullResolution);
         return options;
     }
 
@@ -856,6 +869,11 @@ public abstract class PictureBaseActivity extends AppCompatActivity {
 
     @Override
     protected void onDestroy() {
+        if (mCompressTask != null) {
+            // The user left before the compression finished
+            mCompressTask.cancel();
+            mCompressTask = null;
+        }
         if (mLoadingDialog != null) {
             mLoadingDialog.dismiss();
             mLoadingDialog = null;
@@ -863,6 +881,12 @@ public abstract class PictureBaseActivity extends AppCompatActivity {
         super.onDestroy();
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        BitmapPool.getInstance().trimMemory(level);
+    }
+
 
     /**
      * get audio path
@@ -1009,8 +1033,8 @@ public abstract class PictureBaseActivity extends AppCompatActivity {
     private void releaseResultListener() {
         if (config != null) {
             PictureSelectionConfig.destroy();
+            // Running media queries are aborted with the loader
             LocalMediaPageLoader.setInstanceNull();
-            PictureThreadUtils.cancel(PictureThreadUtils.getIoPool());
         }
     }
 
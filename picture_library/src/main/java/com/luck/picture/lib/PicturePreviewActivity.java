@@ -80,6 +80,11 @@ public class PicturePreviewActivity extends PictureBaseActivity implements
      */
     private int mPage = 0;
 
+    /**
+     * 分页位置，已加载数据的最后一个_ID
+     */
+    private long mLastMediaId;
+
 
     @Override
     public int getResourceId() {
@@ -148,6 +153,7 @@ public class PicturePreviewActivity extends PictureBaseActivity implements
                     setNewTitle();
                 } else {
                     mPage = getIntent().getIntExtra(PictureConfig.EXTRA_PAGE, 0);
+                    mLastMediaId = getIntent().getLongExtra(PictureConfig.EXTRA_LAST_MEDIA_ID, 0);
                 }
                 initViewPageAdapterData(data);
                 loadData();
@@ -227,10 +233,19 @@ public class PicturePreviewActivity extends PictureBaseActivity implements
     private void loadData() {
         long bucketId = getIntent().getLongExtra(PictureConfig.EXTRA_BUCKET_ID, -1);
         mPage++;
-        LocalMediaPageLoader.getInstance(getContext()).loadPageMediaData(bucketId, mPage, config.pageSize,
-                (OnQueryDataResultListener<LocalMedia>) (result, currentPage, isHasMore) -> {
-                    if (!isFinishing()) {
-                        this.isHasMore = isHasMore;
+        LocalMediaPageLoader.getInstance(getContext()).loadSeekPageMediaData(this, bucketId, mLastMediaId, config.pageSize,
+                new OnQueryDataResultListener<LocalMedia>() {
+                    @Override
+                    public void onComplete(List<LocalMedia> result, int currentPage, boolean isHasMore) {
+                    }
+
+                    @Override
+                    public void onComplete(List<LocalMedia> result, long resultBucketId, long lastId, boolean isHasMore) {
+                        if (isFinishing()) {
+                            return;
+                        }
+                        PicturePreviewActivity.this.isHasMore = isHasMore;
+                        mLastMediaId = lastId;
                         if (isHasMore) {
                             int size = result.size();
                             if (size > 0 && adapter != null) {
@@ -251,10 +266,19 @@ public class PicturePreviewActivity extends PictureBaseActivity implements
     private void loadMoreData() {
         long bucketId = getIntent().getLongExtra(PictureConfig.EXTRA_BUCKET_ID, -1);
         mPage++;
-        LocalMediaPageLoader.getInstance(getContext()).loadPageMediaData(bucketId, mPage, config.pageSize,
-                (OnQueryDataResultListener<LocalMedia>) (result, currentPage, isHasMore) -> {
-                    if (!isFinishing()) {
-                        this.isHasMore = isHasMore;
+        LocalMediaPageLoader.getInstance(getContext()).loadSeekPageMediaData(this, bucketId, mLastMediaId, config.pageSize,
+                new OnQueryDataResultListener<LocalMedia>() {
+                    @Override
+                    public void onComplete(List<LocalMedia> result, int currentPage, boolean isHasMore) {
+                    }
+
+                    @Override
+                    public void onComplete(List<LocalMedia> result, long resultBucketId, long lastId, boolean isHasMore) {
+                        if (isFinishing()) {
+                            return;
+                        }
+                        PicturePreviewActivity.this.isHasMore = isHasMore;
+                        mLastMediaId = lastId;
                         if (isHasMore) {
                             int size = result.size();
                             if (size > 0 && adapter != null) {
@@ -447,6 +471,7 @@ public class PicturePreviewActivity extends PictureBaseActivity implements
      */
     private void setNewTitle() {
         mPage = 0;
+        mLastMediaId = 0;
         position = 0;
         setTitle();
     }
@@ -1015,6 +1040,9 @@ public class PicturePreviewActivity extends PictureBaseActivity implements
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        if (config.isPageStrategy) {
+            LocalMediaPageLoader.getInstance(getContext()).cancelPageQuery(this);
+        }
         if (!isOnSaveInstanceState) {
             ImagesObservable.getInstance().clearPreviewMediaData();
         }
@@ -580,6 +580,17 @@ public class PictureSelectionModel {
         return this;
     }
 
+    /**
+     * # The crop is cut from the original image instead of the preview，limited by cropImageWideHigh
+     *
+     * @param isCropFullResolution
+     * @return
+     */
+    public PictureSelectionModel isCropFullResolution(boolean isCropFullResolution) {
+        selectionConfig.isCropFullResolution = isCropFullResolution;
+        return this;
+    }
+
     /**
      * @param videoMaxSecond selection video max second
      * @return
@@ -707,6 +718,17 @@ public class PictureSelectionModel {
         return this;
     }
 
+    /**
+     * # The compressed image is made to fit the size，the quality is searched below compressQuality
+     *
+     * @param compressTargetSizeKb Target file size，unit KB，0 - use compressQuality only
+     * @return
+     */
+    public PictureSelectionModel compressTargetSizeKb(int compressTargetSizeKb) {
+        selectionConfig.compressTargetSizeKb = compressTargetSizeKb;
+        return this;
+    }
+
     /**
      * @param returnEmpty No data can be returned
      * @return
@@ -1200,6 +1222,19 @@ public class PictureSelectionModel {
         return this;
     }
 
+    /**
+     * # Only effective in isPageStrategy mode
+     * # The last album list and first page are saved to a snapshot and shown immediately on the next launch,
+     * then replaced by the MediaStore query result
+     *
+     * @param isMediaSnapshot
+     * @return
+     */
+    public PictureSelectionModel isMediaSnapshot(boolean isMediaSnapshot) {
+        selectionConfig.isMediaSnapshot = isMediaSnapshot;
+        return this;
+    }
+
     /**
      * # 内部方法-要使用此方法时最好先咨询作者！！！
      *
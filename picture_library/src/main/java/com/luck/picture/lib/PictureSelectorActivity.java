@@ -42,11 +42,15 @@ import com.luck.picture.lib.entity.LocalMedia;
 import com.luck.picture.lib.entity.LocalMediaFolder;
 import com.luck.picture.lib.listener.OnAlbumItemClickListener;
 import com.luck.picture.lib.listener.OnItemClickListener;
+import com.luck.picture.lib.listener.OnMediaChangeListener;
 import com.luck.picture.lib.listener.OnPhotoSelectChangedListener;
 import com.luck.picture.lib.listener.OnQueryDataResultListener;
 import com.luck.picture.lib.listener.OnRecyclerViewPreloadMoreListener;
 import com.luck.picture.lib.model.LocalMediaLoader;
 import com.luck.picture.lib.model.LocalMediaPageLoader;
+import com.luck.picture.lib.model.LocalMediaSnapshot;
+import com.luck.picture.lib.model.MediaChangeTracker;
+import com.luck.picture.lib.model.MediaPagePrefetcher;
 import com.luck.picture.lib.observable.ImagesObservable;
 import com.luck.picture.lib.permissions.PermissionChecker;
 import com.luck.picture.lib.style.PictureWindowAnimationStyle;
@@ -70,7 +74,11 @@ import com.yalantis.ucrop.model.CutInfo;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @author：luck
@@ -102,7 +110,27 @@ public class PictureSelectorActivity extends PictureBaseActivity implements View
     protected boolean isEnterSetting;
     private long intervalClickTime = 0;
     private int allFolderSize;
-    private int mOpenCameraCount;
+    /**
+     * The grid is showing snapshot data until the first MediaStore page arrives
+     */
+    private boolean isShowMediaSnapshot;
+    /**
+     * The keyset page position after the snapshot's first page
+     */
+    private long mSnapshotLastId;
+    /**
+     * The grid is showing streamed batches until the complete result arrives
+     */
+    private boolean isStreamMedia;
+    /**
+     * Page Model: the folder scan and the first page run side by side，the snapshot is saved once both are in
+     */
+    private boolean isFolderScanComplete;
+    private boolean isFirstPageComplete;
+    private List<LocalMedia> mFirstPageData;
+    private long mFirstPageLastId;
+    private MediaChangeTracker mediaChangeTracker;
+    private MediaPagePrefetcher mediaPagePrefetcher;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -195,6 +223,17 @@ public class PictureSelectorActivity extends PictureBaseActivity implements View
         } else {
             mRecyclerView.setReachBottomRow(RecyclerPreloadView.BOTTOM_PRELOAD);
             mRecyclerView.setOnRecyclerViewPreloadListener(PictureSelectorActivity.this);
+            mediaPagePrefetcher = new MediaPagePrefetcher(getContext(), config.pageSize);
+            mRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+                @Override
+                public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                    RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+                    if (layoutManager instanceof GridLayoutManager && mAdapter != null) {
+                        int lastVisiblePosition = ((GridLayoutManager) layoutManager).findLastVisibleItemPosition();
+                        mediaPagePrefetcher.onScroll(lastVisiblePosition, mAdapter.getItemCount());
+                    }
+                }
+            });
         }
         RecyclerView.ItemAnimator itemAnimator = mRecyclerView.getItemAnimator();
         if (itemAnimator != null) {
@@ -236,22 +275,6 @@ public class PictureSelectorActivity extends PictureBaseActivity implements View
         loadMoreData();
     }
 
-    /**
-     * getPageLimit
-     * # If the user clicks to take a photo and returns, the Limit should be adjusted dynamically
-     *
-     * @return
-     */
-    private int getPageLimit() {
-        int bucketId = ValueOf.toInt(mTvPictureTitle.getTag(R.id.view_tag));
-        if (bucketId == -1) {
-            int limit = mOpenCameraCount > 0 ? config.pageSize - mOpenCameraCount : config.pageSize;
-            mOpenCameraCount = 0;
-            return limit;
-        }
-        return config.pageSize;
-    }
-
     /**
      * load more data
      */
@@ -260,18 +283,32 @@ public class PictureSelectorActivity extends PictureBaseActivity implements View
             if (isHasMore) {
                 mPage++;
                 long bucketId = ValueOf.toLong(mTvPictureTitle.getTag(R.id.view_tag));
-                LocalMediaPageLoader.getInstance(getContext()).loadPageMediaData(bucketId, mPage, getPageLimit(),
-                        (OnQueryDataResultListener<LocalMedia>) (result, currentPage, isHasMore) -> {
-                            if (!isFinishing()) {
-                                this.isHasMore = isHasMore;
+                // Usually already prefetched while scrolling
+                mediaPagePrefetcher.requestNextPage(
+                        new OnQueryDataResultListener<LocalMedia>() {
+                            @Override
+                            public void onComplete(List<LocalMedia> result, int currentPage, boolean isHasMore) {
+                            }
+
+                            @Override
+                            public void onComplete(List<LocalMedia> result, long resultBucketId, long lastId, boolean isHasMore) {
+                                if (isFinishing()) {
+                                    return;
+                                }
+                                long currentBucketId = ValueOf.toLong(mTvPictureTitle.getTag(R.id.view_tag));
+                                if (resultBucketId != currentBucketId) {
+                                    // The album directory has been switched, this page is stale
+                                    return;
+                                }
+                                PictureSelectorActivity.this.isHasMore = isHasMore;
+                                mLastMediaId = lastId;
                                 if (isHasMore) {
                                     hideDataNull();
                                     int size = result.size();
                                     if (size > 0) {
                                         int positionStart = mAdapter.getSize();
                                         mAdapter.getData().addAll(result);
-                                        int itemCount = mAdapter.getItemCount();
-                                        mAdapter.notifyItemRangeChanged(positionStart, itemCount);
+                                        mAdapter.notifyItemRangeInserted(mAdapter.isShowCamera() ? positionStart + 1 : positionStart, size);
                                     } else {
                                         onRecyclerViewPreloadMore();
                                     }
@@ -473,20 +510,46 @@ public class PictureSelectorActivity extends PictureBaseActivity implements View
     protected void readLocalMedia() {
         showPleaseDialog();
         if (config.isPageStrategy) {
-            LocalMediaPageLoader.getInstance(getContext()).loadAllMedia(
-                    (OnQueryDataResultListener<LocalMediaFolder>) (data, currentPage, isHasMore) -> {
-                        if (!isFinishing()) {
-                            this.isHasMore = true;
-                            initPageModel(data);
-                            synchronousCover();
-                        }
-                    });
+            if (config.isMediaSnapshot) {
+                readMediaSnapshot();
+            }
+            isFolderScanComplete = false;
+            isFirstPageComplete = false;
+            mFirstPageData = null;
+            // The camera roll does not need the folders，its first page fills the grid while the scan continues
+            loadFirstPage();
+            LocalMediaPageLoader.getInstance(getContext()).loadAllMedia(new OnQueryDataResultListener<LocalMediaFolder>() {
+                @Override
+                public void onProgress(List<LocalMediaFolder> data) {
+                    if (!isFinishing() && data.size() > 0) {
+                        // The album list fills in while the scan continues
+                        folderWindow.mergeFolder(data, false);
+                    }
+                }
+
+                @Override
+                public void onComplete(List<LocalMediaFolder> data, int currentPage, boolean isHasMore) {
+                    if (!isFinishing()) {
+                        initPageModel(data);
+                        synchronousCover();
+                    }
+                }
+            });
         } else {
             PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<List<LocalMediaFolder>>() {
 
                 @Override
                 public List<LocalMediaFolder> doInBackground() {
-                    return new LocalMediaLoader(getContext(), config).loadAllMedia();
+                    return new LocalMediaLoader(getContext(), config).loadAllMedia(new OnQueryDataResultListener<LocalMediaFolder>() {
+                        @Override
+                        public void onComplete(List<LocalMediaFolder> data, int currentPage, boolean isHasMore) {
+                        }
+
+                        @Override
+                        public void onProgress(List<LocalMediaFolder> data) {
+                            initStreamModel(data);
+                        }
+                    });
                 }
 
                 @Override
@@ -498,61 +561,381 @@ public class PictureSelectorActivity extends PictureBaseActivity implements View
     }
 
     /**
-     * Page Model
+     * Show the last snapshot while MediaStore is queried
+     */
+    private void readMediaSnapshot() {
+        PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<LocalMediaSnapshot>() {
+
+            @Override
+            public LocalMediaSnapshot doInBackground() {
+                return LocalMediaSnapshot.read(getContext(), config);
+            }
+
+            @Override
+            public void onSuccess(LocalMediaSnapshot snapshot) {
+                if (snapshot == null || isFinishing() || mAdapter == null) {
+                    return;
+                }
+                // MediaStore is already ahead of the snapshot
+                if (!folderWindow.isEmpty() || !mAdapter.isDataEmpty() || snapshot.folders.size() == 0) {
+                    return;
+                }
+                isShowMediaSnapshot = true;
+                folderWindow.bindFolder(snapshot.folders);
+                LocalMediaFolder folder = snapshot.folders.get(0);
+                mTvPictureTitle.setTag(R.id.view_count_tag, folder.getImageNum());
+                mTvPictureTitle.setTag(R.id.view_index_tag, 0);
+                mAdapter.bindData(snapshot.data);
+                // Scrolling past the snapshot pages on from where it ends
+                mSnapshotLastId = snapshot.lastId;
+                mLastMediaId = snapshot.lastId;
+                isHasMore = true;
+                mediaPagePrefetcher.reset(-1, snapshot.lastId, true);
+                if (!mAdapter.isDataEmpty()) {
+                    dismissDialog();
+                    hideDataNull();
+                }
+            }
+        });
+    }
+
+    /**
+     * Save the folders and first page for the next launch
+     *
+     * @param folders
+     * @param data
+     * @param lastId
+     */
+    private void saveMediaSnapshot(List<LocalMediaFolder> folders, List<LocalMedia> data, long lastId) {
+        List<LocalMediaFolder> snapshotFolders = new ArrayList<>(folders);
+        List<LocalMedia> snapshotData = new ArrayList<>(data);
+        PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<Boolean>() {
+
+            @Override
+            public Boolean doInBackground() {
+                LocalMediaSnapshot.save(getContext(), config, snapshotFolders, snapshotData, lastId);
+                return true;
+            }
+
+            @Override
+            public void onSuccess(Boolean result) {
+            }
+        });
+    }
+
+    /**
+     * Page Model: the folder scan is complete
      *
      * @param folders
      */
     private void initPageModel(List<LocalMediaFolder> folders) {
         if (folders != null) {
-            folderWindow.bindFolder(folders);
-            mPage = 1;
-            LocalMediaFolder folder = folderWindow.getFolder(0);
+            folderWindow.mergeFolder(folders, true);
+            // Folders missing from the scan may have been removed，find the open one again
+            long currentBucketId = ValueOf.toLong(mTvPictureTitle.getTag(R.id.view_tag));
+            List<LocalMediaFolder> folderData = folderWindow.getFolderData();
+            int index = 0;
+            for (int i = 0; i < folderData.size(); i++) {
+                if (folderData.get(i).getBucketId() == currentBucketId) {
+                    index = i;
+                    break;
+                }
+            }
+            LocalMediaFolder folder = folderWindow.getFolder(index);
             mTvPictureTitle.setTag(R.id.view_count_tag, folder != null ? folder.getImageNum() : 0);
-            mTvPictureTitle.setTag(R.id.view_index_tag, 0);
-            long bucketId = folder != null ? folder.getBucketId() : -1;
-            mRecyclerView.setEnabledLoadMore(true);
-            LocalMediaPageLoader.getInstance(getContext()).loadPageMediaData(bucketId, mPage,
-                    (OnQueryDataResultListener<LocalMedia>) (data, currentPage, isHasMore) -> {
-                        if (!isFinishing()) {
-                            dismissDialog();
-                            if (mAdapter != null) {
-                                this.isHasMore = true;
-                                // IsHasMore being true means that there's still data, but data being 0 might be a filter that's turned on and that doesn't happen to fit on the whole page
-                                if (isHasMore && data.size() == 0) {
-                                    onRecyclerViewPreloadMore();
+            mTvPictureTitle.setTag(R.id.view_index_tag, index);
+            isFolderScanComplete = true;
+            onPageModelComplete();
+        } else {
+            showDataNull(getString(R.string.picture_data_exception), R.drawable.picture_icon_data_error);
+            dismissDialog();
+        }
+    }
+
+    /**
+     * Page Model: the first page of the camera roll
+     */
+    private void loadFirstPage() {
+        mPage = 1;
+        mLastMediaId = 0;
+        mRecyclerView.setEnabledLoadMore(true);
+        LocalMediaPageLoader.getInstance(getContext()).loadSeekPageMediaData(this, -1, mLastMediaId,
+                new OnQueryDataResultListener<LocalMedia>() {
+                    @Override
+                    public void onComplete(List<LocalMedia> data, int currentPage, boolean isHasMore) {
+                    }
+
+                    @Override
+                    public void onComplete(List<LocalMedia> data, long resultBucketId, long lastId, boolean isHasMore) {
+                        if (isFinishing()) {
+                            return;
+                        }
+                        if (resultBucketId != ValueOf.toLong(mTvPictureTitle.getTag(R.id.view_tag))) {
+                            // Another album was opened from the folders scanned so far
+                            return;
+                        }
+                        dismissDialog();
+                        if (mAdapter != null) {
+                            mFirstPageData = data;
+                            mFirstPageLastId = lastId;
+                            isFirstPageComplete = true;
+                            onPageModelComplete();
+                            if (isShowMediaSnapshot) {
+                                isShowMediaSnapshot = false;
+                                if (isSnapshotPage(data, lastId)) {
+                                    // MediaStore still matches the snapshot，keep it and the pages loaded after it
                                     return;
                                 }
-                                int currentSize = mAdapter.getSize();
-                                int resultSize = data.size();
-                                oldCurrentListSize = oldCurrentListSize + currentSize;
-                                if (resultSize >= currentSize) {
-                                    // This situation is mainly caused by the use of camera memory, the Activity is recycled
-                                    if (currentSize > 0 && currentSize < resultSize && oldCurrentListSize != resultSize) {
-                                        if (isLocalMediaSame(data.get(0))) {
-                                            mAdapter.bindData(data);
-                                        } else {
-                                            mAdapter.getData().addAll(data);
-                                        }
-                                    } else {
+                                // The snapshot is replaced by the MediaStore result as a fresh first page
+                                mAdapter.bindData(null);
+                            }
+                            PictureSelectorActivity.this.isHasMore = true;
+                            mLastMediaId = lastId;
+                            mediaPagePrefetcher.reset(resultBucketId, lastId, isHasMore);
+                            // IsHasMore being true means that there's still data, but data being 0 might be a filter that's turned on and that doesn't happen to fit on the whole page
+                            if (isHasMore && data.size() == 0) {
+                                onRecyclerViewPreloadMore();
+                                return;
+                            }
+                            int currentSize = mAdapter.getSize();
+                            int resultSize = data.size();
+                            oldCurrentListSize = oldCurrentListSize + currentSize;
+                            if (resultSize >= currentSize) {
+                                // This situation is mainly caused by the use of camera memory, the Activity is recycled
+                                if (currentSize > 0 && currentSize < resultSize && oldCurrentListSize != resultSize) {
+                                    if (isLocalMediaSame(data.get(0))) {
                                         mAdapter.bindData(data);
+                                    } else {
+                                        mAdapter.getData().addAll(data);
                                     }
-                                }
-                                boolean isEmpty = mAdapter.isDataEmpty();
-                                if (isEmpty) {
-                                    showDataNull(getString(R.string.picture_empty), R.drawable.picture_icon_no_data);
                                 } else {
-                                    hideDataNull();
+                                    mAdapter.bindData(data);
                                 }
-
+                            }
+                            boolean isEmpty = mAdapter.isDataEmpty();
+                            if (isEmpty) {
+                                showDataNull(getString(R.string.picture_empty), R.drawable.picture_icon_no_data);
+                            } else {
+                                hideDataNull();
                             }
                         }
-                    });
+                    }
+                });
+    }
+
+    /**
+     * Whether the first MediaStore page is the snapshot's first page the grid starts with
+     *
+     * @param data
+     * @param lastId
+     * @return
+     */
+    private boolean isSnapshotPage(List<LocalMedia> data, long lastId) {
+        List<LocalMedia> currentData = mAdapter.getData();
+        if (lastId != mSnapshotLastId || data.size() == 0 || data.size() > currentData.size()) {
+            return false;
+        }
+        for (int i = 0; i < data.size(); i++) {
+            if (data.get(i).getId() != currentData.get(i).getId()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Page Model: once both the folders and the first page are in，save the snapshot and follow MediaStore changes
+     */
+    private void onPageModelComplete() {
+        if (!isFolderScanComplete || !isFirstPageComplete) {
+            return;
+        }
+        if (config.isMediaSnapshot && mFirstPageData != null) {
+            saveMediaSnapshot(folderWindow.getFolderData(), mFirstPageData, mFirstPageLastId);
+        }
+        mFirstPageData = null;
+        startMediaChangeTracker();
+    }
+
+    /**
+     * Page Model: follow MediaStore changes as deltas from now on
+     */
+    private void startMediaChangeTracker() {
+        if (mediaChangeTracker == null) {
+            mediaChangeTracker = new MediaChangeTracker(getContext(), new OnMediaChangeListener() {
+                @Override
+                public List<LocalMedia> getLoadedData() {
+                    return mAdapter != null ? mAdapter.getData() : new ArrayList<>();
+                }
+
+                @Override
+                public Set<Long> getFolderBucketIds() {
+                    Set<Long> bucketIds = new HashSet<>();
+                    for (LocalMediaFolder folder : folderWindow.getFolderData()) {
+                        bucketIds.add(folder.getBucketId());
+                    }
+                    return bucketIds;
+                }
+
+                @Override
+                public void onMediaChange(List<LocalMedia> inserted, List<LocalMedia> updated, Set<Long> deletedIds,
+                                          Map<Long, Integer> bucketCounts) {
+                    applyMediaChange(inserted, updated, deletedIds, bucketCounts);
+                }
+            });
+            mediaChangeTracker.register();
+        }
+        mediaChangeTracker.sync();
+    }
+
+    /**
+     * Apply MediaStore changes to the folders and the grid instead of reloading them
+     *
+     * @param inserted
+     * @param updated
+     * @param deletedIds
+     * @param bucketCounts
+     */
+    private void applyMediaChange(List<LocalMedia> inserted, List<LocalMedia> updated, Set<Long> deletedIds,
+                                  Map<Long, Integer> bucketCounts) {
+        if (isFinishing() || mAdapter == null || folderWindow.isEmpty()) {
+            return;
+        }
+        List<LocalMediaFolder> folders = folderWindow.getFolderData();
+        List<LocalMedia> currentData = mAdapter.getData();
+        long currentBucketId = ValueOf.toLong(mTvPictureTitle.getTag(R.id.view_tag));
+        // Oldest first, so every folder ends up with the newest cover
+        List<LocalMedia> insertData = new ArrayList<>();
+        for (int i = inserted.size() - 1; i >= 0; i--) {
+            LocalMedia media = inserted.get(i);
+            if (isLoadedMedia(currentData, media)) {
+                // Already added by hand after taking a photo
+                continue;
+            }
+            boolean isBucketFolder = false;
+            for (LocalMediaFolder folder : folders) {
+                boolean isAllFolder = folder.getBucketId() == -1;
+                if (isAllFolder || folder.getBucketId() == media.getBucketId()) {
+                    folder.setImageNum(folder.getImageNum() + 1);
+                    folder.setFirstImagePath(media.getPath());
+                    List<LocalMedia> cacheData = folder.getData();
+                    if (cacheData != null && cacheData.size() > 0 && cacheData != currentData) {
+                        cacheData.add(0, media);
+                    }
+                    isBucketFolder = isBucketFolder || !isAllFolder;
+                }
+            }
+            if (!isBucketFolder) {
+                LocalMediaFolder folder = new LocalMediaFolder();
+                folder.setName(media.getParentFolderName());
+                folder.setBucketId(media.getBucketId());
+                folder.setFirstImagePath(media.getPath());
+                folder.setImageNum(1);
+                folder.setOfAllType(config.chooseMode);
+                // Appended, sorting would move the folder that is currently open
+                folders.add(folder);
+            }
+            if (currentBucketId == -1 || currentBucketId == media.getBucketId()) {
+                insertData.add(0, media);
+            }
+        }
+        mAdapter.insertData(insertData);
+
+        for (LocalMedia media : updated) {
+            mAdapter.updateData(media);
+            for (LocalMediaFolder folder : folders) {
+                List<LocalMedia> cacheData = folder.getData();
+                if (cacheData != null && cacheData != currentData) {
+                    int index = indexOfMedia(cacheData, media.getId());
+                    if (index != -1) {
+                        cacheData.set(index, media);
+                    }
+                }
+            }
+        }
+
+        if (deletedIds.size() > 0) {
+            for (LocalMedia media : currentData) {
+                if (bucketCounts == null && deletedIds.contains(media.getId())) {
+                    for (LocalMediaFolder folder : folders) {
+                        if (folder.getBucketId() == -1 || folder.getBucketId() == media.getBucketId()) {
+                            folder.setImageNum(Math.max(0, folder.getImageNum() - 1));
+                        }
+                    }
+                }
+            }
+            for (LocalMediaFolder folder : folders) {
+                List<LocalMedia> cacheData = folder.getData();
+                if (cacheData != null && cacheData != currentData) {
+                    for (int i = cacheData.size() - 1; i >= 0; i--) {
+                        if (deletedIds.contains(cacheData.get(i).getId())) {
+                            cacheData.remove(i);
+                        }
+                    }
+                }
+            }
+            mAdapter.removeData(deletedIds);
+            List<LocalMedia> selectedData = new ArrayList<>(mAdapter.getSelectedData());
+            for (int i = selectedData.size() - 1; i >= 0; i--) {
+                if (deletedIds.contains(selectedData.get(i).getId())) {
+                    selectedData.remove(i);
+                }
+            }
+            if (selectedData.size() != mAdapter.getSelectedSize()) {
+                mAdapter.bindSelectData(selectedData);
+            }
+        }
+
+        if (bucketCounts != null) {
+            // Media deleted outside the grid only show up in the recount
+            for (LocalMediaFolder folder : folders) {
+                Integer count = bucketCounts.get(folder.getBucketId());
+                if (count != null) {
+                    folder.setImageNum(count);
+                }
+            }
+        }
+
+        folderWindow.bindFolder(folders);
+        LocalMediaFolder currentFolder = folderWindow.getFolder(ValueOf.toInt(mTvPictureTitle.getTag(R.id.view_index_tag)));
+        if (currentFolder != null) {
+            mTvPictureTitle.setTag(R.id.view_count_tag, currentFolder.getImageNum());
+        }
+        if (mAdapter.isDataEmpty()) {
+            showDataNull(getString(R.string.picture_empty), R.drawable.picture_icon_no_data);
         } else {
-            showDataNull(getString(R.string.picture_data_exception), R.drawable.picture_icon_data_error);
-            dismissDialog();
+            hideDataNull();
         }
     }
 
+    /**
+     * Is the MediaStore row already in the grid，by _ID or by the camera file path
+     *
+     * @param data
+     * @param media
+     * @return
+     */
+    private boolean isLoadedMedia(List<LocalMedia> data, LocalMedia media) {
+        for (LocalMedia item : data) {
+            if (item.getId() == media.getId()
+                    || TextUtils.equals(item.getPath(), media.getPath())
+                    || (!TextUtils.isEmpty(item.getRealPath()) && TextUtils.equals(item.getRealPath(), media.getRealPath()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int indexOfMedia(List<LocalMedia> data, long id) {
+        int size = data.size();
+        for (int i = 0; i < size; i++) {
+            if (data.get(i).getId() == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * ofAll Page Model Synchronous cover
      */
@@ -562,16 +945,7 @@ public class PictureSelectorActivity extends PictureBaseActivity implements View
 
                 @Override
                 public Boolean doInBackground() {
-                    int size = folderWindow.getFolderData().size();
-                    for (int i = 0; i < size; i++) {
-                        LocalMediaFolder mediaFolder = folderWindow.getFolder(i);
-                        if (mediaFolder == null) {
-                            continue;
-                        }
-                        String firstCover = LocalMediaPageLoader
-                                .getInstance(getContext()).getFirstCover(mediaFolder.getBucketId());
-                        mediaFolder.setFirstImagePath(firstCover);
-                    }
+                    LocalMediaPageLoader.getInstance(getContext()).loadFirstCovers(folderWindow.getFolderData());
                     return true;
                 }
 
@@ -597,21 +971,26 @@ public class PictureSelectorActivity extends PictureBaseActivity implements View
                 mTvPictureTitle.setTag(R.id.view_count_tag, folder.getImageNum());
                 List<LocalMedia> result = folder.getData();
                 if (mAdapter != null) {
-                    int currentSize = mAdapter.getSize();
-                    int resultSize = result.size();
-                    oldCurrentListSize = oldCurrentListSize + currentSize;
-                    if (resultSize >= currentSize) {
-                        // This situation is mainly caused by the use of camera memory, the Activity is recycled
-                        if (currentSize > 0 && currentSize < resultSize && oldCurrentListSize != resultSize) {
-                            mAdapter.getData().addAll(result);
-                            LocalMedia media = mAdapter.getData().get(0);
-                            folder.setFirstImagePath(media.getPath());
-                            folder.getData().add(0, media);
-                            folder.setCheckedNum(1);
-                            folder.setImageNum(folder.getImageNum() + 1);
-                            updateMediaFolder(folderWindow.getFolderData(), media);
-                        } else {
-                            mAdapter.bindData(result);
+                    if (isStreamMedia) {
+                        isStreamMedia = false;
+                        bindStreamResult(folders);
+                    } else {
+                        int currentSize = mAdapter.getSize();
+                        int resultSize = result.size();
+                        oldCurrentListSize = oldCurrentListSize + currentSize;
+                        if (resultSize >= currentSize) {
+                            // This situation is mainly caused by the use of camera memory, the Activity is recycled
+                            if (currentSize > 0 && currentSize < resultSize && oldCurrentListSize != resultSize) {
+                                mAdapter.getData().addAll(result);
+                                LocalMedia media = mAdapter.getData().get(0);
+                                folder.setFirstImagePath(media.getPath());
+                                folder.getData().add(0, media);
+                                folder.setCheckedNum(1);
+                                folder.setImageNum(folder.getImageNum() + 1);
+                                updateMediaFolder(folderWindow.getFolderData(), media);
+                            } else {
+                                mAdapter.bindData(result);
+                            }
                         }
                     }
                     boolean isEmpty = mAdapter.isDataEmpty();
@@ -630,6 +1009,107 @@ public class PictureSelectorActivity extends PictureBaseActivity implements View
         dismissDialog();
     }
 
+    /**
+     * Standard Model，the rows added while the scan continues
+     * # The first batch binds the folders，later batches are appended to them，the open album's grid included
+     *
+     * @param folders
+     */
+    private void initStreamModel(List<LocalMediaFolder> folders) {
+        if (isFinishing() || mAdapter == null || folders.size() == 0) {
+            return;
+        }
+        if (!isStreamMedia && !mAdapter.isDataEmpty()) {
+            // Data restored after the Activity was recycled, wait for the complete result
+            return;
+        }
+        if (isStreamMedia) {
+            appendStreamFolders(folders);
+        } else {
+            isStreamMedia = true;
+            LocalMediaFolder folder = folders.get(0);
+            folder.setChecked(true);
+            folderWindow.bindFolder(folders);
+            mTvPictureTitle.setTag(R.id.view_count_tag, folder.getImageNum());
+            // The grid shares the camera roll's list，later batches are appended to both at once
+            mAdapter.bindData(folder.getData());
+            hideDataNull();
+            dismissDialog();
+        }
+    }
+
+    /**
+     * Append a batch of new rows to the bound folders，folders first seen in the batch are added
+     *
+     * @param folders
+     */
+    private void appendStreamFolders(List<LocalMediaFolder> folders) {
+        Map<Long, LocalMediaFolder> boundFolders = new HashMap<>();
+        for (LocalMediaFolder folder : folderWindow.getFolderData()) {
+            boundFolders.put(folder.getBucketId(), folder);
+        }
+        for (LocalMediaFolder folder : folders) {
+            LocalMediaFolder boundFolder = boundFolders.get(folder.getBucketId());
+            if (boundFolder == null) {
+                continue;
+            }
+            if (boundFolder.getData() == mAdapter.getData()) {
+                appendStreamRows(folder.getData());
+            } else {
+                boundFolder.getData().addAll(folder.getData());
+            }
+        }
+        // Counts of the grown folders，and the new ones
+        folderWindow.mergeFolder(folders, false);
+        LocalMediaFolder currentFolder = boundFolders.get(ValueOf.toLong(mTvPictureTitle.getTag(R.id.view_tag)));
+        if (currentFolder != null) {
+            mTvPictureTitle.setTag(R.id.view_count_tag, currentFolder.getImageNum());
+        }
+    }
+
+    /**
+     * Standard Model，the complete result after streaming
+     *
+     * @param folders
+     */
+    private void bindStreamResult(List<LocalMediaFolder> folders) {
+        long currentBucketId = ValueOf.toLong(mTvPictureTitle.getTag(R.id.view_tag));
+        if (currentBucketId == -1) {
+            // The streamed batches are a prefix of the complete result, only the rest is inserted
+            LocalMediaFolder folder = folders.get(0);
+            appendStreamData(folder.getData());
+            folder.setData(mAdapter.getData());
+            return;
+        }
+        int size = folders.size();
+        for (int i = 0; i < size; i++) {
+            LocalMediaFolder folder = folders.get(i);
+            if (folder.getBucketId() == currentBucketId) {
+                mTvPictureTitle.setTag(R.id.view_index_tag, i);
+                mTvPictureTitle.setTag(R.id.view_count_tag, folder.getImageNum());
+                mAdapter.bindData(folder.getData());
+                break;
+            }
+        }
+    }
+
+    private void appendStreamData(List<LocalMedia> result) {
+        int currentSize = mAdapter.getSize();
+        int resultSize = result.size();
+        if (resultSize > currentSize) {
+            appendStreamRows(result.subList(currentSize, resultSize));
+        }
+    }
+
+    private void appendStreamRows(List<LocalMedia> rows) {
+        if (rows.size() == 0) {
+            return;
+        }
+        int currentSize = mAdapter.getSize();
+        mAdapter.getData().addAll(rows);
+        mAdapter.notifyItemRangeInserted(mAdapter.isShowCamera() ? currentSize + 1 : currentSize, rows.size());
+    }
+
     /**
      * isSame
      *
@@ -1207,18 +1687,33 @@ public class PictureSelectorActivity extends PictureBaseActivity implements View
                 boolean isCurrentCacheFolderData = isCurrentCacheFolderData(position);
                 if (!isCurrentCacheFolderData) {
                     mPage = 1;
+                    mLastMediaId = 0;
                     showPleaseDialog();
-                    LocalMediaPageLoader.getInstance(getContext()).loadPageMediaData(bucketId, mPage,
-                            (OnQueryDataResultListener<LocalMedia>) (result, currentPage, isHasMore) -> {
-                                this.isHasMore = isHasMore;
-                                if (!isFinishing()) {
-                                    if (result.size() == 0) {
-                                        mAdapter.clear();
+                    LocalMediaPageLoader.getInstance(getContext()).loadSeekPageMediaData(this, bucketId, mLastMediaId,
+                            new OnQueryDataResultListener<LocalMedia>() {
+                                @Override
+                                public void onComplete(List<LocalMedia> result, int currentPage, boolean isHasMore) {
+                                }
+
+                                @Override
+                                public void onComplete(List<LocalMedia> result, long resultBucketId, long lastId, boolean isHasMore) {
+                                    PictureSelectorActivity.this.isHasMore = isHasMore;
+                                    mLastMediaId = lastId;
+                                    mediaPagePrefetcher.reset(resultBucketId, lastId, isHasMore);
+                                    if (!isFirstPageComplete) {
+                                        // Opened before the camera roll's first page arrived，there is no snapshot to save
+                                        isFirstPageComplete = true;
+                                        onPageModelComplete();
+                                    }
+                                    if (!isFinishing()) {
+                                        if (result.size() == 0) {
+                                            mAdapter.clear();
+                                        }
+                                        mAdapter.bindData(result);
+                                        mRecyclerView.onScrolled(0, 0);
+                                        mRecyclerView.smoothScrollToPosition(0);
+                                        dismissDialog();
                                     }
-                                    mAdapter.bindData(result);
-                                    mRecyclerView.onScrolled(0, 0);
-                                    mRecyclerView.smoothScrollToPosition(0);
-                                    dismissDialog();
                                 }
                             });
                 }
@@ -1239,6 +1734,7 @@ public class PictureSelectorActivity extends PictureBaseActivity implements View
         LocalMediaFolder lastFolder = folderWindow.getFolder(oldPosition);
         lastFolder.setData(mAdapter.getData());
         lastFolder.setCurrentDataPage(mPage);
+        lastFolder.setCurrentLastMediaId(mLastMediaId);
         lastFolder.setHasMore(isHasMore);
     }
 
@@ -1255,7 +1751,9 @@ public class PictureSelectorActivity extends PictureBaseActivity implements View
                 && currentFolder.getData().size() > 0) {
             mAdapter.bindData(currentFolder.getData());
             mPage = currentFolder.getCurrentDataPage();
+            mLastMediaId = currentFolder.getCurrentLastMediaId();
             isHasMore = currentFolder.isHasMore();
+            mediaPagePrefetcher.reset(currentFolder.getBucketId(), mLastMediaId, isHasMore);
             mRecyclerView.smoothScrollToPosition(0);
 
             return true;
@@ -1352,6 +1850,7 @@ public class PictureSelectorActivity extends PictureBaseActivity implements View
             bundle.putBoolean(PictureConfig.EXTRA_SHOW_CAMERA, mAdapter.isShowCamera());
             bundle.putLong(PictureConfig.EXTRA_BUCKET_ID, ValueOf.toLong(mTvPictureTitle.getTag(R.id.view_tag)));
             bundle.putInt(PictureConfig.EXTRA_PAGE, mPage);
+            bundle.putLong(PictureConfig.EXTRA_LAST_MEDIA_ID, mLastMediaId);
             bundle.putParcelable(PictureConfig.EXTRA_CONFIG, config);
             bundle.putInt(PictureConfig.EXTRA_DATA_COUNT, ValueOf.toInt(mTvPictureTitle.getTag(R.id.view_count_tag)));
             bundle.putString(PictureConfig.EXTRA_IS_CURRENT_DIRECTORY, mTvPictureTitle.getText().toString());
@@ -1667,7 +2166,6 @@ public class PictureSelectorActivity extends PictureBaseActivity implements View
             boolean isAddSameImp = isAddSameImp(folderWindow.getFolder(0) != null ? folderWindow.getFolder(0).getImageNum() : 0);
             if (!isAddSameImp) {
                 mAdapter.getData().add(0, media);
-                mOpenCameraCount++;
             }
             if (checkVideoLegitimacy(media)) {
                 if (config.selectionMode == PictureConfig.SINGLE) {
@@ -2127,6 +2625,15 @@ public class PictureSelectorActivity extends PictureBaseActivity implements View
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        if (config.isPageStrategy) {
+            LocalMediaPageLoader.getInstance(getContext()).cancelPageQuery(this);
+        }
+        if (mediaChangeTracker != null) {
+            mediaChangeTracker.unregister();
+        }
+        if (mediaPagePrefetcher != null) {
+            mediaPagePrefetcher.release();
+        }
         if (animation != null) {
             animation.cancel();
             animation = null;
@@ -1,6 +1,7 @@
 package com.luck.picture.lib.adapter;
 
 import android.content.Context;
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -16,7 +17,11 @@ import com.luck.picture.lib.entity.LocalMediaFolder;
 import com.luck.picture.lib.listener.OnAlbumItemClickListener;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @author：luck
@@ -39,6 +44,59 @@ public class PictureAlbumDirectoryAdapter extends RecyclerView.Adapter<PictureAl
         notifyDataSetChanged();
     }
 
+    /**
+     * Merge a newer scan into the bound folders，a folder keeps its position，checked state and cached pages
+     *
+     * @param folders
+     * @param isRemoveMissing Whether folders missing from the scan are removed
+     */
+    public void mergeFolderData(List<LocalMediaFolder> folders, boolean isRemoveMissing) {
+        if (this.folders == null || this.folders.size() == 0) {
+            bindFolderData(folders);
+            return;
+        }
+        if (folders == null) {
+            return;
+        }
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < this.folders.size(); i++) {
+            positions.put(this.folders.get(i).getBucketId(), i);
+        }
+        Set<Long> bucketIds = new HashSet<>();
+        for (LocalMediaFolder folder : folders) {
+            bucketIds.add(folder.getBucketId());
+            Integer position = positions.get(folder.getBucketId());
+            if (position == null) {
+                // New folders are appended，inserting would move the folder that is currently open
+                this.folders.add(folder);
+                notifyItemInserted(this.folders.size() - 1);
+                continue;
+            }
+            LocalMediaFolder current = this.folders.get(position);
+            if (current.getImageNum() != folder.getImageNum()
+                    || !TextUtils.equals(current.getName(), folder.getName())
+                    || !TextUtils.equals(current.getFirstImagePath(), folder.getFirstImagePath())) {
+                current.setName(folder.getName());
+                current.setImageNum(folder.getImageNum());
+                current.setFirstImagePath(folder.getFirstImagePath());
+                notifyItemChanged(position);
+            }
+        }
+        if (isRemoveMissing) {
+            boolean isRemoved = false;
+            for (int i = this.folders.size() - 1; i >= 0; i--) {
+                if (!bucketIds.contains(this.folders.get(i).getBucketId())) {
+                    this.folders.remove(i);
+                    isRemoved = true;
+                }
+            }
+            if (isRemoved) {
+                // The click listeners hold their bind position
+                notifyDataSetChanged();
+            }
+        }
+    }
+
     public void setChooseMode(int chooseMode) {
         this.chooseMode = chooseMode;
     }
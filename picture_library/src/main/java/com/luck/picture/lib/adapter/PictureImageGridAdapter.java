@@ -36,6 +36,7 @@ import org.jetbrains.annotations.NotNull;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 
 /**
@@ -76,6 +77,49 @@ public class PictureImageGridAdapter extends RecyclerView.Adapter<RecyclerView.V
         this.notifyDataSetChanged();
     }
 
+    /**
+     * 增量刷新-插入到顶部
+     *
+     * @param medias
+     */
+    public void insertData(List<LocalMedia> medias) {
+        if (medias.size() == 0) {
+            return;
+        }
+        data.addAll(0, medias);
+        notifyItemRangeInserted(showCamera ? 1 : 0, medias.size());
+    }
+
+    /**
+     * 增量刷新-替换同一_ID的数据
+     *
+     * @param media
+     */
+    public void updateData(LocalMedia media) {
+        int size = getSize();
+        for (int i = 0; i < size; i++) {
+            if (data.get(i).getId() == media.getId()) {
+                data.set(i, media);
+                notifyItemChanged(showCamera ? i + 1 : i);
+                break;
+            }
+        }
+    }
+
+    /**
+     * 增量刷新-删除
+     *
+     * @param ids
+     */
+    public void removeData(Set<Long> ids) {
+        for (int i = getSize() - 1; i >= 0; i--) {
+            if (ids.contains(data.get(i).getId())) {
+                data.remove(i);
+                notifyItemRemoved(showCamera ? i + 1 : i);
+            }
+        }
+    }
+
 
     public void bindSelectData(List<LocalMedia> images) {
         // 这里重新构构造一个新集合，不然会产生已选集合一变，结果集合也会添加的问题
@@ -0,0 +1,333 @@
+package com.luck.picture.lib.compress;
+
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.luck.picture.lib.entity.LocalMedia;
+import com.luck.picture.lib.tools.PictureFileUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 20:05
+ * @describe：Persistent compression output cache，keyed by the source identity and the compression
+ * parameters，with an index file and LRU eviction to a byte budget. It owns a directory of its own，
+ * outputs handed out by non-cached runs are never touched. Outputs of a running batch are pinned until
+ * {@link #endBatch(Collection)}，which also writes the index once for the whole batch
+ */
+final class CompressCache {
+    private static final String TAG = "CompressCache";
+    private static final String INDEX_FILE_NAME = "compress_cache.index";
+    /**
+     * Created in the target dir，holds nothing but the cached outputs and the index
+     */
+    static final String DIR_NAME = "compress_cache";
+    private static final String FILE_PREFIX = "IMG_CMP_";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    /**
+     * Compressed files not in the index are deleted once they are this old
+     */
+    private static final long STALE_FILE_TIME = 24 * 60 * 60 * 1000L;
+    static final long DEFAULT_MAX_SIZE = 100 * 1024 * 1024;
+
+    private static CompressCache instance;
+
+    private final File cacheDir;
+    private final File indexFile;
+    private long maxSize;
+    private long size;
+    /**
+     * key -> entry，in access order，the eldest is evicted first
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+    /**
+     * key -> running batches using it，never evicted while pinned
+     */
+    private final Map<String, Integer> pinCounts = new HashMap<>();
+    /**
+     * The index on disk is behind the entries
+     */
+    private boolean isDirty;
+
+    private CompressCache(File cacheDir, long maxSize) {
+        this.cacheDir = cacheDir;
+        this.indexFile = new File(cacheDir, INDEX_FILE_NAME);
+        this.maxSize = maxSize;
+        cacheDir.mkdirs();
+        readIndex();
+        trimToSize();
+        flush();
+    }
+
+    /**
+     * The cache of the directory，one per process
+     *
+     * @param cacheDir a directory used by nothing but the cache，see {@link #DIR_NAME}
+     * @param maxSize  byte budget，0 - {@link #DEFAULT_MAX_SIZE}
+     * @return
+     */
+    static synchronized CompressCache getInstance(File cacheDir, long maxSize) {
+        long size = maxSize > 0 ? maxSize : DEFAULT_MAX_SIZE;
+        if (instance == null || !instance.cacheDir.equals(cacheDir)) {
+            instance = new CompressCache(cacheDir, size);
+        } else if (instance.maxSize != size) {
+            instance.setMaxSize(size);
+        }
+        return instance;
+    }
+
+    /**
+     * Cache key of a source and the compression parameters
+     *
+     * @param media
+     * @param sourcePath the file that is compressed，the cut file if cropped
+     * @param params     every parameter that changes the output
+     * @return null if the source can not be identified
+     */
+    static String getKey(LocalMedia media, String sourcePath, String params) {
+        if (TextUtils.isEmpty(sourcePath)) {
+            return null;
+        }
+        File sourceFile = new File(sourcePath);
+        // The file may not be readable by path on Q, the MediaStore identity still is
+        long lastModified = sourceFile.lastModified();
+        long length = lastModified > 0 ? sourceFile.length() : media.getSize();
+        String identity = media.getId() + "|" + sourcePath + "|" + length + "|" + lastModified
+                + "|" + media.getWidth() + "x" + media.getHeight() + "|" + media.getOrientation() + "|" + params;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            byte[] bytes = digest.digest(identity.getBytes(UTF_8));
+            StringBuilder key = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * The file a new output for the key is written to
+     *
+     * @param key
+     * @param suffix
+     * @return
+     */
+    File getFile(String key, String suffix) {
+        return new File(cacheDir, FILE_PREFIX + key + (TextUtils.isEmpty(suffix) ? ".jpg" : suffix));
+    }
+
+    /**
+     * @param key
+     * @return the cached output，null on a miss
+     */
+    synchronized File get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        File file = new File(cacheDir, entry.fileName);
+        if (!file.exists()) {
+            // Removed by someone else
+            entries.remove(key);
+            size -= entry.length;
+            isDirty = true;
+            return null;
+        }
+        return file;
+    }
+
+    /**
+     * Record a new output and evict the least recently used ones over the budget that no batch uses，
+     * the index is written by {@link #endBatch(Collection)}
+     *
+     * @param key
+     * @param file
+     */
+    synchronized void put(String key, File file) {
+        if (!cacheDir.equals(file.getParentFile()) || !file.exists()) {
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(file.getName(), file.length()));
+        if (previous != null) {
+            size -= previous.length;
+        }
+        size += file.length();
+        isDirty = true;
+        trimToSize();
+    }
+
+    /**
+     * Keep the output of the key until the batch ends，a batch may be delivering it
+     *
+     * @param key
+     */
+    synchronized void pin(String key) {
+        Integer count = pinCounts.get(key);
+        pinCounts.put(key, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * A batch has delivered its results，its keys may be evicted again and the index is written once
+     *
+     * @param keys every key the batch pinned
+     */
+    synchronized void endBatch(Collection<String> keys) {
+        for (String key : keys) {
+            Integer count = pinCounts.get(key);
+            if (count == null || count <= 1) {
+                pinCounts.remove(key);
+            } else {
+                pinCounts.put(key, count - 1);
+            }
+        }
+        trimToSize();
+        flush();
+    }
+
+    synchronized void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+        trimToSize();
+        flush();
+    }
+
+    synchronized long getSize() {
+        return size;
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<String, Entry> entry = iterator.next();
+            if (pinCounts.containsKey(entry.getKey())) {
+                continue;
+            }
+            iterator.remove();
+            size -= entry.getValue().length;
+            isDirty = true;
+            new File(cacheDir, entry.getValue().fileName).delete();
+        }
+    }
+
+    private void flush() {
+        if (isDirty) {
+            isDirty = false;
+            writeIndex();
+        }
+    }
+
+    /**
+     * Load the index，dropping entries whose file is gone and deleting old outputs the index does not know，
+     * the directory belongs to the cache so they are leftovers of an interrupted batch
+     */
+    private void readIndex() {
+        if (indexFile.exists()) {
+            BufferedReader reader = null;
+            try {
+                reader = new BufferedReader(new InputStreamReader(new FileInputStream(indexFile), UTF_8));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] values = line.split("\t");
+                    if (values.length != 3) {
+                        continue;
+                    }
+                    File file = new File(cacheDir, values[1]);
+                    if (file.exists()) {
+                        long length = file.length();
+                        entries.put(values[0], new Entry(values[1], length));
+                        size += length;
+                    } else {
+                        isDirty = true;
+                    }
+                }
+            } catch (IOException e) {
+                // A damaged index only costs the cached outputs
+                e.printStackTrace();
+                entries.clear();
+                size = 0;
+            } finally {
+                PictureFileUtils.close(reader);
+            }
+        }
+        File[] files = cacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        Set<String> indexedNames = new HashSet<>();
+        for (Entry entry : entries.values()) {
+            indexedNames.add(entry.fileName);
+        }
+        long now = System.currentTimeMillis();
+        int count = 0;
+        for (File file : files) {
+            String name = file.getName();
+            if (name.startsWith(FILE_PREFIX) && !indexedNames.contains(name) && now - file.lastModified() > STALE_FILE_TIME) {
+                if (file.delete()) {
+                    count++;
+                }
+            }
+        }
+        if (count > 0) {
+            Log.i(TAG, "deleted stale outputs: " + count);
+        }
+    }
+
+    /**
+     * Written to a temp file and renamed，least recently used first
+     */
+    private void writeIndex() {
+        File tempFile = new File(cacheDir, INDEX_FILE_NAME + ".tmp");
+        BufferedWriter writer = null;
+        try {
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), UTF_8));
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                writer.write(entry.getKey());
+                writer.write('\t');
+                writer.write(entry.getValue().fileName);
+                writer.write('\t');
+                writer.write(String.valueOf(entry.getValue().length));
+                writer.write('\n');
+            }
+            writer.close();
+            writer = null;
+            if (!tempFile.renameTo(indexFile)) {
+                tempFile.delete();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            tempFile.delete();
+        } finally {
+            PictureFileUtils.close(writer);
+        }
+    }
+
+    private static class Entry {
+        private final String fileName;
+        private final long length;
+
+        private Entry(String fileName, long length) {
+            this.fileName = fileName;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.luck.picture.lib.compress;
+
+import android.graphics.Bitmap;
+
+import java.io.File;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 22:10
+ * @describe：One item of a compression batch，carried from stage to stage of the {@link CompressPipeline}
+ */
+final class CompressJob {
+    final int index;
+    final InputStreamProvider provider;
+    /**
+     * null if the item needs no compression，{@link #result} is already known then
+     */
+    Engine engine;
+    File result;
+    String cacheKey;
+    Exception error;
+    /**
+     * Dropped by {@link CompressPipeline#cancel(int)}，its output was deleted
+     */
+    boolean isCancelled;
+    /**
+     * Prefetch bytes held by the source the prefetch stage read，0 once decoded or if it is streamed
+     */
+    long prefetchBytes;
+    /**
+     * Decoded and rotated to the output size，held until it is encoded
+     */
+    Bitmap bitmap;
+
+    CompressJob(int index, InputStreamProvider provider) {
+        this.index = index;
+        this.provider = provider;
+    }
+
+    /**
+     * The item is done without compression
+     *
+     * @param result
+     * @return
+     */
+    CompressJob complete(File result) {
+        this.result = result;
+        return this;
+    }
+}
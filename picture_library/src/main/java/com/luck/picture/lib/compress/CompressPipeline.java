@@ -0,0 +1,405 @@
+package com.luck.picture.lib.compress;
+
+import com.luck.picture.lib.thread.PictureThreadUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 22:10
+ * @describe：Batch compression in four stages，prefetch (IO) → decode (CPU) → encode (CPU) → write (IO)，
+ * so the next sources are read and the finished outputs are published while others are decoded and encoded.
+ * The encoder streams into a temp file that the write stage renames，no output is held in memory.
+ * The queues between the stages are bounded，a stage that runs ahead blocks until the next one has room，
+ * and the prefetched sources waiting for a decode are bounded by bytes
+ */
+final class CompressPipeline {
+    /**
+     * Queued once per thread of a stage after the last item
+     */
+    private static final CompressJob END = new CompressJob(-1, null);
+
+    interface Callback {
+        /**
+         * Resolve an item on the prefetch stage，set {@link CompressJob#engine} if it has to be compressed，
+         * otherwise its {@link CompressJob#result}
+         *
+         * @param job
+         * @throws Exception
+         */
+        void plan(CompressJob job) throws Exception;
+
+        /**
+         * An item is done，with a result, an error or cancelled，on the thread of the stage that finished it
+         *
+         * @param job
+         */
+        void onComplete(CompressJob job);
+
+        /**
+         * Every stage has finished，after the last {@link #onComplete(CompressJob)}
+         *
+         * @param stats
+         */
+        void onFinish(List<PipelineStats> stats);
+    }
+
+    private interface Step {
+        void run(CompressJob job) throws Exception;
+    }
+
+    private final List<InputStreamProvider> providers;
+    private final Callback callback;
+    private final Stage prefetchStage;
+    private final Stage decodeStage;
+    private final Stage encodeStage;
+    private final Stage writeStage;
+    /**
+     * Bytes of prefetched sources not decoded yet，a source larger than this is streamed by the decode
+     */
+    private final long maxPrefetchBytes;
+    private final Object prefetchLock = new Object();
+    private long prefetchedBytes;
+    private final Set<Integer> cancelledIndexes = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+    private volatile boolean isCancelled;
+    private long startTime;
+
+    /**
+     * @param providers
+     * @param parallelism images decoded and encoded at the same time，split between the two CPU stages
+     * @param depth       capacity of each queue between the stages
+     * @param maxPrefetchBytes
+     * @param callback
+     */
+    CompressPipeline(List<InputStreamProvider> providers, int parallelism, int depth, long maxPrefetchBytes,
+                     Callback callback) {
+        this.providers = providers;
+        this.callback = callback;
+        int decodeThreads = Math.max(1, (parallelism + 1) / 2);
+        int encodeThreads = Math.max(1, parallelism / 2);
+        this.prefetchStage = new Stage("prefetch", 1, 0, null);
+        this.decodeStage = new Stage("decode", decodeThreads, depth, this::decode);
+        this.encodeStage = new Stage("encode", encodeThreads, depth, this::encode);
+        this.writeStage = new Stage("write", 1, depth, this::write);
+        this.maxPrefetchBytes = maxPrefetchBytes;
+    }
+
+    void start() {
+        startTime = System.nanoTime();
+        ExecutorService executor = PictureThreadUtils.getCachedPool();
+        executor.execute(this::runPrefetch);
+        startWorkers(executor, decodeStage, encodeStage);
+        startWorkers(executor, encodeStage, writeStage);
+        startWorkers(executor, writeStage, null);
+    }
+
+    private void startWorkers(ExecutorService executor, Stage stage, Stage next) {
+        for (int i = 0; i < stage.threadCount; i++) {
+            executor.execute(() -> runWorker(stage, next));
+        }
+    }
+
+    /**
+     * Items not started yet are dropped，the ones in a stage finish that stage and are dropped after it，
+     * nothing more is reported
+     */
+    void cancel() {
+        isCancelled = true;
+        synchronized (prefetchLock) {
+            prefetchLock.notifyAll();
+        }
+    }
+
+    /**
+     * Drop one item like {@link #cancel()}，it is still reported，as cancelled
+     *
+     * @param index
+     */
+    void cancel(int index) {
+        cancelledIndexes.add(index);
+        synchronized (prefetchLock) {
+            prefetchLock.notifyAll();
+        }
+    }
+
+    boolean isCancelled() {
+        return isCancelled;
+    }
+
+    private boolean isCancelled(CompressJob job) {
+        return isCancelled || cancelledIndexes.contains(job.index);
+    }
+
+    private void runPrefetch() {
+        for (int i = 0; i < providers.size() && !isCancelled; i++) {
+            CompressJob job = new CompressJob(i, providers.get(i));
+            if (!isCancelled(job)) {
+                long start = System.nanoTime();
+                try {
+                    callback.plan(job);
+                    if (job.engine != null && reservePrefetch(job)) {
+                        job.engine.prefetch();
+                    }
+                } catch (Exception e) {
+                    job.error = e;
+                }
+                prefetchStage.finishItem(start);
+            }
+            if (job.engine == null || job.error != null || isCancelled(job)) {
+                complete(job);
+            } else {
+                forward(prefetchStage, decodeStage, job);
+            }
+        }
+        endStage(prefetchStage, decodeStage);
+    }
+
+    private void runWorker(Stage stage, Stage next) {
+        while (true) {
+            CompressJob job = take(stage.queue);
+            if (job == END) {
+                break;
+            }
+            if (!isCancelled(job)) {
+                long start = System.nanoTime();
+                try {
+                    stage.step.run(job);
+                } catch (Exception e) {
+                    job.error = e;
+                }
+                stage.finishItem(start);
+            }
+            if (next == null || job.error != null || isCancelled(job)) {
+                complete(job);
+            } else {
+                forward(stage, next, job);
+            }
+        }
+        endStage(stage, next);
+    }
+
+    /**
+     * Wait until the source of the job fits the prefetch bytes
+     *
+     * @param job
+     * @return false if the source is too large or of unknown size，or the batch was cancelled，the decode streams it then
+     */
+    private boolean reservePrefetch(CompressJob job) {
+        long size = job.engine.getSourceSize();
+        if (size <= 0 || size > maxPrefetchBytes) {
+            return false;
+        }
+        boolean isInterrupted = false;
+        synchronized (prefetchLock) {
+            while (!isCancelled(job) && prefetchedBytes + size > maxPrefetchBytes) {
+                try {
+                    prefetchLock.wait();
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                }
+            }
+            if (!isCancelled(job)) {
+                prefetchedBytes += size;
+                job.prefetchBytes = size;
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return job.prefetchBytes > 0;
+    }
+
+    private void releasePrefetch(CompressJob job) {
+        if (job.prefetchBytes > 0) {
+            synchronized (prefetchLock) {
+                prefetchedBytes -= job.prefetchBytes;
+                job.prefetchBytes = 0;
+                prefetchLock.notifyAll();
+            }
+        }
+    }
+
+    private void decode(CompressJob job) throws Exception {
+        try {
+            job.bitmap = job.engine.decode();
+        } finally {
+            releasePrefetch(job);
+        }
+    }
+
+    private void encode(CompressJob job) throws Exception {
+        try {
+            job.engine.encode(job.bitmap);
+        } finally {
+            job.engine.release(job.bitmap);
+            job.bitmap = null;
+        }
+    }
+
+    private void write(CompressJob job) throws Exception {
+        job.result = job.engine.commit();
+    }
+
+    /**
+     * Hand the job to the next stage，blocking while its queue is full
+     */
+    private void forward(Stage stage, Stage next, CompressJob job) {
+        long start = System.nanoTime();
+        put(next.queue, job);
+        stage.blockedNanos.addAndGet(System.nanoTime() - start);
+        next.recordQueueDepth();
+    }
+
+    private void complete(CompressJob job) {
+        release(job);
+        if (isCancelled(job)) {
+            job.isCancelled = true;
+            deleteOutput(job);
+        }
+        if (!isCancelled) {
+            callback.onComplete(job);
+        }
+    }
+
+    /**
+     * Only an output the engine wrote for this batch is deleted，never a source or an earlier result
+     */
+    private void deleteOutput(CompressJob job) {
+        if (job.engine != null && job.result != null) {
+            File output = job.result;
+            job.result = null;
+            output.delete();
+        }
+    }
+
+    /**
+     * Free whatever the job still holds
+     */
+    private void release(CompressJob job) {
+        if (job.bitmap != null) {
+            job.engine.release(job.bitmap);
+            job.bitmap = null;
+        }
+        releasePrefetch(job);
+        if (job.engine != null && job.result == null) {
+            // The prefetched source and an encoded temp file that never got committed
+            job.engine.discard();
+        }
+        job.provider.close();
+    }
+
+    /**
+     * The last thread of a stage to finish ends the next stage
+     */
+    private void endStage(Stage stage, Stage next) {
+        if (stage.activeCount.decrementAndGet() > 0) {
+            return;
+        }
+        stage.endTime = System.nanoTime();
+        if (next != null) {
+            for (int i = 0; i < next.threadCount; i++) {
+                put(next.queue, END);
+            }
+        } else {
+            callback.onFinish(getStats());
+        }
+    }
+
+    List<PipelineStats> getStats() {
+        List<PipelineStats> stats = new ArrayList<>(4);
+        stats.add(prefetchStage.getStats());
+        stats.add(decodeStage.getStats());
+        stats.add(encodeStage.getStats());
+        stats.add(writeStage.getStats());
+        return stats;
+    }
+
+    /**
+     * The workers are never interrupted by the pool，an interrupt from elsewhere is kept for later
+     */
+    private static void put(BlockingQueue<CompressJob> queue, CompressJob job) {
+        boolean isInterrupted = false;
+        while (true) {
+            try {
+                queue.put(job);
+                break;
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CompressJob take(BlockingQueue<CompressJob> queue) {
+        boolean isInterrupted = false;
+        try {
+            while (true) {
+                try {
+                    return queue.take();
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                }
+            }
+        } finally {
+            if (isInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private final class Stage {
+        private final String name;
+        private final int threadCount;
+        /**
+         * The items waiting for this stage，null for the first one
+         */
+        private final BlockingQueue<CompressJob> queue;
+        private final int queueCapacity;
+        private final Step step;
+        private final AtomicInteger activeCount;
+        private final AtomicLong processedCount = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final AtomicLong blockedNanos = new AtomicLong();
+        private int maxQueueDepth;
+        private volatile long endTime;
+
+        private Stage(String name, int threadCount, int queueCapacity, Step step) {
+            this.name = name;
+            this.threadCount = threadCount;
+            this.queueCapacity = queueCapacity;
+            this.queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : null;
+            this.step = step;
+            this.activeCount = new AtomicInteger(threadCount);
+        }
+
+        private void finishItem(long startNanos) {
+            busyNanos.addAndGet(System.nanoTime() - startNanos);
+            processedCount.incrementAndGet();
+        }
+
+        private synchronized void recordQueueDepth() {
+            maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+        }
+
+        private synchronized PipelineStats getStats() {
+            long end = endTime != 0 ? endTime : System.nanoTime();
+            return new PipelineStats(name, threadCount, processedCount.get(),
+                    TimeUnit.NANOSECONDS.toMillis(busyNanos.get()),
+                    TimeUnit.NANOSECONDS.toMillis(blockedNanos.get()),
+                    queueCapacity, maxQueueDepth, TimeUnit.NANOSECONDS.toMillis(end - startTime));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.luck.picture.lib.compress;
+
+import com.luck.picture.lib.entity.LocalMedia;
+
+import java.io.File;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 22:40
+ * @describe：The outcome of one item of a compression batch，delivered in the order the items finish
+ */
+public final class CompressResult {
+    private final int index;
+    private final LocalMedia media;
+    private final File file;
+    private final Throwable error;
+    private final boolean isCancelled;
+    private final int finishedCount;
+    private final int totalCount;
+
+    CompressResult(int index, LocalMedia media, File file, Throwable error, boolean isCancelled,
+                   int finishedCount, int totalCount) {
+        this.index = index;
+        this.media = media;
+        this.file = file;
+        this.error = error;
+        this.isCancelled = isCancelled;
+        this.finishedCount = finishedCount;
+        this.totalCount = totalCount;
+    }
+
+    /**
+     * Position of the item in the batch
+     *
+     * @return
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * The LocalMedia of the item，its compress path is already set on success
+     *
+     * @return null if the item was not loaded as a LocalMedia
+     */
+    public LocalMedia getMedia() {
+        return media;
+    }
+
+    /**
+     * The compressed file，or the source if it did not need compression
+     *
+     * @return null if the item failed or was cancelled
+     */
+    public File getFile() {
+        return file;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return file != null && error == null && !isCancelled;
+    }
+
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    /**
+     * Items of the batch finished so far，this one included
+     *
+     * @return
+     */
+    public int getFinishedCount() {
+        return finishedCount;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Progress of the batch，0 to 1
+     *
+     * @return
+     */
+    public float getProgress() {
+        return totalCount > 0 ? (float) finishedCount / totalCount : 1;
+    }
+}
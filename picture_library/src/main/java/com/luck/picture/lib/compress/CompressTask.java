@@ -0,0 +1,138 @@
+package com.luck.picture.lib.compress;
+
+import com.luck.picture.lib.entity.LocalMedia;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 22:40
+ * @describe：Handle of a batch started with {@link Luban.Builder#launch()}，to cancel the batch or single
+ * items and to consume the results as a stream in the order the items finish
+ */
+public final class CompressTask {
+    /**
+     * Marks the end of the stream，put back after it is taken so every later read sees it too
+     */
+    private static final CompressResult END = new CompressResult(-1, null, null, null, false, 0, 0);
+
+    private final CompressPipeline pipeline;
+    private final int totalCount;
+    private final AtomicInteger finishedCount = new AtomicInteger();
+    private final BlockingQueue<CompressResult> results = new LinkedBlockingQueue<>();
+    private volatile boolean isCancelled;
+    private volatile boolean isFinished;
+
+    CompressTask(CompressPipeline pipeline, int totalCount) {
+        this.pipeline = pipeline;
+        this.totalCount = totalCount;
+        if (pipeline == null) {
+            finish();
+        }
+    }
+
+    /**
+     * Stop the batch，items not started are dropped and outputs still being written are deleted.
+     * Results already delivered are kept，nothing is reported to the listeners afterwards
+     */
+    public void cancel() {
+        if (isCancelled) {
+            return;
+        }
+        isCancelled = true;
+        if (pipeline != null) {
+            pipeline.cancel();
+        }
+        finish();
+    }
+
+    /**
+     * Stop one item，it is reported as cancelled and its output is deleted unless it is already delivered
+     *
+     * @param index position of the item in the batch
+     */
+    public void cancel(int index) {
+        if (pipeline != null) {
+            pipeline.cancel(index);
+        }
+    }
+
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    /**
+     * No more results will be added，the batch is done, cancelled or failed
+     *
+     * @return
+     */
+    public boolean isFinished() {
+        return isFinished;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public int getFinishedCount() {
+        return finishedCount.get();
+    }
+
+    /**
+     * The next finished item，waiting until one is available
+     *
+     * @return null once the stream has ended
+     * @throws InterruptedException
+     */
+    public CompressResult take() throws InterruptedException {
+        return unwrap(results.take());
+    }
+
+    /**
+     * The next finished item，waiting up to the given time
+     *
+     * @param timeout
+     * @param unit
+     * @return null on timeout or once the stream has ended，see {@link #isFinished()}
+     * @throws InterruptedException
+     */
+    public CompressResult poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return unwrap(results.poll(timeout, unit));
+    }
+
+    private CompressResult unwrap(CompressResult result) {
+        if (result == END) {
+            results.offer(END);
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * Add the outcome of a job to the stream
+     *
+     * @param job
+     * @param media
+     * @return null if the batch was cancelled
+     */
+    CompressResult deliver(CompressJob job, LocalMedia media) {
+        if (isCancelled) {
+            return null;
+        }
+        boolean isSuccess = !job.isCancelled && job.error == null;
+        CompressResult result = new CompressResult(job.index, media, isSuccess ? job.result : null,
+                job.error, job.isCancelled, finishedCount.incrementAndGet(), totalCount);
+        results.offer(result);
+        return result;
+    }
+
+    void finish() {
+        if (!isFinished) {
+            isFinished = true;
+            results.offer(END);
+        }
+    }
+}
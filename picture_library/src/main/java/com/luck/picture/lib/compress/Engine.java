@@ -5,10 +5,18 @@ import android.graphics.BitmapFactory;
 import android.graphics.Matrix;
 import android.media.ExifInterface;
 
+import com.luck.picture.lib.tools.PictureFileUtils;
+import com.yalantis.ucrop.util.BitmapMemoryBudget;
+import com.yalantis.ucrop.util.BitmapPool;
+
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
 
 /**
  * Responsible for starting compress and managing active and cached resources.
@@ -20,13 +28,47 @@ class Engine {
     private int srcHeight;
     private boolean focusAlpha;
     private static final int DEFAULT_QUALITY = 80;
+    /**
+     * Encoder output buffer，the encoded image is never held in memory as a whole
+     */
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    /**
+     * Lowest quality tried by the target size search
+     */
+    private static final int MIN_QUALITY = 10;
+    /**
+     * The target size search stops once the output is this close below the target
+     */
+    private static final float SIZE_TOLERANCE = 0.05F;
+    /**
+     * A search buffer grown beyond this is not kept for the next image
+     */
+    private static final int MAX_KEEP_BUFFER_SIZE = 4 * 1024 * 1024;
+    /**
+     * The target size search buffer，reused by the images compressed on the same thread
+     */
+    private static final ThreadLocal<Buffer> SEARCH_BUFFER = new ThreadLocal<>();
     private int compressQuality;
+    private int targetSizeKb;
+    /**
+     * Memory reserved from the decode until the bitmap is released
+     */
+    private BitmapMemoryBudget.Permit permit;
+    /**
+     * The whole source read by {@link #prefetch()}，dropped once decoded
+     */
+    private Buffer source;
 
     Engine(InputStreamProvider srcImg, File tagImg, boolean focusAlpha, int compressQuality) throws IOException {
+        this(srcImg, tagImg, focusAlpha, compressQuality, 0);
+    }
+
+    Engine(InputStreamProvider srcImg, File tagImg, boolean focusAlpha, int compressQuality, int targetSizeKb) throws IOException {
         this.tagImg = tagImg;
         this.srcImg = srcImg;
         this.focusAlpha = focusAlpha;
-        this.compressQuality = compressQuality <= 0 ? DEFAULT_QUALITY : compressQuality;
+        this.compressQuality = compressQuality <= 0 || compressQuality > 100 ? DEFAULT_QUALITY : compressQuality;
+        this.targetSizeKb = targetSizeKb;
 
         if (srcImg.getMedia() != null
                 && srcImg.getMedia().getWidth() > 0
@@ -34,12 +76,9 @@ class Engine {
             this.srcWidth = srcImg.getMedia().getWidth();
             this.srcHeight = srcImg.getMedia().getHeight();
         } else {
-            BitmapFactory.Options options = new BitmapFactory.Options();
-            options.inJustDecodeBounds = true;
-            options.inSampleSize = 1;
-            BitmapFactory.decodeStream(srcImg.open(), null, options);
-            this.srcWidth = options.outWidth;
-            this.srcHeight = options.outHeight;
+            ImageHeader header = Checker.SINGLE.readHeader(srcImg);
+            this.srcWidth = header.width;
+            this.srcHeight = header.height;
         }
     }
 
@@ -68,54 +107,365 @@ class Engine {
         }
     }
 
-    private Bitmap rotatingImage(Bitmap bitmap, int angle) {
-        Matrix matrix = new Matrix();
-
-        matrix.postRotate(angle);
+    /**
+     * Clockwise degrees of the EXIF orientation of the source，0 if it is not rotated
+     *
+     * @return
+     */
+    private int getRotateDegree() {
+        if (srcImg.getMedia() == null || srcImg.getMedia().isCut()
+                || !Checker.SINGLE.isJPG(srcImg.getMedia().getMimeType())) {
+            return 0;
+        }
+        switch (srcImg.getMedia().getOrientation()) {
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                return 90;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                return 180;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                return 270;
+            default:
+                return 0;
+        }
+    }
 
-        return Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+    /**
+     * The largest power of two not above the scale，the only sample sizes the decoders apply exactly
+     */
+    private static int floorPowerOfTwo(int scale) {
+        return Integer.highestOneBit(Math.max(1, scale));
     }
 
     File compress() throws IOException {
+        Bitmap bitmap = decode();
+        try {
+            encode(bitmap);
+        } finally {
+            release(bitmap);
+        }
+        return commit();
+    }
+
+    /**
+     * The size of the source file as MediaStore reports it
+     *
+     * @return 0 if unknown
+     */
+    long getSourceSize() {
+        return srcImg.getMedia() != null ? Math.max(0, srcImg.getMedia().getSize()) : 0;
+    }
+
+    /**
+     * Read the whole source into memory，for a decode that does not wait on IO
+     *
+     * @throws IOException
+     */
+    void prefetch() throws IOException {
+        InputStream is = srcImg.open();
+        if (is == null) {
+            throw new IOException("open failed: " + srcImg.getPath());
+        }
+        try {
+            Buffer buffer = new Buffer(0);
+            buffer.readFrom(is, getSourceSize());
+            source = buffer;
+        } finally {
+            srcImg.close();
+        }
+    }
+
+    /**
+     * Decode and rotate to the output size，the memory reserved for it is held until {@link #release(Bitmap)}.
+     * The prefetched source is used and dropped，without one the source is streamed from the provider
+     *
+     * @return
+     * @throws IOException
+     */
+    Bitmap decode() throws IOException {
+        Buffer source = this.source;
+        this.source = null;
+        BitmapMemoryBudget budget = BitmapMemoryBudget.getInstance();
+        // The output is exactly the source divided by the Luban scale, which need not be a power of two
+        int scale = budget.fitSampleSize(srcWidth, srcHeight, Math.max(1, computeSize()), null);
+        int rotateDegree = getRotateDegree();
         BitmapFactory.Options options = new BitmapFactory.Options();
-        options.inSampleSize = computeSize();
-        Bitmap tagBitmap = BitmapFactory.decodeStream(srcImg.open(), null, options);
-        ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        if (srcImg.getMedia() != null && !srcImg.getMedia().isCut()) {
-            if (Checker.SINGLE.isJPG(srcImg.getMedia().getMimeType())) {
-                int orientation = srcImg.getMedia().getOrientation();
-                if (orientation > 0) {
-                    boolean isOrientation = true;
-                    switch (orientation) {
-                        case ExifInterface.ORIENTATION_ROTATE_90:
-                            orientation = 90;
-                            break;
-                        case ExifInterface.ORIENTATION_ROTATE_180:
-                            orientation = 180;
-                            break;
-                        case ExifInterface.ORIENTATION_ROTATE_270:
-                            orientation = 270;
-                            break;
-                        default:
-                            isOrientation = false;
-                            break;
-                    }
-                    if (isOrientation) {
-                        tagBitmap = rotatingImage(tagBitmap, orientation);
-                    }
-                }
+        options.inSampleSize = floorPowerOfTwo(scale);
+        // Decoded bitmap plus the one transform into the rotated output
+        long bytes = (rotateDegree != 0 ? 2 : 1) * BitmapMemoryBudget.estimateBytes(srcWidth, srcHeight, options.inSampleSize, null);
+        try {
+            permit = budget.acquire(bytes, BitmapMemoryBudget.PRIORITY_LOW);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        try {
+            return decode(options, scale, rotateDegree, source);
+        } catch (IOException | RuntimeException e) {
+            release(null);
+            throw e;
+        }
+    }
+
+    /**
+     * Hand the decoded bitmap back to the pool and free its memory reservation
+     *
+     * @param bitmap
+     */
+    void release(Bitmap bitmap) {
+        BitmapPool.getInstance().put(bitmap);
+        if (permit != null) {
+            permit.close();
+            permit = null;
+        }
+    }
+
+    /**
+     * Decode with the power of two part of the scale. Without rotation the remaining scale is applied by
+     * the decoder through inDensity/inTargetDensity；with rotation it is folded into the rotate matrix，
+     * so there is at most one transform after the decode
+     */
+    private Bitmap decode(BitmapFactory.Options options, int scale, int rotateDegree, Buffer source) throws IOException {
+        int targetWidth = Math.max(1, Math.round((float) srcWidth / scale));
+        int targetHeight = Math.max(1, Math.round((float) srcHeight / scale));
+        boolean isExactScale = srcWidth > 0 && srcHeight > 0 && scale != options.inSampleSize;
+        if (isExactScale && rotateDegree == 0) {
+            options.inScaled = true;
+            options.inDensity = Math.max(srcWidth, srcHeight) / options.inSampleSize;
+            options.inTargetDensity = Math.max(targetWidth, targetHeight);
+        }
+        BitmapPool pool = BitmapPool.getInstance();
+        pool.prepareDecode(options, srcWidth, srcHeight);
+        Bitmap tagBitmap;
+        try {
+            tagBitmap = decodeSource(options, source);
+        } catch (IllegalArgumentException e) {
+            // The pooled bitmap did not fit this image
+            pool.decodeFailed(options);
+            tagBitmap = decodeSource(options, source);
+        }
+        if (tagBitmap == null) {
+            throw new IOException("decode failed: " + srcImg.getPath());
+        }
+        if (rotateDegree != 0) {
+            Matrix matrix = new Matrix();
+            if (isExactScale) {
+                // Long side to long side, the size in MediaStore may already be the rotated one
+                float ratio = (float) Math.max(targetWidth, targetHeight) / Math.max(tagBitmap.getWidth(), tagBitmap.getHeight());
+                matrix.postScale(ratio, ratio);
             }
+            matrix.postRotate(rotateDegree);
+            Bitmap rotateBitmap = pool.transform(tagBitmap, matrix, true);
+            pool.put(tagBitmap);
+            tagBitmap = rotateBitmap;
         }
-        if (tagBitmap != null) {
-            compressQuality = compressQuality <= 0 || compressQuality > 100 ? DEFAULT_QUALITY : compressQuality;
-            tagBitmap.compress(focusAlpha ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG, compressQuality, stream);
-            tagBitmap.recycle();
+        return tagBitmap;
+    }
+
+    private Bitmap decodeSource(BitmapFactory.Options options, Buffer source) throws IOException {
+        if (source != null) {
+            return BitmapFactory.decodeByteArray(source.array(), 0, source.size(), options);
+        }
+        return BitmapFactory.decodeStream(srcImg.open(), null, options);
+    }
+
+    /**
+     * Rename the encoded temp file to the target，a reader never sees a partial image
+     *
+     * @return
+     * @throws IOException
+     */
+    File commit() throws IOException {
+        File tempFile = getTempFile();
+        if (!tempFile.renameTo(tagImg)) {
+            tempFile.delete();
+            throw new IOException("rename failed: " + tagImg.getAbsolutePath());
         }
-        FileOutputStream fos = new FileOutputStream(tagImg);
-        fos.write(stream.toByteArray());
-        fos.flush();
-        fos.close();
-        stream.close();
         return tagImg;
     }
-}
\ No newline at end of file
+
+    /**
+     * Drop an encoded output that is not committed
+     */
+    void discard() {
+        source = null;
+        File tempFile = getTempFile();
+        if (tempFile.exists()) {
+            tempFile.delete();
+        }
+    }
+
+    private File getTempFile() {
+        return new File(tagImg.getAbsolutePath() + ".tmp");
+    }
+
+    /**
+     * The quality the image was written with，searched in target size mode
+     *
+     * @return
+     */
+    int getQuality() {
+        return compressQuality;
+    }
+
+    /**
+     * Encode straight into the temp file through a small buffer，the output is never held in memory as a whole，
+     * only the target size search encodes into a buffer kept per thread. {@link #commit()} publishes it
+     *
+     * @param bitmap
+     * @throws IOException
+     */
+    void encode(Bitmap bitmap) throws IOException {
+        // PNG ignores the quality, there is nothing to search
+        if (targetSizeKb > 0 && !focusAlpha) {
+            Buffer buffer = SEARCH_BUFFER.get();
+            SEARCH_BUFFER.remove();
+            if (buffer == null) {
+                buffer = new Buffer();
+            }
+            try {
+                encodeToTargetSize(bitmap, buffer);
+                writeFile(buffer::writeTo);
+            } finally {
+                if (buffer.capacity() <= MAX_KEEP_BUFFER_SIZE) {
+                    SEARCH_BUFFER.set(buffer);
+                }
+            }
+        } else {
+            writeFile(stream -> {
+                if (!bitmap.compress(focusAlpha ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG, compressQuality, stream)) {
+                    throw new IOException("encode failed: " + srcImg.getPath());
+                }
+            });
+        }
+    }
+
+    /**
+     * Binary search the highest quality not above compressQuality whose output fits the target，
+     * every try is encoded from the same decoded bitmap into the same buffer
+     *
+     * @param bitmap
+     * @param buffer left holding the output of the chosen quality
+     * @throws IOException
+     */
+    private void encodeToTargetSize(Bitmap bitmap, Buffer buffer) throws IOException {
+        long targetSize = targetSizeKb * 1024L;
+        long lowerSize = (long) (targetSize * (1 - SIZE_TOLERANCE));
+        int maxQuality = Math.max(compressQuality, MIN_QUALITY);
+        encodeJpeg(bitmap, maxQuality, buffer);
+        if (buffer.size() <= targetSize) {
+            compressQuality = maxQuality;
+            return;
+        }
+        int encodedQuality = maxQuality;
+        int low = MIN_QUALITY;
+        int high = maxQuality - 1;
+        int bestQuality = -1;
+        while (low <= high) {
+            int quality = (low + high) >>> 1;
+            encodeJpeg(bitmap, quality, buffer);
+            encodedQuality = quality;
+            if (buffer.size() <= targetSize) {
+                bestQuality = quality;
+                if (buffer.size() >= lowerSize) {
+                    break;
+                }
+                low = quality + 1;
+            } else {
+                high = quality - 1;
+            }
+        }
+        if (bestQuality == -1) {
+            // Even the lowest quality is too large, the smallest output is used
+            bestQuality = MIN_QUALITY;
+        }
+        if (bestQuality != encodedQuality) {
+            encodeJpeg(bitmap, bestQuality, buffer);
+        }
+        compressQuality = bestQuality;
+    }
+
+    private void encodeJpeg(Bitmap bitmap, int quality, Buffer buffer) throws IOException {
+        buffer.reset();
+        if (!bitmap.compress(Bitmap.CompressFormat.JPEG, quality, buffer)) {
+            throw new IOException("encode failed: " + srcImg.getPath());
+        }
+    }
+
+    /**
+     * Write through a small buffer into the temp file，deleted again if the write fails
+     *
+     * @param writer
+     * @throws IOException
+     */
+    private void writeFile(OutputWriter writer) throws IOException {
+        File tempFile = getTempFile();
+        OutputStream stream = null;
+        boolean isWritten = false;
+        try {
+            stream = new BufferedOutputStream(new FileOutputStream(tempFile), OUTPUT_BUFFER_SIZE);
+            writer.write(stream);
+            stream.close();
+            stream = null;
+            isWritten = true;
+        } finally {
+            PictureFileUtils.close(stream);
+            if (!isWritten) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    private interface OutputWriter {
+        void write(OutputStream stream) throws IOException;
+    }
+
+    /**
+     * A ByteArrayOutputStream whose array is kept across reset()，for the target size search or a prefetched source
+     */
+    static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer() {
+            this(OUTPUT_BUFFER_SIZE);
+        }
+
+        Buffer(int size) {
+            super(size);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+
+        /**
+         * The backing array，valid up to {@link #size()}
+         */
+        byte[] array() {
+            return buf;
+        }
+
+        /**
+         * Replace the content with the whole stream，read straight into the backing array
+         *
+         * @param is
+         * @param sizeHint expected length，0 if unknown
+         * @throws IOException
+         */
+        void readFrom(InputStream is, long sizeHint) throws IOException {
+            reset();
+            // One spare byte, so the end of a stream of the expected length is seen without growing
+            if (sizeHint > 0 && sizeHint < Integer.MAX_VALUE - 1 && buf.length <= sizeHint) {
+                buf = new byte[(int) sizeHint + 1];
+            }
+            while (true) {
+                if (count == buf.length) {
+                    buf = Arrays.copyOf(buf, Math.max(OUTPUT_BUFFER_SIZE, buf.length * 2));
+                }
+                int read = is.read(buf, count, buf.length - count);
+                if (read == -1) {
+                    break;
+                }
+                count += read;
+            }
+        }
+    }
+}
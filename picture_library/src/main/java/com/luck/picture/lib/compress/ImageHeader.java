@@ -0,0 +1,290 @@
+package com.luck.picture.lib.compress;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 20:40
+ * @describe：Mime type, dimensions and EXIF orientation read from the image header in one pass，
+ * only the marker segments needed are read instead of the whole file
+ */
+final class ImageHeader {
+    private static final String TAG = "Luban";
+    /**
+     * An EXIF segment larger than this is not parsed，a segment is at most 64KB by format
+     */
+    private static final int MAX_EXIF_LENGTH = 64 * 1024;
+    /**
+     * Bytes read for the fixed size headers of PNG, GIF, WEBP, BMP and HEIF
+     */
+    private static final int PROBE_LENGTH = 32;
+
+    /**
+     * null if the format is not recognized
+     */
+    final String mimeType;
+    final int width;
+    final int height;
+    /**
+     * Clockwise degrees，0, 90, 180 or 270
+     */
+    final int orientation;
+
+    private ImageHeader(String mimeType, int width, int height, int orientation) {
+        this.mimeType = mimeType;
+        this.width = width;
+        this.height = height;
+        this.orientation = orientation;
+    }
+
+    static ImageHeader of(String mimeType, int width, int height) {
+        return new ImageHeader(mimeType, width, height, 0);
+    }
+
+    boolean isJPG() {
+        return Checker.MIME_TYPE_JPEG.equals(mimeType);
+    }
+
+    /**
+     * Read the header，the stream is left positioned somewhere inside the file
+     *
+     * @param is
+     * @return never null，an unknown header has a null mimeType
+     */
+    static ImageHeader read(InputStream is) {
+        if (is == null) {
+            return new ImageHeader(null, 0, 0, 0);
+        }
+        try {
+            byte[] probe = new byte[PROBE_LENGTH];
+            int count = readFully(is, probe, 0, 3);
+            if (count == 3 && (probe[0] & 0xFF) == 0xFF && (probe[1] & 0xFF) == 0xD8 && (probe[2] & 0xFF) == 0xFF) {
+                return readJpeg(is);
+            }
+            count += readFully(is, probe, count, PROBE_LENGTH - count);
+            return readFixedHeader(probe, count);
+        } catch (IOException e) {
+            Log.e(TAG, "read header failed", e);
+            return new ImageHeader(null, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Walk the JPEG markers up to the frame header，after the 0xFFD8FF already read
+     */
+    private static ImageHeader readJpeg(InputStream is) throws IOException {
+        int orientation = 0;
+        // The first marker byte was consumed with the signature
+        int marker = is.read();
+        while (marker != -1) {
+            // Check if the marker is a padding.
+            if (marker == 0xFF) {
+                marker = is.read();
+                continue;
+            }
+            // Check if the marker is SOI or TEM.
+            if (marker == 0xD8 || marker == 0x01) {
+                marker = nextMarker(is);
+                continue;
+            }
+            // Check if the marker is EOI or SOS.
+            if (marker == 0xD9 || marker == 0xDA) {
+                break;
+            }
+            int length = readUnsignedShort(is);
+            if (length < 2) {
+                Log.e(TAG, "Invalid length");
+                break;
+            }
+            length -= 2;
+            if (isStartOfFrame(marker)) {
+                // precision, height, width
+                if (length < 5) {
+                    break;
+                }
+                is.read();
+                int height = readUnsignedShort(is);
+                int width = readUnsignedShort(is);
+                return new ImageHeader(Checker.MIME_TYPE_JPEG, width, height, orientation);
+            }
+            if (marker == 0xE1 && length >= 8 && length <= MAX_EXIF_LENGTH) {
+                byte[] segment = new byte[length];
+                if (readFully(is, segment, 0, length) != length) {
+                    break;
+                }
+                if (pack(segment, 0, 4, false) == 0x45786966 && pack(segment, 4, 2, false) == 0) {
+                    orientation = parseExifOrientation(segment, 6, length - 6);
+                }
+            } else if (!skipFully(is, length)) {
+                break;
+            }
+            marker = nextMarker(is);
+        }
+        return new ImageHeader(Checker.MIME_TYPE_JPEG, 0, 0, orientation);
+    }
+
+    private static int nextMarker(InputStream is) throws IOException {
+        int value = is.read();
+        if (value != 0xFF) {
+            return -1;
+        }
+        // Skip the padding
+        while (value == 0xFF) {
+            value = is.read();
+        }
+        return value;
+    }
+
+    private static boolean isStartOfFrame(int marker) {
+        return marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+    }
+
+    /**
+     * JEITA CP-3451 Exif Version 2.2，the TIFF structure after "Exif\0\0"
+     */
+    private static int parseExifOrientation(byte[] jpeg, int offset, int length) {
+        if (length <= 8) {
+            return 0;
+        }
+        // Identify the byte order.
+        int tag = pack(jpeg, offset, 4, false);
+        if (tag != 0x49492A00 && tag != 0x4D4D002A) {
+            Log.e(TAG, "Invalid byte order");
+            return 0;
+        }
+        boolean littleEndian = (tag == 0x49492A00);
+
+        // Get the offset and check if it is reasonable.
+        int count = pack(jpeg, offset + 4, 4, littleEndian) + 2;
+        if (count < 10 || count > length) {
+            Log.e(TAG, "Invalid offset");
+            return 0;
+        }
+        offset += count;
+        length -= count;
+
+        // Get the count and go through all the elements.
+        count = pack(jpeg, offset - 2, 2, littleEndian);
+        while (count-- > 0 && length >= 12) {
+            // Get the tag and check if it is orientation.
+            tag = pack(jpeg, offset, 2, littleEndian);
+            if (tag == 0x0112) {
+                int orientation = pack(jpeg, offset + 8, 2, littleEndian);
+                switch (orientation) {
+                    case 1:
+                        return 0;
+                    case 3:
+                        return 180;
+                    case 6:
+                        return 90;
+                    case 8:
+                        return 270;
+                }
+                Log.e(TAG, "Unsupported orientation");
+                return 0;
+            }
+            offset += 12;
+            length -= 12;
+        }
+        return 0;
+    }
+
+    private static ImageHeader readFixedHeader(byte[] data, int count) {
+        if (count >= 24 && pack(data, 0, 4, false) == 0x89504E47) {
+            // IHDR is always the first chunk
+            return new ImageHeader("image/png", pack(data, 16, 4, false), pack(data, 20, 4, false), 0);
+        }
+        if (count >= 10 && data[0] == 'G' && data[1] == 'I' && data[2] == 'F') {
+            return new ImageHeader("image/gif", pack(data, 6, 2, true), pack(data, 8, 2, true), 0);
+        }
+        if (count >= 30 && pack(data, 0, 4, false) == 0x52494646 && pack(data, 8, 4, false) == 0x57454250) {
+            return readWebp(data);
+        }
+        if (count >= 26 && data[0] == 'B' && data[1] == 'M') {
+            return new ImageHeader("image/bmp", pack(data, 18, 4, true), Math.abs(pack(data, 22, 4, true)), 0);
+        }
+        if (count >= 12 && pack(data, 4, 4, false) == 0x66747970) {
+            int brand = pack(data, 8, 4, false);
+            if (brand == 0x68656963 || brand == 0x68656978 || brand == 0x6D696631 || brand == 0x6D736631) {
+                // heic, heix, mif1, msf1，the size is in a box that is not worth the walk
+                return new ImageHeader(Checker.MIME_TYPE_HEIC, 0, 0, 0);
+            }
+        }
+        return new ImageHeader(null, 0, 0, 0);
+    }
+
+    private static ImageHeader readWebp(byte[] data) {
+        int chunk = pack(data, 12, 4, false);
+        int width = 0;
+        int height = 0;
+        if (chunk == 0x56503820) {
+            // VP8 lossy
+            width = pack(data, 26, 2, true) & 0x3FFF;
+            height = pack(data, 28, 2, true) & 0x3FFF;
+        } else if (chunk == 0x5650384C) {
+            // VP8L lossless，14 bit fields after the signature byte
+            int bits = pack(data, 21, 4, true);
+            width = (bits & 0x3FFF) + 1;
+            height = ((bits >> 14) & 0x3FFF) + 1;
+        } else if (chunk == 0x56503858) {
+            // VP8X extended，24 bit canvas size minus one
+            width = (pack(data, 24, 3, true)) + 1;
+            height = (pack(data, 27, 3, true)) + 1;
+        }
+        return new ImageHeader("image/webp", width, height, 0);
+    }
+
+    private static int readUnsignedShort(InputStream is) throws IOException {
+        int high = is.read();
+        int low = is.read();
+        if ((high | low) < 0) {
+            throw new IOException("Unexpected end of header");
+        }
+        return (high << 8) | low;
+    }
+
+    private static int readFully(InputStream is, byte[] buffer, int offset, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int read = is.read(buffer, offset + total, length - total);
+            if (read == -1) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private static boolean skipFully(InputStream is, long length) throws IOException {
+        while (length > 0) {
+            long skipped = is.skip(length);
+            if (skipped <= 0) {
+                // Some streams only skip after a read
+                if (is.read() == -1) {
+                    return false;
+                }
+                skipped = 1;
+            }
+            length -= skipped;
+        }
+        return true;
+    }
+
+    private static int pack(byte[] bytes, int offset, int length, boolean littleEndian) {
+        int step = 1;
+        if (littleEndian) {
+            offset += length - 1;
+            step = -1;
+        }
+
+        int value = 0;
+        while (length-- > 0) {
+            value = (value << 8) | (bytes[offset] & 0xFF);
+            offset += step;
+        }
+        return value;
+    }
+}
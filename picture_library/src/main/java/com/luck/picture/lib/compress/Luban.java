@@ -2,7 +2,6 @@ package com.luck.picture.lib.compress;
 
 import android.content.Context;
 import android.net.Uri;
-import android.os.AsyncTask;
 import android.os.Environment;
 import android.os.Handler;
 import android.os.Looper;
@@ -12,18 +11,28 @@ import android.util.Log;
 
 import com.luck.picture.lib.config.PictureMimeType;
 import com.luck.picture.lib.entity.LocalMedia;
+import com.luck.picture.lib.thread.PictureThreadUtils;
 import com.luck.picture.lib.tools.AndroidQTransformUtils;
 import com.luck.picture.lib.tools.DateUtils;
 import com.luck.picture.lib.tools.SdkVersionUtils;
 import com.luck.picture.lib.tools.StringUtils;
+import com.yalantis.ucrop.util.BitmapMemoryBudget;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 @SuppressWarnings("unused")
 public class Luban implements Handler.Callback {
@@ -32,6 +41,23 @@ public class Luban implements Handler.Callback {
     private static final int MSG_COMPRESS_SUCCESS = 0;
     private static final int MSG_COMPRESS_START = 1;
     private static final int MSG_COMPRESS_ERROR = 2;
+    private static final int MSG_COMPRESS_ITEM = 3;
+    /**
+     * Heap assumed for one compression in flight，decoded bitmap plus rotation copy and encoder buffers
+     */
+    private static final long MEMORY_PER_COMPRESS = 32 * 1024 * 1024;
+    /**
+     * Items queued between two stages of the pipeline
+     */
+    private static final int DEFAULT_PIPELINE_DEPTH = 2;
+    /**
+     * Bytes of whole source files read ahead of the decode，larger sources are streamed
+     */
+    private static final long MAX_PREFETCH_BYTES = 16 * 1024 * 1024;
+    /**
+     * Appended to names generated from the clock，items planned in the same millisecond get different files
+     */
+    private static final AtomicLong NAME_SEQUENCE = new AtomicLong();
 
     private String mTargetDir;
     private String mNewFileName;
@@ -40,12 +66,20 @@ public class Luban implements Handler.Callback {
     private int mLeastCompressSize;
     private OnRenameListener mRenameListener;
     private OnCompressListener mCompressListener;
+    private OnCompressItemListener mCompressItemListener;
     private CompressionPredicate mCompressionPredicate;
     private List<InputStreamProvider> mStreamProviders;
     private List<String> mPaths;
     private List<LocalMedia> mediaList;
-    private int index = -1;
     private int compressQuality;
+    private int targetSizeKb;
+    private int mMaxParallelism;
+    private long mCacheMaxSize;
+    private int mPipelineDepth;
+    private OnPipelineStatsListener mPipelineStatsListener;
+    private CompressCache mCompressCache;
+    private CompressPipeline mPipeline;
+    private CompressTask mTask;
     private Handler mHandler;
     private int dataCount;
 
@@ -58,11 +92,17 @@ public class Luban implements Handler.Callback {
         this.mRenameListener = builder.mRenameListener;
         this.mStreamProviders = builder.mStreamProviders;
         this.mCompressListener = builder.mCompressListener;
+        this.mCompressItemListener = builder.mCompressItemListener;
         this.mLeastCompressSize = builder.mLeastCompressSize;
         this.mCompressionPredicate = builder.mCompressionPredicate;
         this.compressQuality = builder.compressQuality;
         this.focusAlpha = builder.focusAlpha;
         this.isCamera = builder.isCamera;
+        this.mMaxParallelism = builder.mMaxParallelism;
+        this.targetSizeKb = builder.targetSizeKb;
+        this.mCacheMaxSize = builder.mCacheMaxSize;
+        this.mPipelineDepth = builder.mPipelineDepth;
+        this.mPipelineStatsListener = builder.mPipelineStatsListener;
         this.mHandler = new Handler(Looper.getMainLooper(), this);
     }
 
@@ -86,7 +126,7 @@ public class Luban implements Handler.Callback {
         try {
             LocalMedia media = provider.getMedia();
             String encryptionValue = StringUtils.getEncryptionValue(media.getPath(), media.getWidth(), media.getHeight());
-            if (!TextUtils.isEmpty(encryptionValue) && !media.isCut()) {
+            if (!isGeneratedName(media)) {
                 cacheBuilder = mTargetDir + "/" +
                         "IMG_CMP_" +
                         encryptionValue +
@@ -94,7 +134,7 @@ public class Luban implements Handler.Callback {
             } else {
                 cacheBuilder = mTargetDir +
                         "/" +
-                        DateUtils.getCreateFileName("IMG_CMP_") +
+                        DateUtils.getCreateFileName("IMG_CMP_") + "_" + NAME_SEQUENCE.incrementAndGet() +
                         (TextUtils.isEmpty(suffix) ? ".jpg" : suffix);
             }
         } catch (Exception e) {
@@ -104,6 +144,29 @@ public class Luban implements Handler.Callback {
         return new File(cacheBuilder);
     }
 
+    /**
+     * Cut images，and images without an encryption value，are named from the clock instead of their content
+     *
+     * @param media
+     * @return
+     */
+    private static boolean isGeneratedName(LocalMedia media) {
+        String encryptionValue = StringUtils.getEncryptionValue(media.getPath(), media.getWidth(), media.getHeight());
+        return TextUtils.isEmpty(encryptionValue) || media.isCut();
+    }
+
+    /**
+     * {@link StringUtils#rename(String)} plus a sequence number，unique within the process
+     *
+     * @param fileName
+     * @return
+     */
+    private static String getUniqueFileName(String fileName) {
+        String renamed = StringUtils.rename(fileName);
+        int index = renamed.lastIndexOf(".");
+        return renamed.substring(0, index) + "_" + NAME_SEQUENCE.incrementAndGet() + renamed.substring(index);
+    }
+
     private File getImageCustomFile(Context context, String filename) {
         if (TextUtils.isEmpty(mTargetDir)) {
             mTargetDir = getImageCacheDir(context).getAbsolutePath();
@@ -136,61 +199,191 @@ public class Luban implements Handler.Callback {
         return null;
     }
 
+    /**
+     * Images compressed at the same time，one per core but no more than half the heap can hold
+     *
+     * @return
+     */
+    private int getParallelism() {
+        if (mMaxParallelism > 0) {
+            return mMaxParallelism;
+        }
+        int memoryLimit = (int) (Runtime.getRuntime().maxMemory() / 2 / MEMORY_PER_COMPRESS);
+        return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), memoryLimit));
+    }
+
+    /**
+     * Items each stage of the pipeline may hold ready for the next one
+     *
+     * @return
+     */
+    private int getPipelineDepth() {
+        return mPipelineDepth > 0 ? mPipelineDepth : DEFAULT_PIPELINE_DEPTH;
+    }
+
+    /**
+     * Source bytes the pipeline may hold ahead of the decode，no more than a sixteenth of the heap
+     *
+     * @return
+     */
+    private long getPrefetchBytes() {
+        return Math.min(MAX_PREFETCH_BYTES, Runtime.getRuntime().maxMemory() / 16);
+    }
+
+    /**
+     * The target dir is resolved once before the workers run，they all read the same value
+     * # Only the private default dir is cached，in a subdirectory of its own，files in a dir set by the user
+     * and outputs of non-cached runs are never evicted
+     */
+    private void prepareTargetDir(Context context) {
+        if (TextUtils.isEmpty(mTargetDir)) {
+            File imageCacheDir = getImageCacheDir(context);
+            if (imageCacheDir != null) {
+                mTargetDir = imageCacheDir.getAbsolutePath();
+                if (mCacheMaxSize >= 0) {
+                    mCompressCache = CompressCache.getInstance(new File(imageCacheDir, CompressCache.DIR_NAME), mCacheMaxSize);
+                }
+            }
+        }
+    }
+
     /**
      * start asynchronous compress thread
+     *
+     * @return the handle to cancel the batch and to read the results as they finish
      */
-    private void launch(final Context context) {
-        if (mStreamProviders == null || mPaths == null || mStreamProviders.size() == 0 && mCompressListener != null) {
-            mCompressListener.onError(new NullPointerException("image file cannot be null"));
-        }
-        Iterator<InputStreamProvider> iterator = mStreamProviders.iterator();
-        // 当前压缩下标
-        index = -1;
-        while (iterator.hasNext()) {
-            final InputStreamProvider path = iterator.next();
-            AsyncTask.SERIAL_EXECUTOR.execute(() -> {
+    private CompressTask launch(final Context context) {
+        if (mStreamProviders == null || mPaths == null || mStreamProviders.size() == 0) {
+            if (mCompressListener != null) {
+                mCompressListener.onError(new NullPointerException("image file cannot be null"));
+            }
+            return new CompressTask(null, 0);
+        }
+        prepareTargetDir(context);
+        // The engines reserve their decodes without a Context
+        BitmapMemoryBudget.getInstance(context);
+        List<InputStreamProvider> providers = new ArrayList<>(mStreamProviders);
+        mStreamProviders.clear();
+        // Completion is counted，the items finish in any order
+        AtomicInteger remaining = new AtomicInteger(providers.size());
+        // The first failure，a failed item is reported on its own and the others carry on
+        AtomicReference<Throwable> firstError = new AtomicReference<>();
+        mHandler.sendMessage(mHandler.obtainMessage(MSG_COMPRESS_START));
+        // Cached outputs of the batch are pinned until it is delivered
+        Set<String> batchKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        mPipeline = new CompressPipeline(providers, getParallelism(), getPipelineDepth(), getPrefetchBytes(), new CompressPipeline.Callback() {
+            @Override
+            public void plan(CompressJob job) throws Exception {
                 try {
-                    index++;
-                    mHandler.sendMessage(mHandler.obtainMessage(MSG_COMPRESS_START));
-                    String newPath;
-                    if (path.open() != null) {
-                        if (path.getMedia().isCompressed()
-                                && !TextUtils.isEmpty(path.getMedia().getCompressPath())) {
-                            // 压缩过的图片不重复压缩  注意:如果是开启了裁剪 就算压缩过也要重新压缩
-                            boolean exists = !path.getMedia().isCut() && new File(path.getMedia().getCompressPath()).exists();
-
-                            File result = exists ? new File(path.getMedia().getCompressPath())
-                                    : compress(context, path);
-                            newPath = result.getAbsolutePath();
-                        } else {
-                            File result = PictureMimeType.isHasVideo(path.getMedia().getMimeType())
-                                    ? new File(path.getPath()) : compress(context, path);
-                            newPath = result.getAbsolutePath();
-                        }
-                    } else {
-                        // error
-                        newPath = path.getPath();
+                    planItem(context, job);
+                } finally {
+                    if (job.cacheKey != null) {
+                        batchKeys.add(job.cacheKey);
                     }
-                    if (mediaList != null && mediaList.size() > 0) {
-                        LocalMedia media = mediaList.get(index);
-                        boolean isHasHttp = PictureMimeType.isHasHttp(newPath);
-                        boolean isHasVideo = PictureMimeType.isHasVideo(media.getMimeType());
-                        media.setCompressed(!isHasHttp && !isHasVideo);
-                        media.setCompressPath(isHasHttp || isHasVideo ? null : newPath);
-                        media.setAndroidQToPath(SdkVersionUtils.checkedAndroid_Q() ? media.getCompressPath() : null);
-                        boolean isLast = index == mediaList.size() - 1;
-                        if (isLast) {
-                            mHandler.sendMessage(mHandler.obtainMessage(MSG_COMPRESS_SUCCESS, mediaList));
-                        }
-                    } else {
-                        mHandler.sendMessage(mHandler.obtainMessage(MSG_COMPRESS_ERROR, new IOException()));
+                }
+            }
+
+            @Override
+            public void onComplete(CompressJob job) {
+                if (!job.isCancelled && job.error == null) {
+                    try {
+                        finishItem(job);
+                    } catch (Exception e) {
+                        job.error = e;
                     }
-                } catch (IOException e) {
-                    mHandler.sendMessage(mHandler.obtainMessage(MSG_COMPRESS_ERROR, e));
                 }
-            });
+                CompressResult result = mTask.deliver(job, getItemMedia(job));
+                if (result != null) {
+                    mHandler.sendMessage(mHandler.obtainMessage(MSG_COMPRESS_ITEM, result));
+                }
+                if (!job.isCancelled && job.error != null) {
+                    firstError.compareAndSet(null, job.error);
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    // Only once every item is done，a cancelled item is left as it was
+                    Throwable error = firstError.get();
+                    mHandler.sendMessage(error != null ? mHandler.obtainMessage(MSG_COMPRESS_ERROR, error)
+                            : mHandler.obtainMessage(MSG_COMPRESS_SUCCESS, mediaList));
+                }
+            }
+
+            @Override
+            public void onFinish(List<PipelineStats> stats) {
+                if (mCompressCache != null) {
+                    mCompressCache.endBatch(batchKeys);
+                }
+                mTask.finish();
+                Log.i(TAG, "pipeline " + stats);
+                if (mPipelineStatsListener != null) {
+                    mHandler.post(() -> mPipelineStatsListener.onStats(stats));
+                }
+            }
+        });
+        mTask = new CompressTask(mPipeline, providers.size());
+        mPipeline.start();
+        return mTask;
+    }
+
+    private LocalMedia getItemMedia(CompressJob job) {
+        if (mediaList != null && mediaList.size() > job.index) {
+            return mediaList.get(job.index);
+        }
+        return job.provider.getMedia();
+    }
 
-            iterator.remove();
+    /**
+     * Resolve an item，either to its result or to an engine that still has to run
+     *
+     * @param context
+     * @param job
+     * @throws IOException
+     */
+    private void planItem(Context context, CompressJob job) throws IOException {
+        InputStreamProvider path = job.provider;
+        if (path.open() != null) {
+            if (path.getMedia().isCompressed()
+                    && !TextUtils.isEmpty(path.getMedia().getCompressPath())) {
+                // 压缩过的图片不重复压缩  注意:如果是开启了裁剪 就算压缩过也要重新压缩
+                boolean exists = !path.getMedia().isCut() && new File(path.getMedia().getCompressPath()).exists();
+                if (exists) {
+                    job.complete(new File(path.getMedia().getCompressPath()));
+                } else {
+                    planRealLocalMedia(context, job);
+                }
+            } else if (PictureMimeType.isHasVideo(path.getMedia().getMimeType())) {
+                job.complete(new File(path.getPath()));
+            } else {
+                planRealLocalMedia(context, job);
+            }
+        } else {
+            // error
+            job.complete(new File(path.getPath()));
+        }
+    }
+
+    /**
+     * An item of the batch is done，its result is set on the LocalMedia
+     *
+     * @param job
+     * @throws IOException
+     */
+    private void finishItem(CompressJob job) throws IOException {
+        if (job.result == null) {
+            throw new IOException("compress failed: " + job.provider.getPath());
+        }
+        if (job.engine != null) {
+            finishEngine(job);
+        }
+        String newPath = job.result.getAbsolutePath();
+        if (mediaList != null && mediaList.size() > job.index) {
+            LocalMedia media = mediaList.get(job.index);
+            boolean isHasHttp = PictureMimeType.isHasHttp(newPath);
+            boolean isHasVideo = PictureMimeType.isHasVideo(media.getMimeType());
+            media.setCompressed(!isHasHttp && !isHasVideo);
+            media.setCompressPath(isHasHttp || isHasVideo ? null : newPath);
+            media.setAndroidQToPath(SdkVersionUtils.checkedAndroid_Q() ? media.getCompressPath() : null);
+        } else {
+            throw new IOException();
         }
     }
 
@@ -199,44 +392,97 @@ public class Luban implements Handler.Callback {
      */
     private File get(InputStreamProvider input, Context context) throws IOException {
         try {
-            return new Engine(input, getImageCacheFile(context, input, Checker.SINGLE.extSuffix(input)), focusAlpha, compressQuality).compress();
+            return compressEngine(input, getImageCacheFile(context, input, Checker.SINGLE.extSuffix(input)));
         } finally {
             input.close();
         }
     }
 
     private List<File> get(Context context) throws IOException {
-        List<File> results = new ArrayList<>();
-        Iterator<InputStreamProvider> iterator = mStreamProviders.iterator();
-
-        while (iterator.hasNext()) {
-            InputStreamProvider provider = iterator.next();
-            InputStream inputStream = provider.open();
-            if (inputStream != null) {
-                if (provider.getMedia().isCompressed()
-                        && !TextUtils.isEmpty(provider.getMedia().getCompressPath())) {
-                    // 压缩过的图片不重复压缩  注意:如果是开启了裁剪 就算压缩过也要重新压缩
-                    boolean exists = !provider.getMedia().isCut() && new File(provider.getMedia().getCompressPath()).exists();
-                    File oldFile = exists ? new File(provider.getMedia().getCompressPath())
-                            : compress(context, provider);
-                    results.add(oldFile);
-                } else {
-                    boolean hasVideo = PictureMimeType.isHasVideo(provider.getMedia().getMimeType());
-                    results.add(hasVideo ? new File(provider.getMedia().getPath()) : compress(context, provider));
-                }
+        prepareTargetDir(context);
+        // The engines reserve their decodes without a Context
+        BitmapMemoryBudget.getInstance(context);
+        List<InputStreamProvider> providers = new ArrayList<>(mStreamProviders);
+        mStreamProviders.clear();
+        List<Callable<File>> jobs = new ArrayList<>(providers.size());
+        // Cached outputs of the batch are pinned until it returns
+        Set<String> batchKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        for (InputStreamProvider provider : providers) {
+            jobs.add(() -> getItem(context, provider, batchKeys));
+        }
+        List<File> results = new ArrayList<>(providers.size());
+        try {
+            // invokeAll keeps the results in the order of the input
+            for (Future<File> future : PictureThreadUtils.getFixedPool(getParallelism()).invokeAll(jobs)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            if (mCompressCache != null) {
+                mCompressCache.endBatch(batchKeys);
+            }
+        }
+        return results;
+    }
+
+    private File getItem(Context context, InputStreamProvider provider, Set<String> batchKeys) throws IOException {
+        InputStream inputStream = provider.open();
+        if (inputStream != null) {
+            if (provider.getMedia().isCompressed()
+                    && !TextUtils.isEmpty(provider.getMedia().getCompressPath())) {
+                // 压缩过的图片不重复压缩  注意:如果是开启了裁剪 就算压缩过也要重新压缩
+                boolean exists = !provider.getMedia().isCut() && new File(provider.getMedia().getCompressPath()).exists();
+                return exists ? new File(provider.getMedia().getCompressPath())
+                        : compress(context, provider, batchKeys);
             } else {
-                // error
-                results.add(new File(provider.getMedia().getPath()));
+                boolean hasVideo = PictureMimeType.isHasVideo(provider.getMedia().getMimeType());
+                return hasVideo ? new File(provider.getMedia().getPath()) : compress(context, provider, batchKeys);
             }
-            iterator.remove();
+        } else {
+            // error
+            return new File(provider.getMedia().getPath());
         }
+    }
 
-        return results;
+    /**
+     * Run the engine，the quality it chose is kept on the LocalMedia
+     */
+    private File compressEngine(InputStreamProvider path, File outFile) throws IOException {
+        CompressJob job = new CompressJob(0, path);
+        job.engine = newEngine(path, outFile);
+        job.result = job.engine.compress();
+        finishEngine(job);
+        return job.result;
     }
 
-    private File compress(Context context, InputStreamProvider path) throws IOException {
+    private Engine newEngine(InputStreamProvider path, File outFile) throws IOException {
+        return new Engine(path, outFile, focusAlpha, compressQuality, targetSizeKb);
+    }
+
+    /**
+     * The engine of the job has written its output，the quality it chose is kept on the LocalMedia
+     * and the output is added to the cache
+     */
+    private void finishEngine(CompressJob job) {
+        if (job.provider.getMedia() != null) {
+            job.provider.getMedia().setCompressQuality(targetSizeKb > 0 ? job.engine.getQuality() : 0);
+        }
+        if (job.cacheKey != null && mCompressCache != null) {
+            mCompressCache.put(job.cacheKey, job.result);
+        }
+    }
+
+    private File compress(Context context, InputStreamProvider path, Set<String> batchKeys) throws IOException {
         try {
-            return compressRealLocalMedia(context, path);
+            return compressRealLocalMedia(context, path, batchKeys);
         } finally {
             path.close();
         }
@@ -245,7 +491,9 @@ public class Luban implements Handler.Callback {
     private File compressReal(Context context, InputStreamProvider path) throws IOException {
         File result;
         String suffix = Checker.SINGLE.extSuffix(path.getMedia() != null ? path.getMedia().getMimeType() : "");
-        File outFile = getImageCacheFile(context, path, TextUtils.isEmpty(suffix) ? Checker.SINGLE.extSuffix(path) : suffix);
+        // The header is only read once per item
+        String sourceSuffix = Checker.SINGLE.extSuffix(path);
+        File outFile = getImageCacheFile(context, path, TextUtils.isEmpty(suffix) ? sourceSuffix : suffix);
         if (mRenameListener != null) {
             String filename = mRenameListener.rename(path.getPath());
             outFile = getImageCustomFile(context, filename);
@@ -254,24 +502,48 @@ public class Luban implements Handler.Callback {
         if (mCompressionPredicate != null) {
             if (mCompressionPredicate.apply(path.getPath())
                     && Checker.SINGLE.needCompress(mLeastCompressSize, path.getPath())) {
-                result = new Engine(path, outFile, focusAlpha, compressQuality).compress();
+                result = compressEngine(path, outFile);
             } else {
                 result = new File(path.getPath());
             }
         } else {
-            if (Checker.SINGLE.extSuffix(path).startsWith(".gif")) {
+            if (sourceSuffix.startsWith(".gif")) {
                 // GIF without compression
                 result = new File(path.getPath());
             } else {
                 result = Checker.SINGLE.needCompress(mLeastCompressSize, path.getPath()) ?
-                        new Engine(path, outFile, focusAlpha, compressQuality).compress() :
+                        compressEngine(path, outFile) :
                         new File(path.getPath());
             }
         }
         return result;
     }
 
-    private File compressRealLocalMedia(Context context, InputStreamProvider path) throws IOException {
+    private File compressRealLocalMedia(Context context, InputStreamProvider path, Set<String> batchKeys) throws IOException {
+        CompressJob job = new CompressJob(0, path);
+        try {
+            planRealLocalMedia(context, job);
+        } finally {
+            if (job.cacheKey != null) {
+                batchKeys.add(job.cacheKey);
+            }
+        }
+        if (job.engine != null) {
+            job.result = job.engine.compress();
+            finishEngine(job);
+        }
+        return job.result;
+    }
+
+    /**
+     * Resolve a LocalMedia to its result，or to the engine and output file if it has to be compressed
+     *
+     * @param context
+     * @param job
+     * @throws IOException
+     */
+    private void planRealLocalMedia(Context context, CompressJob job) throws IOException {
+        InputStreamProvider path = job.provider;
         File result = null;
         LocalMedia media = path.getMedia();
         if (media == null) {
@@ -279,19 +551,41 @@ public class Luban implements Handler.Callback {
         }
         String newPath = media.isCut() && !TextUtils.isEmpty(media.getCutPath()) ? media.getCutPath() : media.getRealPath();
         String suffix = Checker.SINGLE.extSuffix(media.getMimeType());
-        File outFile = getImageCacheFile(context, path, TextUtils.isEmpty(suffix) ? Checker.SINGLE.extSuffix(path) : suffix);
+        // The header is only read once per item
+        String sourceSuffix = Checker.SINGLE.extSuffix(path);
+        File outFile = getImageCacheFile(context, path, TextUtils.isEmpty(suffix) ? sourceSuffix : suffix);
+        // 根据时间生成的文件名即使已存在也不是这张图片的压缩结果
+        boolean isGeneratedName = isGeneratedName(media);
         String filename = "";
         if (!TextUtils.isEmpty(mNewFileName)) {
-            filename = isCamera || dataCount == 1 ? mNewFileName : StringUtils.rename(mNewFileName);
+            isGeneratedName = !isCamera && dataCount != 1;
+            filename = isGeneratedName ? getUniqueFileName(mNewFileName) : mNewFileName;
             outFile = getImageCustomFile(context, filename);
         }
+        String cacheKey = null;
+        if (mCompressCache != null && TextUtils.isEmpty(mNewFileName)) {
+            cacheKey = CompressCache.getKey(media, newPath, getCacheParams());
+            if (cacheKey != null) {
+                // Pinned until the batch ends，even a hit may not be evicted while it is delivered
+                mCompressCache.pin(cacheKey);
+                job.cacheKey = cacheKey;
+                File cacheFile = mCompressCache.get(cacheKey);
+                if (cacheFile != null) {
+                    job.complete(cacheFile);
+                    return;
+                }
+                outFile = mCompressCache.getFile(cacheKey, TextUtils.isEmpty(suffix) ? sourceSuffix : suffix);
+                isGeneratedName = false;
+            }
+        }
         // 如果文件存在直接返回不处理
-        if (outFile.exists()) {
-            return outFile;
+        if (!isGeneratedName && outFile.exists()) {
+            job.complete(outFile);
+            return;
         }
 
         if (mCompressionPredicate != null) {
-            if (Checker.SINGLE.extSuffix(path).startsWith(".gif")) {
+            if (sourceSuffix.startsWith(".gif")) {
                 // GIF without compression
                 if (SdkVersionUtils.checkedAndroid_Q()) {
                     if (media.isCut() && !TextUtils.isEmpty(media.getCutPath())) {
@@ -310,18 +604,18 @@ public class Luban implements Handler.Callback {
                 boolean isCompress = Checker.SINGLE.needCompressToLocalMedia(mLeastCompressSize, newPath);
                 if (mCompressionPredicate.apply(newPath) && isCompress) {
                     // 压缩
-                    result = new Engine(path, outFile, focusAlpha, compressQuality).compress();
+                    job.engine = newEngine(path, outFile);
                 } else {
                     if (isCompress) {
                         // 压缩
-                        result = new Engine(path, outFile, focusAlpha, compressQuality).compress();
+                        job.engine = newEngine(path, outFile);
                     } else {
                         result = new File(newPath);
                     }
                 }
             }
         } else {
-            if (Checker.SINGLE.extSuffix(path).startsWith(".gif")) {
+            if (sourceSuffix.startsWith(".gif")) {
                 // GIF without compression
                 if (SdkVersionUtils.checkedAndroid_Q()) {
                     String newFilePath = media.isCut() ? media.getCutPath() :
@@ -337,17 +631,37 @@ public class Luban implements Handler.Callback {
                 boolean isCompress = Checker.SINGLE.needCompressToLocalMedia(mLeastCompressSize, newPath);
                 if (isCompress) {
                     // 压缩
-                    result = new Engine(path, outFile, focusAlpha, compressQuality).compress();
+                    job.engine = newEngine(path, outFile);
                 } else {
                     result = new File(newPath);
                 }
             }
         }
-        return result;
+        if (job.engine == null) {
+            job.complete(result);
+        }
+    }
+
+    /**
+     * Every parameter that changes the compressed output
+     *
+     * @return
+     */
+    private String getCacheParams() {
+        return compressQuality + "|" + targetSizeKb + "|" + focusAlpha + "|" + mLeastCompressSize;
     }
 
     @Override
     public boolean handleMessage(Message msg) {
+        // Nothing is reported after cancel()
+        if (mTask != null && mTask.isCancelled()) return false;
+
+        if (msg.what == MSG_COMPRESS_ITEM) {
+            if (mCompressItemListener != null) {
+                mCompressItemListener.onItemComplete((CompressResult) msg.obj);
+            }
+            return false;
+        }
         if (mCompressListener == null) return false;
 
         switch (msg.what) {
@@ -371,9 +685,15 @@ public class Luban implements Handler.Callback {
         private boolean focusAlpha;
         private boolean isCamera;
         private int compressQuality;
+        private int targetSizeKb;
+        private int mMaxParallelism;
+        private long mCacheMaxSize;
+        private int mPipelineDepth;
+        private OnPipelineStatsListener mPipelineStatsListener;
         private int mLeastCompressSize = 100;
         private OnRenameListener mRenameListener;
         private OnCompressListener mCompressListener;
+        private OnCompressItemListener mCompressItemListener;
         private CompressionPredicate mCompressionPredicate;
         private List<InputStreamProvider> mStreamProviders;
         private List<String> mPaths;
@@ -545,6 +865,18 @@ public class Luban implements Handler.Callback {
             return this;
         }
 
+        /**
+         * Report each item of {@link #launch()} as soon as it is finished，with the progress of the batch.
+         * A failed item does not stop the others，{@link OnCompressListener#onError(Throwable)} follows
+         * with the first failure once every item is done
+         *
+         * @param listener
+         */
+        public Builder setCompressItemListener(OnCompressItemListener listener) {
+            this.mCompressItemListener = listener;
+            return this;
+        }
+
         public Builder setTargetDir(String targetDir) {
             this.mTargetDir = targetDir;
             return this;
@@ -582,6 +914,59 @@ public class Luban implements Handler.Callback {
         }
 
 
+        /**
+         * Compress to a file size instead of a fixed quality，the image is decoded once and the
+         * quality is binary searched below {@link #setCompressQuality(int)} until the output fits
+         *
+         * @param targetSizeKb the value of file size, unit KB, 0 - fixed quality
+         */
+        public Builder targetSizeKb(int targetSizeKb) {
+            this.targetSizeKb = targetSizeKb;
+            return this;
+        }
+
+        /**
+         * Byte budget of the compression cache，kept in a subdirectory of the default target dir，the least
+         * recently used outputs are deleted beyond it once no running batch uses them
+         *
+         * @param cacheMaxSize 0 - 100MB，-1 - no cache
+         */
+        public Builder setCacheMaxSize(long cacheMaxSize) {
+            this.mCacheMaxSize = cacheMaxSize;
+            return this;
+        }
+
+        /**
+         * How many images are compressed at the same time
+         *
+         * @param maxParallelism 0 - one per core，limited by the available heap
+         */
+        public Builder setMaxParallelism(int maxParallelism) {
+            this.mMaxParallelism = maxParallelism;
+            return this;
+        }
+
+        /**
+         * How many items each stage of {@link #launch()} may hold ready for the next stage，
+         * a stage that gets this far ahead waits，lower it on devices short of memory
+         *
+         * @param pipelineDepth 0 - 2
+         */
+        public Builder setPipelineDepth(int pipelineDepth) {
+            this.mPipelineDepth = pipelineDepth;
+            return this;
+        }
+
+        /**
+         * Receive the per stage throughput and queue depth of each {@link #launch()} batch
+         *
+         * @param listener
+         */
+        public Builder setPipelineStatsListener(OnPipelineStatsListener listener) {
+            this.mPipelineStatsListener = listener;
+            return this;
+        }
+
         /**
          * do not compress when the origin image file size less than one value
          *
@@ -605,9 +990,11 @@ public class Luban implements Handler.Callback {
 
         /**
          * begin compress image with asynchronous
+         *
+         * @return the handle to cancel the batch or single items，and to take the results as they finish
          */
-        public void launch() {
-            build().launch(context);
+        public CompressTask launch() {
+            return build().launch(context);
         }
 
         public File get(final String path) throws IOException {
@@ -0,0 +1,17 @@
+package com.luck.picture.lib.compress;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 22:40
+ * @describe：Per item callback of a batch compressed with {@link Luban.Builder#launch()}，
+ * so finished items can be used while the rest are still compressed
+ */
+public interface OnCompressItemListener {
+
+    /**
+     * Fired on the main thread each time an item succeeds, fails or is cancelled，in the order they finish
+     *
+     * @param result
+     */
+    void onItemComplete(CompressResult result);
+}
@@ -0,0 +1,18 @@
+package com.luck.picture.lib.compress;
+
+import java.util.List;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 22:10
+ * @describe：Receives the stage counters once a batch compressed with {@link Luban.Builder#launch()} is finished
+ */
+public interface OnPipelineStatsListener {
+
+    /**
+     * Fired on the main thread after the last item of the batch
+     *
+     * @param stats prefetch, decode, encode and write，in stage order
+     */
+    void onStats(List<PipelineStats> stats);
+}
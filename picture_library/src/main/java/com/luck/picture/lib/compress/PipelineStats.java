@@ -0,0 +1,77 @@
+package com.luck.picture.lib.compress;
+
+import java.util.Locale;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 22:10
+ * @describe：Counters of one stage of a compression batch，for tuning the parallelism and queue depth
+ */
+public final class PipelineStats {
+    /**
+     * prefetch, decode, encode or write
+     */
+    public final String stage;
+    public final int threadCount;
+    /**
+     * Items the stage finished
+     */
+    public final long processedCount;
+    /**
+     * Time the threads of the stage spent working on items
+     */
+    public final long busyMillis;
+    /**
+     * Time the threads of the stage waited for room in the next queue，high means the next stage is the bottleneck
+     */
+    public final long blockedMillis;
+    /**
+     * Capacity of the queue in front of the stage，0 for the first stage
+     */
+    public final int queueCapacity;
+    /**
+     * Most items ever waiting in the queue in front of the stage
+     */
+    public final int maxQueueDepth;
+    /**
+     * Time from the start of the batch until the stage finished
+     */
+    public final long elapsedMillis;
+
+    PipelineStats(String stage, int threadCount, long processedCount, long busyMillis, long blockedMillis,
+                  int queueCapacity, int maxQueueDepth, long elapsedMillis) {
+        this.stage = stage;
+        this.threadCount = threadCount;
+        this.processedCount = processedCount;
+        this.busyMillis = busyMillis;
+        this.blockedMillis = blockedMillis;
+        this.queueCapacity = queueCapacity;
+        this.maxQueueDepth = maxQueueDepth;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Items per second over the batch
+     *
+     * @return
+     */
+    public float getThroughput() {
+        return elapsedMillis > 0 ? processedCount * 1000F / elapsedMillis : 0;
+    }
+
+    /**
+     * Share of the thread time spent working，the busiest stage limits the batch
+     *
+     * @return
+     */
+    public float getUtilization() {
+        return elapsedMillis > 0 && threadCount > 0 ? (float) busyMillis / (elapsedMillis * threadCount) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%s{threads=%d, processed=%d, %.2f/s, busy=%d%%, blocked=%dms, queue=%d/%d}",
+                stage, threadCount, processedCount, getThroughput(), Math.round(getUtilization() * 100),
+                blockedMillis, maxQueueDepth, queueCapacity);
+    }
+}
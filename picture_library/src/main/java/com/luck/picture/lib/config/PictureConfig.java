@@ -34,6 +34,7 @@ public final class PictureConfig {
     public final static String EXTRA_IS_CURRENT_DIRECTORY = "currentDirectory";
     public final static String EXTRA_BUCKET_ID = "bucket_id";
     public final static String EXTRA_PAGE = "page";
+    public final static String EXTRA_LAST_MEDIA_ID = "last_media_id";
     public final static String EXTRA_DATA_COUNT = "count";
     public final static String CAMERA_FACING = "android.intent.extras.CAMERA_FACING";
 
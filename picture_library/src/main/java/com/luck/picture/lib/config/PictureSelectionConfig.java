@@ -66,6 +66,8 @@ public final class PictureSelectionConfig implements Parcelable {
     public int cropWidth;
     public int cropHeight;
     public int compressQuality;
+    public int compressTargetSizeKb;
+    public boolean isCropFullResolution;
     public float filterFileSize;
     public int language;
     public boolean isMultipleRecyclerAnimation;
@@ -147,6 +149,7 @@ public final class PictureSelectionConfig implements Parcelable {
     public int pageSize = PictureConfig.MAX_PAGE_SIZE;
     public boolean isPageStrategy;
     public boolean isFilterInvalidFile;
+    public boolean isMediaSnapshot;
     public boolean isMaxSelectEnabledMask;
     public int animationMode;
     public boolean isAutomaticTitleRecyclerTop;
@@ -179,6 +182,8 @@ public final class PictureSelectionConfig implements Parcelable {
         recordVideoSecond = 60;
         recordVideoMinSecond = 0;
         compressQuality = 80;
+        compressTargetSizeKb = 0;
+        isCropFullResolution = false;
         minimumCompressSize = PictureConfig.MAX_COMPRESS_SIZE;
         imageSpanCount = 4;
         isCompress = false;
@@ -258,6 +263,7 @@ public final class PictureSelectionConfig implements Parcelable {
         cameraMimeType = -1;
         pageSize = PictureConfig.MAX_PAGE_SIZE;
         isPageStrategy = true;
+        isMediaSnapshot = false;
         isFilterInvalidFile = false;
         isMaxSelectEnabledMask = false;
         animationMode = -1;
@@ -408,6 +414,9 @@ public final class PictureSelectionConfig implements Parcelable {
         dest.writeByte(this.isFallbackVersion ? (byte) 1 : (byte) 0);
         dest.writeByte(this.isFallbackVersion2 ? (byte) 1 : (byte) 0);
         dest.writeByte(this.isFallbackVersion3 ? (byte) 1 : (byte) 0);
+        dest.writeByte(this.isMediaSnapshot ? (byte) 1 : (byte) 0);
+        dest.writeInt(this.compressTargetSizeKb);
+        dest.writeByte(this.isCropFullResolution ? (byte) 1 : (byte) 0);
     }
 
     protected PictureSelectionConfig(Parcel in) {
@@ -515,6 +524,9 @@ public final class PictureSelectionConfig implements Parcelable {
         this.isFallbackVersion = in.readByte() != 0;
         this.isFallbackVersion2 = in.readByte() != 0;
         this.isFallbackVersion3 = in.readByte() != 0;
+        this.isMediaSnapshot = in.readByte() != 0;
+        this.compressTargetSizeKb = in.readInt();
+        this.isCropFullResolution = in.readByte() != 0;
     }
 
     public static final Creator<PictureSelectionConfig> CREATOR = new Creator<PictureSelectionConfig>() {
@@ -148,6 +148,12 @@ public class LocalMedia implements Parcelable {
      */
     private boolean isMaxSelectEnabledMask;
 
+    /**
+     * compressQuality
+     * # The quality chosen by target size compression，0 if not compressed to a target size
+     */
+    private int compressQuality;
+
     public LocalMedia() {
 
     }
@@ -392,6 +398,14 @@ public class LocalMedia implements Parcelable {
         isMaxSelectEnabledMask = maxSelectEnabledMask;
     }
 
+    public int getCompressQuality() {
+        return compressQuality;
+    }
+
+    public void setCompressQuality(int compressQuality) {
+        this.compressQuality = compressQuality;
+    }
+
 
     @Override
     public int describeContents() {
@@ -426,6 +440,7 @@ public class LocalMedia implements Parcelable {
         dest.writeByte(this.isLongImage ? (byte) 1 : (byte) 0);
         dest.writeLong(this.bucketId);
         dest.writeByte(this.isMaxSelectEnabledMask ? (byte) 1 : (byte) 0);
+        dest.writeInt(this.compressQuality);
     }
 
     protected LocalMedia(Parcel in) {
@@ -455,6 +470,7 @@ public class LocalMedia implements Parcelable {
         this.isLongImage = in.readByte() != 0;
         this.bucketId = in.readLong();
         this.isMaxSelectEnabledMask = in.readByte() != 0;
+        this.compressQuality = in.readInt();
     }
 
     public static final Creator<LocalMedia> CREATOR = new Creator<LocalMedia>() {
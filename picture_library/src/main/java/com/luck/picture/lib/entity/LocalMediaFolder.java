@@ -58,6 +58,12 @@ public class LocalMediaFolder implements Parcelable {
      */
     private int currentDataPage;
 
+    /**
+     * # Internal use
+     * The last media _ID of the loaded pages
+     */
+    private long currentLastMediaId;
+
     /**
      * # Internal use
      * is load more
@@ -144,6 +150,14 @@ public class LocalMediaFolder implements Parcelable {
         this.currentDataPage = currentDataPage;
     }
 
+    public long getCurrentLastMediaId() {
+        return currentLastMediaId;
+    }
+
+    public void setCurrentLastMediaId(long currentLastMediaId) {
+        this.currentLastMediaId = currentLastMediaId;
+    }
+
     public boolean isHasMore() {
         return isHasMore;
     }
@@ -170,6 +184,7 @@ public class LocalMediaFolder implements Parcelable {
         dest.writeByte(this.isCameraFolder ? (byte) 1 : (byte) 0);
         dest.writeTypedList(this.data);
         dest.writeInt(this.currentDataPage);
+        dest.writeLong(this.currentLastMediaId);
         dest.writeByte(this.isHasMore ? (byte) 1 : (byte) 0);
     }
 
@@ -187,6 +202,7 @@ public class LocalMediaFolder implements Parcelable {
         this.isCameraFolder = in.readByte() != 0;
         this.data = in.createTypedArrayList(LocalMedia.CREATOR);
         this.currentDataPage = in.readInt();
+        this.currentLastMediaId = in.readLong();
         this.isHasMore = in.readByte() != 0;
     }
 
@@ -14,6 +14,11 @@ public class MediaData {
      */
     public boolean isHasNextMore;
 
+    /**
+     * The last _ID scanned, keyset page position
+     */
+    public long lastId;
+
     /**
      * data
      */
@@ -29,4 +34,11 @@ public class MediaData {
         this.isHasNextMore = isHasNextMore;
         this.data = data;
     }
+
+    public MediaData(boolean isHasNextMore, long lastId, List<LocalMedia> data) {
+        super();
+        this.isHasNextMore = isHasNextMore;
+        this.lastId = lastId;
+        this.data = data;
+    }
 }
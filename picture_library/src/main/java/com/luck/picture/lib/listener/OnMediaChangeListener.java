@@ -0,0 +1,40 @@
+package com.luck.picture.lib.listener;
+
+import com.luck.picture.lib.entity.LocalMedia;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 15:10
+ * @describe：OnMediaChangeListener
+ */
+public interface OnMediaChangeListener {
+    /**
+     * The media currently loaded, checked for deletion
+     *
+     * @return
+     */
+    List<LocalMedia> getLoadedData();
+
+    /**
+     * The buckets of the album folders，recounted when media outside of the loaded ones were deleted
+     *
+     * @return
+     */
+    Set<Long> getFolderBucketIds();
+
+    /**
+     * MediaStore changes since the last sync
+     *
+     * @param inserted     New media, newest first
+     * @param updated      Existing media whose row was modified
+     * @param deletedIds   Loaded media that no longer exist
+     * @param bucketCounts Recounted media of the changed buckets, -1 is the total, buckets not in it are unchanged,
+     *                     null if no count changed
+     */
+    void onMediaChange(List<LocalMedia> inserted, List<LocalMedia> updated, Set<Long> deletedIds,
+                       Map<Long, Integer> bucketCounts);
+}
@@ -16,4 +16,24 @@ public interface OnQueryDataResultListener<T> {
      * @param isHasMore   Is there more
      */
     void onComplete(List<T> data, int currentPage, boolean isHasMore);
+
+    /**
+     * Keyset page query to complete The callback listener
+     *
+     * @param data      The data source
+     * @param bucketId  The album directory of the query
+     * @param lastId    The last _ID scanned, the next page seeks from here
+     * @param isHasMore Is there more
+     */
+    default void onComplete(List<T> data, long bucketId, long lastId, boolean isHasMore) {
+        onComplete(data, 0, isHasMore);
+    }
+
+    /**
+     * Streaming query progress，called while the scan continues and before onComplete
+     *
+     * @param data The partial result so far，or only what was added since the previous call where the loader says so
+     */
+    default void onProgress(List<T> data) {
+    }
 }
@@ -0,0 +1,193 @@
+package com.luck.picture.lib.model;
+
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.util.LruCache;
+
+import com.luck.picture.lib.entity.LocalMedia;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 17:20
+ * @describe：Checks whether the files of a page still exist，
+ * in parallel per directory and with a short-lived cache，instead of one File#exists per row.
+ * Only files found are cached，a missing file is checked again every time so a new photo shows up at once
+ */
+final class FileExistsValidator {
+    /**
+     * Threads used for the checks
+     */
+    private static final int THREAD_COUNT = 4;
+    /**
+     * A directory with at least this many files to check is listed once instead
+     */
+    private static final int LIST_DIR_MIN_COUNT = 16;
+    /**
+     * How long a result stays valid
+     */
+    private static final long CACHE_TIME = 30 * 1000;
+
+    /**
+     * Own threads，a shared fixed pool of the same size would queue behind compression
+     */
+    private static volatile ExecutorService sPool;
+
+    private final LruCache<String, CacheEntry<Boolean>> fileCache = new LruCache<>(2048);
+    private final LruCache<String, CacheEntry<Set<String>>> dirCache = new LruCache<>(4);
+
+    /**
+     * Keep the media whose file exists，in the same order
+     *
+     * @param medias
+     * @return
+     */
+    List<LocalMedia> filter(List<LocalMedia> medias) {
+        int size = medias.size();
+        boolean[] exists = new boolean[size];
+        Map<String, List<Integer>> dirGroups = new HashMap<>();
+        long now = SystemClock.uptimeMillis();
+        for (int i = 0; i < size; i++) {
+            String path = medias.get(i).getRealPath();
+            if (TextUtils.isEmpty(path)) {
+                // Same as PictureFileUtils.isFileExists
+                exists[i] = true;
+                continue;
+            }
+            CacheEntry<Boolean> entry = fileCache.get(path);
+            if (entry != null && now - entry.time < CACHE_TIME) {
+                exists[i] = entry.value;
+                continue;
+            }
+            String dir = getParentPath(path);
+            List<Integer> group = dirGroups.get(dir);
+            if (group == null) {
+                group = new ArrayList<>();
+                dirGroups.put(dir, group);
+            }
+            group.add(i);
+        }
+        if (dirGroups.size() > 0) {
+            List<Callable<Void>> jobs = new ArrayList<>(dirGroups.size());
+            for (Map.Entry<String, List<Integer>> group : dirGroups.entrySet()) {
+                // Every job writes its own indices only
+                jobs.add(() -> {
+                    checkDirGroup(group.getKey(), group.getValue(), medias, exists, now);
+                    return null;
+                });
+            }
+            runJobs(jobs);
+        }
+        List<LocalMedia> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (exists[i]) {
+                result.add(medias.get(i));
+            }
+        }
+        return result;
+    }
+
+    private void runJobs(List<Callable<Void>> jobs) {
+        try {
+            if (jobs.size() == 1) {
+                jobs.get(0).call();
+                return;
+            }
+            for (Future<Void> future : getPool().invokeAll(jobs)) {
+                future.get();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static ExecutorService getPool() {
+        if (sPool == null) {
+            synchronized (FileExistsValidator.class) {
+                if (sPool == null) {
+                    ThreadPoolExecutor pool = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT,
+                            CACHE_TIME, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                            r -> new Thread(r, "picture-file-check"));
+                    pool.allowCoreThreadTimeOut(true);
+                    sPool = pool;
+                }
+            }
+        }
+        return sPool;
+    }
+
+    private void checkDirGroup(String dir, List<Integer> indices, List<LocalMedia> medias, boolean[] exists, long now) {
+        Set<String> names = indices.size() >= LIST_DIR_MIN_COUNT ? getDirNames(dir, now) : null;
+        for (int index : indices) {
+            String path = medias.get(index).getRealPath();
+            // A name missing from the listing may have been added since，only a positive is trusted
+            boolean isExists = names != null && names.contains(path.substring(path.lastIndexOf('/') + 1))
+                    || new File(path).exists();
+            exists[index] = isExists;
+            if (isExists) {
+                fileCache.put(path, new CacheEntry<>(true, now));
+            }
+        }
+    }
+
+    /**
+     * The file names of a directory，listed again once the cache period is over or the directory changed
+     *
+     * @param dir
+     * @param now
+     * @return null if the directory can not be listed
+     */
+    private Set<String> getDirNames(String dir, long now) {
+        File file = new File(dir);
+        long lastModified = file.lastModified();
+        CacheEntry<Set<String>> entry = dirCache.get(dir);
+        if (entry != null && now - entry.time < CACHE_TIME && entry.lastModified == lastModified) {
+            return entry.value;
+        }
+        String[] list = file.list();
+        if (list == null) {
+            return null;
+        }
+        Set<String> names = new HashSet<>(Arrays.asList(list));
+        dirCache.put(dir, new CacheEntry<>(names, now, lastModified));
+        return names;
+    }
+
+    private static String getParentPath(String path) {
+        int index = path.lastIndexOf('/');
+        return index > 0 ? path.substring(0, index) : "/";
+    }
+
+    private static class CacheEntry<T> {
+        private final T value;
+        private final long time;
+        /**
+         * Of the directory，for a listing
+         */
+        private final long lastModified;
+
+        private CacheEntry(T value, long time) {
+            this(value, time, 0);
+        }
+
+        private CacheEntry(T value, long time, long lastModified) {
+            this.value = value;
+            this.time = time;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import android.net.Uri;
 import android.provider.MediaStore;
 import android.text.TextUtils;
 import android.util.Log;
+import android.util.LongSparseArray;
 
 import com.luck.picture.lib.R;
 import com.luck.picture.lib.config.PictureConfig;
@@ -13,15 +14,18 @@ import com.luck.picture.lib.config.PictureMimeType;
 import com.luck.picture.lib.config.PictureSelectionConfig;
 import com.luck.picture.lib.entity.LocalMedia;
 import com.luck.picture.lib.entity.LocalMediaFolder;
+import com.luck.picture.lib.listener.OnQueryDataResultListener;
+import com.luck.picture.lib.thread.PictureThreadUtils;
 import com.luck.picture.lib.tools.PictureFileUtils;
 import com.luck.picture.lib.tools.SdkVersionUtils;
 import com.luck.picture.lib.tools.ValueOf;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * @author：luck
@@ -145,26 +149,42 @@ public final class LocalMediaLoader {
      * @return
      */
     public List<LocalMediaFolder> loadAllMedia() {
+        return loadAllMedia(null);
+    }
+
+    /**
+     * Query the local gallery data，streaming
+     * # The rows added since the previous batch are delivered to listener.onProgress on the main thread while the scan continues，
+     * the returned result is the same as loadAllMedia()
+     *
+     * @param listener
+     * @return
+     */
+    public List<LocalMediaFolder> loadAllMedia(OnQueryDataResultListener<LocalMediaFolder> listener) {
         Cursor data = mContext.getContentResolver().query(QUERY_URI, PROJECTION, getSelection(), getSelectionArgs(), ORDER_BY);
         try {
             if (data != null) {
                 List<LocalMediaFolder> imageFolders = new ArrayList<>();
-                LocalMediaFolder allImageFolder = new LocalMediaFolder();
+                LongSparseArray<LocalMediaFolder> bucketFolders = new LongSparseArray<>();
+                Map<String, LocalMediaFolder> nameFolders = new HashMap<>();
+                int totalCount = 0;
                 List<LocalMedia> latelyImages = new ArrayList<>();
                 int count = data.getCount();
                 if (count > 0) {
                     data.moveToFirst();
+                    MediaRowMapper mapper = new MediaRowMapper(data);
+                    ProgressThrottle throttle = new ProgressThrottle();
+                    // Rows already handed to onProgress，per folder and in the camera roll
+                    Map<LocalMediaFolder, Integer> emittedSizes = new HashMap<>();
+                    int emittedCount = 0;
                     do {
-                        long id = data.getLong
-                                (data.getColumnIndexOrThrow(PROJECTION[0]));
+                        long id = mapper.getId();
 
-                        String absolutePath = data.getString
-                                (data.getColumnIndexOrThrow(PROJECTION[1]));
+                        String absolutePath = mapper.getData();
 
                         String url = isAndroidQ ? getRealPathAndroid_Q(id) : absolutePath;
 
-                        String mimeType = data.getString
-                                (data.getColumnIndexOrThrow(PROJECTION[2]));
+                        String mimeType = mapper.getMimeType();
 
                         mimeType = TextUtils.isEmpty(mimeType) ? PictureMimeType.ofJPEG() : mimeType;
                         // Here, it is solved that some models obtain mimeType and return the format of image / *,
@@ -192,25 +212,9 @@ public final class LocalMediaLoader {
                                 continue;
                             }
                         }
-                        int width = data.getInt
-                                (data.getColumnIndexOrThrow(PROJECTION[3]));
-
-                        int height = data.getInt
-                                (data.getColumnIndexOrThrow(PROJECTION[4]));
-
-                        long duration = data.getLong
-                                (data.getColumnIndexOrThrow(PROJECTION[5]));
+                        long duration = mapper.getDuration();
 
-                        long size = data.getLong
-                                (data.getColumnIndexOrThrow(PROJECTION[6]));
-
-                        String folderName = data.getString
-                                (data.getColumnIndexOrThrow(PROJECTION[7]));
-
-                        String fileName = data.getString
-                                (data.getColumnIndexOrThrow(PROJECTION[8]));
-
-                        long bucketId = data.getLong(data.getColumnIndexOrThrow(PROJECTION[9]));
+                        long size = mapper.getSize();
 
                         if (config.filterFileSize > 0) {
                             if (size > config.filterFileSize * FILE_SIZE_UNIT) {
@@ -235,33 +239,29 @@ public final class LocalMediaLoader {
                                 continue;
                             }
                         }
-                        LocalMedia image = new LocalMedia
-                                (id, url, absolutePath, fileName, folderName, duration, config.chooseMode, mimeType, width, height, size, bucketId);
-                        LocalMediaFolder folder = getImageFolder(url, folderName, imageFolders);
+                        LocalMedia image = mapper.toLocalMedia(id, url, absolutePath, mimeType, duration, size, config.chooseMode);
+                        LocalMediaFolder folder = config.isFallbackVersion
+                                ? getImageFolder(url, nameFolders, imageFolders)
+                                : getImageFolder(url, image.getBucketId(), image.getParentFolderName(), bucketFolders, imageFolders);
                         folder.setBucketId(image.getBucketId());
                         List<LocalMedia> images = folder.getData();
                         images.add(image);
                         folder.setImageNum(folder.getImageNum() + 1);
-                        folder.setBucketId(image.getBucketId());
                         latelyImages.add(image);
-                        int imageNum = allImageFolder.getImageNum();
-                        allImageFolder.setImageNum(imageNum + 1);
+                        totalCount++;
+
+                        if (listener != null && throttle.onRow()) {
+                            List<LocalMediaFolder> progress = createFolderList(copyNewRows(imageFolders, emittedSizes),
+                                    totalCount, latelyImages.get(0).getPath(),
+                                    new ArrayList<>(latelyImages.subList(emittedCount, latelyImages.size())));
+                            emittedCount = latelyImages.size();
+                            PictureThreadUtils.runOnUiThread(() -> listener.onProgress(progress));
+                        }
 
                     } while (data.moveToNext());
 
                     if (latelyImages.size() > 0) {
-                        sortFolder(imageFolders);
-                        imageFolders.add(0, allImageFolder);
-                        allImageFolder.setFirstImagePath
-                                (latelyImages.get(0).getPath());
-                        String title = config.chooseMode == PictureMimeType.ofAudio() ?
-                                mContext.getString(R.string.picture_all_audio)
-                                : mContext.getString(R.string.picture_camera_roll);
-                        allImageFolder.setName(title);
-                        allImageFolder.setBucketId(-1);
-                        allImageFolder.setOfAllType(config.chooseMode);
-                        allImageFolder.setCameraFolder(true);
-                        allImageFolder.setData(latelyImages);
+                        createFolderList(imageFolders, totalCount, latelyImages.get(0).getPath(), latelyImages);
                     }
                 }
                 return imageFolders;
@@ -323,6 +323,63 @@ public final class LocalMediaLoader {
         return null;
     }
 
+    /**
+     * Sort the album folders and put the camera roll first
+     *
+     * @param imageFolders
+     * @param totalCount
+     * @param firstImagePath
+     * @param latelyImages
+     * @return
+     */
+    private List<LocalMediaFolder> createFolderList(List<LocalMediaFolder> imageFolders, int totalCount,
+                                                    String firstImagePath, List<LocalMedia> latelyImages) {
+        sortFolder(imageFolders);
+        LocalMediaFolder allImageFolder = new LocalMediaFolder();
+        allImageFolder.setImageNum(totalCount);
+        allImageFolder.setFirstImagePath(firstImagePath);
+        String title = config.chooseMode == PictureMimeType.ofAudio() ?
+                mContext.getString(R.string.picture_all_audio)
+                : mContext.getString(R.string.picture_camera_roll);
+        allImageFolder.setName(title);
+        allImageFolder.setBucketId(-1);
+        allImageFolder.setOfAllType(config.chooseMode);
+        allImageFolder.setCameraFolder(true);
+        allImageFolder.setData(latelyImages);
+        imageFolders.add(0, allImageFolder);
+        return imageFolders;
+    }
+
+    /**
+     * Copies of the folders that grew since the previous batch，carrying only the rows added since then，
+     * the scan keeps adding to the originals
+     *
+     * @param imageFolders
+     * @param emittedSizes
+     * @return
+     */
+    private List<LocalMediaFolder> copyNewRows(List<LocalMediaFolder> imageFolders,
+                                               Map<LocalMediaFolder, Integer> emittedSizes) {
+        List<LocalMediaFolder> result = new ArrayList<>();
+        for (LocalMediaFolder imageFolder : imageFolders) {
+            List<LocalMedia> images = imageFolder.getData();
+            Integer emittedSize = emittedSizes.get(imageFolder);
+            int fromIndex = emittedSize == null ? 0 : emittedSize;
+            if (fromIndex == images.size()) {
+                continue;
+            }
+            emittedSizes.put(imageFolder, images.size());
+            LocalMediaFolder folder = new LocalMediaFolder();
+            folder.setBucketId(imageFolder.getBucketId());
+            folder.setName(imageFolder.getName());
+            folder.setFirstImagePath(imageFolder.getFirstImagePath());
+            folder.setImageNum(imageFolder.getImageNum());
+            folder.setData(new ArrayList<>(images.subList(fromIndex, images.size())));
+            result.add(folder);
+        }
+        return result;
+    }
+
     /**
      * Sort by the number of files
      *
@@ -350,50 +407,80 @@ public final class LocalMediaLoader {
     }
 
     /**
-     * Create folder
+     * Create folder, grouped by bucketId
      *
      * @param path
-     * @param imageFolders
+     * @param bucketId
      * @param folderName
+     * @param bucketFolders
+     * @param imageFolders
      * @return
      */
-    private LocalMediaFolder getImageFolder(String path, String folderName, List<LocalMediaFolder> imageFolders) {
-        if (!config.isFallbackVersion) {
-            for (LocalMediaFolder folder : imageFolders) {
-                // Under the same folder, return yourself, otherwise create a new folder
-                String name = folder.getName();
-                if (TextUtils.isEmpty(name)) {
-                    continue;
-                }
-                if (name.equals(folderName)) {
-                    return folder;
-                }
-            }
-            LocalMediaFolder newFolder = new LocalMediaFolder();
-            newFolder.setName(folderName);
-            newFolder.setFirstImagePath(path);
-            imageFolders.add(newFolder);
-            return newFolder;
-        } else {
-            // Fault-tolerant processing
-            File imageFile = new File(path);
-            File folderFile = imageFile.getParentFile();
-            for (LocalMediaFolder folder : imageFolders) {
-                // Under the same folder, return yourself, otherwise create a new folder
-                String name = folder.getName();
-                if (TextUtils.isEmpty(name)) {
-                    continue;
-                }
-                if (folderFile != null && name.equals(folderFile.getName())) {
-                    return folder;
-                }
-            }
-            LocalMediaFolder newFolder = new LocalMediaFolder();
-            newFolder.setName(folderFile != null ? folderFile.getName() : "");
-            newFolder.setFirstImagePath(path);
-            imageFolders.add(newFolder);
-            return newFolder;
+    private LocalMediaFolder getImageFolder(String path, long bucketId, String folderName,
+                                            LongSparseArray<LocalMediaFolder> bucketFolders,
+                                            List<LocalMediaFolder> imageFolders) {
+        // Under the same folder, return yourself, otherwise create a new folder
+        LocalMediaFolder folder = bucketFolders.get(bucketId);
+        if (folder == null) {
+            folder = new LocalMediaFolder();
+            folder.setName(folderName);
+            folder.setFirstImagePath(path);
+            bucketFolders.put(bucketId, folder);
+            imageFolders.add(folder);
+        }
+        return folder;
+    }
+
+    /**
+     * Create folder, grouped by the parent directory name of the path
+     * # Fault-tolerant processing
+     *
+     * @param path
+     * @param nameFolders
+     * @param imageFolders
+     * @return
+     */
+    private LocalMediaFolder getImageFolder(String path, Map<String, LocalMediaFolder> nameFolders,
+                                            List<LocalMediaFolder> imageFolders) {
+        String folderName = getParentName(path);
+        // Under the same folder, return yourself, otherwise create a new folder
+        LocalMediaFolder folder = nameFolders.get(folderName);
+        if (folder == null) {
+            folder = new LocalMediaFolder();
+            folder.setName(folderName);
+            folder.setFirstImagePath(path);
+            nameFolders.put(folderName, folder);
+            imageFolders.add(folder);
+        }
+        return folder;
+    }
+
+    /**
+     * The parent directory name of the path, same as File#getParentFile()#getName()
+     *
+     * @param path
+     * @return
+     */
+    private static String getParentName(String path) {
+        if (TextUtils.isEmpty(path)) {
+            return "";
+        }
+        int end = path.length();
+        while (end > 1 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        int nameStart = path.lastIndexOf('/', end - 1);
+        if (nameStart <= 0) {
+            return "";
+        }
+        int parentEnd = nameStart;
+        while (parentEnd > 0 && path.charAt(parentEnd - 1) == '/') {
+            parentEnd--;
+        }
+        if (parentEnd == 0) {
+            return "";
         }
+        return path.substring(path.lastIndexOf('/', parentEnd - 1) + 1, parentEnd);
     }
 
     /**
@@ -3,9 +3,13 @@ package com.luck.picture.lib.model;
 import android.content.Context;
 import android.database.Cursor;
 import android.net.Uri;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.os.SystemClock;
 import android.provider.MediaStore;
 import android.text.TextUtils;
 import android.util.Log;
+import android.util.LongSparseArray;
 
 import com.luck.picture.lib.R;
 import com.luck.picture.lib.config.PictureConfig;
@@ -16,11 +20,11 @@ import com.luck.picture.lib.entity.LocalMediaFolder;
 import com.luck.picture.lib.entity.MediaData;
 import com.luck.picture.lib.listener.OnQueryDataResultListener;
 import com.luck.picture.lib.thread.PictureThreadUtils;
-import com.luck.picture.lib.tools.PictureFileUtils;
 import com.luck.picture.lib.tools.SdkVersionUtils;
 import com.luck.picture.lib.tools.ValueOf;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -28,6 +32,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 /**
  * @author：luck
@@ -42,16 +47,26 @@ public final class LocalMediaPageLoader {
     private static final String NOT_GIF_UNKNOWN = "!='image/*'";
     private static final String NOT_GIF = "!='image/gif' AND " + MediaStore.MediaColumns.MIME_TYPE + NOT_GIF_UNKNOWN;
     private static final String GROUP_BY_BUCKET_Id = " GROUP BY (bucket_id";
-    private static final String COLUMN_COUNT = "count";
-    private static final String COLUMN_BUCKET_ID = "bucket_id";
-    private static final String COLUMN_BUCKET_DISPLAY_NAME = "bucket_display_name";
+    private static final String COLUMN_COUNT = MediaRowMapper.COLUMN_COUNT;
+    private static final String COLUMN_BUCKET_ID = MediaRowMapper.COLUMN_BUCKET_ID;
+    private static final String COLUMN_BUCKET_DISPLAY_NAME = MediaRowMapper.COLUMN_BUCKET_DISPLAY_NAME;
 
     /**
      * Filter out recordings that are less than 500 milliseconds long
      */
     private static final int AUDIO_DURATION = 500;
+    /**
+     * Ids per "IN (...)" query，keeps the statement short
+     */
+    private static final int MAX_IN_SIZE = 500;
     private Context mContext;
     private PictureSelectionConfig config;
+    /**
+     * The running page query of each caller，a newer query only supersedes the same caller's one
+     */
+    private final Map<Object, MediaQueryHandle> pageQueries = new WeakHashMap<>();
+    private MediaQueryHandle folderQuery;
+    private final FileExistsValidator fileExistsValidator = new FileExistsValidator();
     /**
      * unit
      */
@@ -196,9 +211,8 @@ public final class LocalMediaPageLoader {
                     MediaStore.MediaColumns.DATA}, getPageSelection(bucketId), getPageSelectionArgs(bucketId), orderBy);
             if (data != null && data.getCount() > 0) {
                 if (data.moveToFirst()) {
-                    long id = data.getLong(data.getColumnIndexOrThrow(MediaStore.Files.FileColumns._ID));
-                    return SdkVersionUtils.checkedAndroid_Q() ? getRealPathAndroid_Q(id) : data.getString
-                            (data.getColumnIndexOrThrow(MediaStore.MediaColumns.DATA));
+                    MediaRowMapper mapper = new MediaRowMapper(data);
+                    return SdkVersionUtils.checkedAndroid_Q() ? getRealPathAndroid_Q(mapper.getId()) : mapper.getData();
                 }
                 return null;
             }
@@ -212,6 +226,63 @@ public final class LocalMediaPageLoader {
         return null;
     }
 
+    /**
+     * Get the latest cover of every album catalog in a single query
+     * # Walks the newest rows once and stops as soon as every folder has its cover
+     *
+     * @param folders
+     */
+    public void loadFirstCovers(List<LocalMediaFolder> folders) {
+        if (folders == null || folders.size() == 0) {
+            return;
+        }
+        long startTime = SystemClock.uptimeMillis();
+        Set<Long> bucketIds = new HashSet<>();
+        for (LocalMediaFolder folder : folders) {
+            if (folder != null) {
+                bucketIds.add(folder.getBucketId());
+            }
+        }
+        Map<Long, String> covers = new HashMap<>();
+        Cursor data = null;
+        try {
+            data = mContext.getContentResolver().query(QUERY_URI, new String[]{
+                    MediaStore.Files.FileColumns._ID,
+                    MediaStore.MediaColumns.DATA,
+                    COLUMN_BUCKET_ID}, getPageSelection(-1), getPageSelectionArgs(-1), ORDER_BY);
+            if (data != null && data.moveToFirst()) {
+                boolean isAndroidQ = SdkVersionUtils.checkedAndroid_Q();
+                MediaRowMapper mapper = new MediaRowMapper(data);
+                String firstCover = isAndroidQ ? getRealPathAndroid_Q(mapper.getId()) : mapper.getData();
+                if (bucketIds.contains(-1L)) {
+                    // Camera roll
+                    covers.put(-1L, firstCover);
+                }
+                do {
+                    long bucketId = mapper.getBucketId();
+                    if (!bucketIds.contains(bucketId) || covers.containsKey(bucketId)) {
+                        continue;
+                    }
+                    String cover = isAndroidQ ? getRealPathAndroid_Q(mapper.getId()) : mapper.getData();
+                    covers.put(bucketId, cover);
+                } while (covers.size() < bucketIds.size() && data.moveToNext());
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            Log.i(TAG, "loadFirstCovers Data Error: " + e.getMessage());
+        } finally {
+            if (data != null && !data.isClosed()) {
+                data.close();
+            }
+        }
+        for (LocalMediaFolder folder : folders) {
+            if (folder != null) {
+                folder.setFirstImagePath(covers.get(folder.getBucketId()));
+            }
+        }
+        Log.i(TAG, "loadFirstCovers: " + folders.size() + " folders, " + (SystemClock.uptimeMillis() - startTime) + "ms");
+    }
+
     /**
      * Queries for data in the specified directory
      *
@@ -221,8 +292,8 @@ public final class LocalMediaPageLoader {
      * @param listener
      * @return
      */
-    public void loadPageMediaData(long bucketId, int page, int limit, OnQueryDataResultListener listener) {
-        loadPageMediaData(bucketId, page, limit, config.pageSize, listener);
+    public MediaQueryHandle loadPageMediaData(long bucketId, int page, int limit, OnQueryDataResultListener listener) {
+        return loadPageMediaData(listener, bucketId, page, limit, config.pageSize, listener);
     }
 
     /**
@@ -232,8 +303,8 @@ public final class LocalMediaPageLoader {
      * @param listener
      * @return
      */
-    public void loadPageMediaData(long bucketId, int page, OnQueryDataResultListener<LocalMedia> listener) {
-        loadPageMediaData(bucketId, page, config.pageSize, config.pageSize, listener);
+    public MediaQueryHandle loadPageMediaData(long bucketId, int page, OnQueryDataResultListener<LocalMedia> listener) {
+        return loadPageMediaData(listener, bucketId, page, config.pageSize, config.pageSize, listener);
     }
 
     /**
@@ -245,139 +316,389 @@ public final class LocalMediaPageLoader {
      * @param pageSize
      * @return
      */
-    public void loadPageMediaData(long bucketId, int page, int limit, int pageSize,
-                                  OnQueryDataResultListener<LocalMedia> listener) {
+    public MediaQueryHandle loadPageMediaData(long bucketId, int page, int limit, int pageSize,
+                                              OnQueryDataResultListener<LocalMedia> listener) {
+        return loadPageMediaData(listener, bucketId, page, limit, pageSize, listener);
+    }
+
+    /**
+     * Queries for data in the specified directory (page)
+     *
+     * @param caller   Only the caller's own running page query is superseded，usually the Activity
+     * @param bucketId
+     * @param page
+     * @param limit
+     * @param pageSize
+     * @return
+     */
+    public MediaQueryHandle loadPageMediaData(Object caller, long bucketId, int page, int limit, int pageSize,
+                                              OnQueryDataResultListener<LocalMedia> listener) {
+        MediaQueryHandle handle = newPageQuery(caller);
         PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<MediaData>() {
 
             @Override
             public MediaData doInBackground() {
-                Cursor data = null;
-                try {
-                    String orderBy = page == -1 ? MediaStore.Files.FileColumns._ID + " DESC" : MediaStore.Files.FileColumns._ID + " DESC limit " + limit + " offset " + (page - 1) * pageSize;
-                    data = mContext.getContentResolver().query(QUERY_URI, PROJECTION_PAGE, getPageSelection(bucketId), getPageSelectionArgs(bucketId), orderBy);
-                    if (data != null) {
-                        List<LocalMedia> result = new ArrayList<>();
-                        if (data.getCount() > 0) {
-                            data.moveToFirst();
-                            do {
-                                long id = data.getLong
-                                        (data.getColumnIndexOrThrow(PROJECTION_PAGE[0]));
+                if (handle.isCancelled()) {
+                    return null;
+                }
+                String orderBy = page == -1 ? MediaStore.Files.FileColumns._ID + " DESC" : MediaStore.Files.FileColumns._ID + " DESC limit " + limit + " offset " + (page - 1) * pageSize;
+                return queryPageMediaData(getPageSelection(bucketId), getPageSelectionArgs(bucketId), orderBy, 0,
+                        handle.getCancellationSignal());
+            }
 
-                                String absolutePath = data.getString
-                                        (data.getColumnIndexOrThrow(PROJECTION_PAGE[1]));
+            @Override
+            public void onSuccess(MediaData result) {
+                if (listener != null && result != null && isCurrentPageQuery(caller, handle)) {
+                    listener.onComplete(result.data, page, result.isHasNextMore);
+                }
+            }
+        });
+        return handle;
+    }
 
-                                String url = SdkVersionUtils.checkedAndroid_Q() ? getRealPathAndroid_Q(id) : absolutePath;
+    /**
+     * Queries for data in the specified directory (keyset page)
+     * # Seek past the last _ID instead of using offset, so every page costs the same however deep it is
+     *
+     * @param bucketId
+     * @param lastId   The last _ID of the previous page, 0 is the first page
+     * @param listener
+     */
+    public MediaQueryHandle loadSeekPageMediaData(long bucketId, long lastId, OnQueryDataResultListener<LocalMedia> listener) {
+        return loadSeekPageMediaData(listener, bucketId, lastId, config.pageSize, listener);
+    }
 
-                                if (config.isFilterInvalidFile) {
-                                    if (!PictureFileUtils.isFileExists(absolutePath)) {
-                                        continue;
-                                    }
-                                }
-                                String mimeType = data.getString
-                                        (data.getColumnIndexOrThrow(PROJECTION_PAGE[2]));
-
-                                mimeType = TextUtils.isEmpty(mimeType) ? PictureMimeType.ofJPEG() : mimeType;
-                                // Here, it is solved that some models obtain mimeType and return the format of image / *,
-                                // which makes it impossible to distinguish the specific type, such as mi 8,9,10 and other models
-                                if (mimeType.endsWith("image/*")) {
-                                    if (PictureMimeType.isContent(url)) {
-                                        mimeType = PictureMimeType.getImageMimeType(absolutePath);
-                                    } else {
-                                        mimeType = PictureMimeType.getImageMimeType(url);
-                                    }
-                                    if (!config.isGif) {
-                                        if (PictureMimeType.isGif(mimeType)) {
-                                            continue;
-                                        }
-                                    }
-                                }
+    /**
+     * Queries for data in the specified directory (keyset page)
+     *
+     * @param caller   Only the caller's own running page query is superseded，usually the Activity
+     * @param bucketId
+     * @param lastId   The last _ID of the previous page, 0 is the first page
+     * @param listener
+     */
+    public MediaQueryHandle loadSeekPageMediaData(Object caller, long bucketId, long lastId,
+                                                  OnQueryDataResultListener<LocalMedia> listener) {
+        return loadSeekPageMediaData(caller, bucketId, lastId, config.pageSize, listener);
+    }
 
-                                if (!config.isWebp) {
-                                    if (mimeType.startsWith(PictureMimeType.ofWEBP())) {
-                                        continue;
-                                    }
-                                }
+    /**
+     * Queries for data in the specified directory (keyset page)
+     *
+     * @param bucketId
+     * @param lastId   The last _ID of the previous page, 0 is the first page
+     * @param limit
+     * @param listener
+     */
+    public MediaQueryHandle loadSeekPageMediaData(long bucketId, long lastId, int limit,
+                                                  OnQueryDataResultListener<LocalMedia> listener) {
+        return loadSeekPageMediaData(listener, bucketId, lastId, limit, listener);
+    }
 
-                                if (!config.isBmp) {
-                                    if (mimeType.startsWith(PictureMimeType.ofBMP())) {
-                                        continue;
-                                    }
-                                }
+    /**
+     * Queries for data in the specified directory (keyset page)
+     *
+     * @param caller   Only the caller's own running page query is superseded，usually the Activity
+     * @param bucketId
+     * @param lastId   The last _ID of the previous page, 0 is the first page
+     * @param limit
+     * @param listener
+     */
+    public MediaQueryHandle loadSeekPageMediaData(Object caller, long bucketId, long lastId, int limit,
+                                                  OnQueryDataResultListener<LocalMedia> listener) {
+        MediaQueryHandle handle = newPageQuery(caller);
+        PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<MediaData>() {
 
-                                int width = data.getInt
-                                        (data.getColumnIndexOrThrow(PROJECTION_PAGE[3]));
+            @Override
+            public MediaData doInBackground() {
+                if (handle.isCancelled()) {
+                    return null;
+                }
+                return querySeekPageMediaData(bucketId, lastId, limit, handle.getCancellationSignal());
+            }
 
-                                int height = data.getInt
-                                        (data.getColumnIndexOrThrow(PROJECTION_PAGE[4]));
+            @Override
+            public void onSuccess(MediaData result) {
+                if (listener != null && result != null && isCurrentPageQuery(caller, handle)) {
+                    listener.onComplete(result.data, bucketId, result.lastId, result.isHasNextMore);
+                }
+            }
+        });
+        return handle;
+    }
 
-                                long duration = data.getLong
-                                        (data.getColumnIndexOrThrow(PROJECTION_PAGE[5]));
+    /**
+     * Query a keyset page of media on the current thread
+     *
+     * @param bucketId
+     * @param lastId
+     * @param limit
+     * @param cancellationSignal
+     * @return null if the query failed or was cancelled
+     */
+    MediaData querySeekPageMediaData(long bucketId, long lastId, int limit, CancellationSignal cancellationSignal) {
+        String orderBy = MediaStore.Files.FileColumns._ID + " DESC limit " + limit;
+        return queryPageMediaData(getSeekPageSelection(bucketId, lastId), getPageSelectionArgs(bucketId), orderBy, lastId,
+                cancellationSignal);
+    }
 
-                                long size = data.getLong
-                                        (data.getColumnIndexOrThrow(PROJECTION_PAGE[6]));
+    /**
+     * Query a page of media
+     *
+     * @param selection
+     * @param selectionArgs
+     * @param orderBy
+     * @param lastId
+     * @param cancellationSignal
+     * @return
+     */
+    private MediaData queryPageMediaData(String selection, String[] selectionArgs, String orderBy, long lastId,
+                                         CancellationSignal cancellationSignal) {
+        Cursor data = null;
+        try {
+            data = mContext.getContentResolver().query(QUERY_URI, PROJECTION_PAGE, selection, selectionArgs, orderBy, cancellationSignal);
+            if (data != null) {
+                List<LocalMedia> result = new ArrayList<>();
+                if (data.getCount() > 0) {
+                    data.moveToFirst();
+                    boolean isAndroidQ = SdkVersionUtils.checkedAndroid_Q();
+                    MediaRowMapper mapper = new MediaRowMapper(data);
+                    do {
+                        if (cancellationSignal != null && cancellationSignal.isCanceled()) {
+                            return null;
+                        }
+                        long id = mapper.getId();
 
-                                String folderName = data.getString
-                                        (data.getColumnIndexOrThrow(PROJECTION_PAGE[7]));
+                        // Rows filtered out below still move the seek position forward
+                        lastId = id;
 
-                                String fileName = data.getString
-                                        (data.getColumnIndexOrThrow(PROJECTION_PAGE[8]));
+                        String absolutePath = mapper.getData();
 
-                                long bucket_id = data.getLong
-                                        (data.getColumnIndexOrThrow(PROJECTION_PAGE[9]));
+                        String url = isAndroidQ ? getRealPathAndroid_Q(id) : absolutePath;
 
-                                if (config.filterFileSize > 0) {
-                                    if (size > config.filterFileSize * FILE_SIZE_UNIT) {
-                                        continue;
-                                    }
-                                }
+                        String mimeType = mapper.getMimeType();
 
-                                if (PictureMimeType.isHasVideo(mimeType)) {
-                                    if (config.videoMinSecond > 0 && duration < config.videoMinSecond) {
-                                        // If you set the minimum number of seconds of video to display
-                                        continue;
-                                    }
-                                    if (config.videoMaxSecond > 0 && duration > config.videoMaxSecond) {
-                                        // If you set the maximum number of seconds of video to display
-                                        continue;
-                                    }
-                                    if (duration == 0) {
-                                        //If the length is 0, the corrupted video is processed and filtered out
-                                        continue;
-                                    }
-                                    if (size <= 0) {
-                                        // The video size is 0 to filter out
-                                        continue;
-                                    }
+                        mimeType = TextUtils.isEmpty(mimeType) ? PictureMimeType.ofJPEG() : mimeType;
+                        // Here, it is solved that some models obtain mimeType and return the format of image / *,
+                        // which makes it impossible to distinguish the specific type, such as mi 8,9,10 and other models
+                        if (mimeType.endsWith("image/*")) {
+                            if (PictureMimeType.isContent(url)) {
+                                mimeType = PictureMimeType.getImageMimeType(absolutePath);
+                            } else {
+                                mimeType = PictureMimeType.getImageMimeType(url);
+                            }
+                            if (!config.isGif) {
+                                if (PictureMimeType.isGif(mimeType)) {
+                                    continue;
                                 }
+                            }
+                        }
 
-                                LocalMedia image = new LocalMedia
-                                        (id, url, absolutePath, fileName, folderName, duration, config.chooseMode, mimeType, width, height, size, bucket_id);
+                        if (!config.isWebp) {
+                            if (mimeType.startsWith(PictureMimeType.ofWEBP())) {
+                                continue;
+                            }
+                        }
 
-                                result.add(image);
+                        if (!config.isBmp) {
+                            if (mimeType.startsWith(PictureMimeType.ofBMP())) {
+                                continue;
+                            }
+                        }
 
-                            } while (data.moveToNext());
+                        long duration = mapper.getDuration();
+
+                        long size = mapper.getSize();
+
+                        if (config.filterFileSize > 0) {
+                            if (size > config.filterFileSize * FILE_SIZE_UNIT) {
+                                continue;
+                            }
                         }
-                        return new MediaData(data.getCount() > 0, result);
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    Log.i(TAG, "loadMedia Page Data Error: " + e.getMessage());
-                    return null;
-                } finally {
-                    if (data != null && !data.isClosed()) {
-                        data.close();
-                    }
+
+                        if (PictureMimeType.isHasVideo(mimeType)) {
+                            if (config.videoMinSecond > 0 && duration < config.videoMinSecond) {
+                                // If you set the minimum number of seconds of video to display
+                                continue;
+                            }
+                            if (config.videoMaxSecond > 0 && duration > config.videoMaxSecond) {
+                                // If you set the maximum number of seconds of video to display
+                                continue;
+                            }
+                            if (duration == 0) {
+                                //If the length is 0, the corrupted video is processed and filtered out
+                                continue;
+                            }
+                            if (size <= 0) {
+                                // The video size is 0 to filter out
+                                continue;
+                            }
+                        }
+
+                        LocalMedia image = mapper.toLocalMedia(id, url, absolutePath, mimeType, duration, size, config.chooseMode);
+
+                        result.add(image);
+
+                    } while (data.moveToNext());
+                }
+                if (config.isFilterInvalidFile && result.size() > 0) {
+                    // One batched check for the whole page instead of a blocking File#exists per row
+                    result = fileExistsValidator.filter(result);
                 }
+                return new MediaData(data.getCount() > 0, lastId, result);
+            }
+        } catch (OperationCanceledException e) {
+            // Superseded by a newer query
+            return null;
+        } catch (Exception e) {
+            e.printStackTrace();
+            Log.i(TAG, "loadMedia Page Data Error: " + e.getMessage());
+            return null;
+        } finally {
+            if (data != null && !data.isClosed()) {
+                data.close();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The newest _ID and DATE_MODIFIED in MediaStore, used as the change tracking watermark
+     *
+     * @return {maxId, maxDateModified}
+     */
+    public long[] queryWatermark() {
+        // A file dated in the future must not pin the watermark ahead of every later change
+        long now = System.currentTimeMillis() / 1000;
+        return new long[]{queryMaxValue(MediaStore.Files.FileColumns._ID),
+                Math.min(now, queryMaxValue(MediaStore.MediaColumns.DATE_MODIFIED))};
+    }
+
+    private long queryMaxValue(String column) {
+        Cursor data = null;
+        try {
+            data = mContext.getContentResolver().query(QUERY_URI, new String[]{column}, null, null, column + " DESC limit 1");
+            if (data != null && data.moveToFirst()) {
+                return data.getLong(0);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            if (data != null && !data.isClosed()) {
+                data.close();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Rows inserted after the watermark or modified in or after its second，with the same filters as the page query.
+     * DATE_MODIFIED only has one second resolution，the caller drops the rows it has already seen
+     *
+     * @param maxId
+     * @param maxDateModified
+     * @return null if the query failed
+     */
+    public List<LocalMedia> queryChangedMedia(long maxId, long maxDateModified) {
+        String selection = getPageSelection(-1);
+        if (selection == null) {
+            return new ArrayList<>();
+        }
+        selection = "(" + selection + ") AND (" + MediaStore.Files.FileColumns._ID + ">" + maxId
+                + " OR " + MediaStore.MediaColumns.DATE_MODIFIED + ">=" + maxDateModified + ")";
+        MediaData result = queryPageMediaData(selection, getPageSelectionArgs(-1), ORDER_BY, 0, null);
+        return result != null ? result.data : null;
+    }
+
+    /**
+     * The media count of the given buckets，-1 is the total，one count query per bucket
+     * instead of walking the whole library
+     *
+     * @param bucketIds
+     * @return null if a query failed
+     */
+    public Map<Long, Integer> queryBucketCounts(Collection<Long> bucketIds) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Long bucketId : bucketIds) {
+            int count = queryMediaCount(bucketId);
+            if (count < 0) {
                 return null;
             }
+            counts.put(bucketId, count);
+        }
+        return counts;
+    }
 
-            @Override
-            public void onSuccess(MediaData result) {
-                if (listener != null && result != null) {
-                    listener.onComplete(result.data, page, result.isHasNextMore);
+    /**
+     * The media count of a bucket with the same filters as the page query，-1 is the total.
+     * Before Android Q this is a single COUNT(*)，on Q only the _ID column of the matching rows is counted
+     *
+     * @param bucketId
+     * @return -1 if the query failed
+     */
+    public int queryMediaCount(long bucketId) {
+        String selection = getPageSelection(bucketId);
+        if (selection == null) {
+            return 0;
+        }
+        boolean isAndroidQ = SdkVersionUtils.checkedAndroid_Q();
+        Cursor data = null;
+        try {
+            data = mContext.getContentResolver().query(QUERY_URI,
+                    new String[]{isAndroidQ ? MediaStore.Files.FileColumns._ID : "COUNT(*)"},
+                    selection, getPageSelectionArgs(bucketId), null);
+            if (data == null) {
+                return -1;
+            }
+            if (isAndroidQ) {
+                return data.getCount();
+            }
+            return data.moveToFirst() ? data.getInt(0) : 0;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return -1;
+        } finally {
+            if (data != null && !data.isClosed()) {
+                data.close();
+            }
+        }
+    }
+
+    /**
+     * Which of the given _IDs are still in MediaStore
+     *
+     * @param ids
+     * @return null if the query failed
+     */
+    public Set<Long> queryExistingIds(List<Long> ids) {
+        Set<Long> result = new HashSet<>();
+        int size = ids.size();
+        for (int start = 0; start < size; start += MAX_IN_SIZE) {
+            int end = Math.min(size, start + MAX_IN_SIZE);
+            StringBuilder selection = new StringBuilder(MediaStore.Files.FileColumns._ID).append(" IN (");
+            for (int i = start; i < end; i++) {
+                selection.append(i == start ? "" : ",").append(ids.get(i));
+            }
+            selection.append(")");
+            Cursor data = null;
+            try {
+                data = mContext.getContentResolver().query(QUERY_URI,
+                        new String[]{MediaStore.Files.FileColumns._ID}, selection.toString(), null, null);
+                if (data == null) {
+                    return null;
+                }
+                while (data.moveToNext()) {
+                    result.add(data.getLong(0));
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+                return null;
+            } finally {
+                if (data != null && !data.isClosed()) {
+                    data.close();
                 }
             }
-        });
+        }
+        return result;
     }
 
     /**
@@ -385,93 +706,77 @@ public final class LocalMediaPageLoader {
      *
      * @param listener
      */
-    public void loadAllMedia(OnQueryDataResultListener<LocalMediaFolder> listener) {
+    public MediaQueryHandle loadAllMedia(OnQueryDataResultListener<LocalMediaFolder> listener) {
+        MediaQueryHandle handle = newFolderQuery();
         PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<List<LocalMediaFolder>>() {
             @Override
             public List<LocalMediaFolder> doInBackground() {
-                Cursor data = mContext.getContentResolver().query(QUERY_URI,
-                        SdkVersionUtils.checkedAndroid_Q() ? PROJECTION_29 : PROJECTION,
-                        getSelection(), getSelectionArgs(), ORDER_BY);
+                if (handle.isCancelled()) {
+                    return null;
+                }
+                long startTime = SystemClock.uptimeMillis();
+                Cursor data = null;
                 try {
+                    data = mContext.getContentResolver().query(QUERY_URI,
+                            SdkVersionUtils.checkedAndroid_Q() ? PROJECTION_29 : PROJECTION,
+                            getSelection(), getSelectionArgs(), ORDER_BY, handle.getCancellationSignal());
                     if (data != null) {
                         int count = data.getCount();
-                        int totalCount = 0;
-                        List<LocalMediaFolder> mediaFolders = new ArrayList<>();
                         if (count > 0) {
-                            if (SdkVersionUtils.checkedAndroid_Q()) {
-                                Map<Long, Long> countMap = new HashMap<>();
-                                while (data.moveToNext()) {
-                                    long bucketId = data.getLong(data.getColumnIndex(COLUMN_BUCKET_ID));
-                                    Long newCount = countMap.get(bucketId);
-                                    if (newCount == null) {
-                                        newCount = 1L;
-                                    } else {
-                                        newCount++;
-                                    }
-                                    countMap.put(bucketId, newCount);
+                            boolean isAndroidQ = SdkVersionUtils.checkedAndroid_Q();
+                            MediaRowMapper mapper = new MediaRowMapper(data);
+                            ProgressThrottle throttle = new ProgressThrottle();
+                            List<LocalMediaFolder> mediaFolders = new ArrayList<>();
+                            LongSparseArray<LocalMediaFolder> bucketFolders = new LongSparseArray<>();
+                            String firstUrl = null;
+                            int totalCount = 0;
+                            while (data.moveToNext()) {
+                                if (handle.isCancelled()) {
+                                    return null;
                                 }
-
-                                if (data.moveToFirst()) {
-                                    Set<Long> hashSet = new HashSet<>();
-                                    do {
-                                        long bucketId = data.getLong(data.getColumnIndex(COLUMN_BUCKET_ID));
-                                        if (hashSet.contains(bucketId)) {
-                                            continue;
-                                        }
-                                        LocalMediaFolder mediaFolder = new LocalMediaFolder();
+                                if (isAndroidQ) {
+                                    // One row per media, the first row of a bucket is its newest
+                                    long bucketId = mapper.getBucketId();
+                                    LocalMediaFolder mediaFolder = bucketFolders.get(bucketId);
+                                    if (mediaFolder == null) {
+                                        mediaFolder = new LocalMediaFolder();
                                         mediaFolder.setBucketId(bucketId);
-                                        String bucketDisplayName = data.getString(
-                                                data.getColumnIndex(COLUMN_BUCKET_DISPLAY_NAME));
-                                        long size = countMap.get(bucketId);
-                                        long id = data.getLong(data.getColumnIndex(MediaStore.Files.FileColumns._ID));
-                                        mediaFolder.setName(bucketDisplayName);
-                                        mediaFolder.setImageNum(ValueOf.toInt(size));
-                                        mediaFolder.setFirstImagePath(getRealPathAndroid_Q(id));
+                                        mediaFolder.setName(mapper.getBucketDisplayName());
+                                        mediaFolder.setFirstImagePath(getRealPathAndroid_Q(mapper.getId()));
+                                        bucketFolders.put(bucketId, mediaFolder);
                                         mediaFolders.add(mediaFolder);
-                                        hashSet.add(bucketId);
-                                        totalCount += size;
-                                    } while (data.moveToNext());
-                                }
-
-                            } else {
-                                data.moveToFirst();
-                                do {
+                                    }
+                                    mediaFolder.setImageNum(mediaFolder.getImageNum() + 1);
+                                    totalCount++;
+                                } else {
+                                    // One row per bucket
                                     LocalMediaFolder mediaFolder = new LocalMediaFolder();
-                                    long bucketId = data.getLong(data.getColumnIndex(COLUMN_BUCKET_ID));
-                                    String bucketDisplayName = data.getString(data.getColumnIndex(COLUMN_BUCKET_DISPLAY_NAME));
-                                    int size = data.getInt(data.getColumnIndex(COLUMN_COUNT));
-                                    mediaFolder.setBucketId(bucketId);
-                                    String url = data.getString(data.getColumnIndex(MediaStore.MediaColumns.DATA));
-                                    mediaFolder.setFirstImagePath(url);
-                                    mediaFolder.setName(bucketDisplayName);
+                                    int size = mapper.getBucketCount();
+                                    mediaFolder.setBucketId(mapper.getBucketId());
+                                    mediaFolder.setFirstImagePath(mapper.getData());
+                                    mediaFolder.setName(mapper.getBucketDisplayName());
                                     mediaFolder.setImageNum(size);
                                     mediaFolders.add(mediaFolder);
                                     totalCount += size;
-                                } while (data.moveToNext());
-                            }
-
-                            sortFolder(mediaFolders);
-
-                            // 相机胶卷
-                            LocalMediaFolder allMediaFolder = new LocalMediaFolder();
-                            allMediaFolder.setImageNum(totalCount);
-                            allMediaFolder.setChecked(true);
-                            allMediaFolder.setBucketId(-1);
-                            if (data.moveToFirst()) {
-                                String firstUrl = SdkVersionUtils.checkedAndroid_Q() ? getFirstUri(data) : getFirstUrl(data);
-                                allMediaFolder.setFirstImagePath(firstUrl);
+                                }
+                                if (firstUrl == null) {
+                                    firstUrl = isAndroidQ ? getRealPathAndroid_Q(mapper.getId()) : mapper.getData();
+                                }
+                                if (listener != null && throttle.onRow()) {
+                                    List<LocalMediaFolder> progress = createFolderList(copyFolders(mediaFolders), totalCount, firstUrl);
+                                    PictureThreadUtils.runOnUiThread(() -> {
+                                        if (isCurrentFolderQuery(handle)) {
+                                            listener.onProgress(progress);
+                                        }
+                                    });
+                                }
                             }
-                            String bucketDisplayName = config.chooseMode == PictureMimeType.ofAudio() ?
-                                    mContext.getString(R.string.picture_all_audio)
-                                    : mContext.getString(R.string.picture_camera_roll);
-                            allMediaFolder.setName(bucketDisplayName);
-                            allMediaFolder.setOfAllType(config.chooseMode);
-                            allMediaFolder.setCameraFolder(true);
-                            mediaFolders.add(0, allMediaFolder);
-
-                            return mediaFolders;
+                            return createFolderList(mediaFolders, totalCount, firstUrl);
                         }
                     }
+                } catch (OperationCanceledException e) {
+                    // Superseded by a newer query
+                    return null;
                 } catch (Exception e) {
                     e.printStackTrace();
                     Log.i(TAG, "loadAllMedia Data Error: " + e.getMessage());
@@ -480,40 +785,131 @@ public final class LocalMediaPageLoader {
                     if (data != null && !data.isClosed()) {
                         data.close();
                     }
+                    Log.i(TAG, "loadAllMedia: " + (SystemClock.uptimeMillis() - startTime) + "ms");
                 }
                 return new ArrayList<>();
             }
 
             @Override
             public void onSuccess(List<LocalMediaFolder> result) {
-                if (listener != null && result != null) {
+                if (listener != null && result != null && isCurrentFolderQuery(handle)) {
                     listener.onComplete(result, 1, false);
                 }
             }
         });
+        return handle;
     }
 
+
     /**
-     * Get cover uri
+     * Sort the album folders and put the camera roll first
      *
-     * @param cursor
+     * @param mediaFolders
+     * @param totalCount
+     * @param firstUrl
      * @return
      */
-    private static String getFirstUri(Cursor cursor) {
-        long id = cursor.getLong(cursor.getColumnIndex(MediaStore.Files.FileColumns._ID));
-        return getRealPathAndroid_Q(id);
+    private List<LocalMediaFolder> createFolderList(List<LocalMediaFolder> mediaFolders, int totalCount, String firstUrl) {
+        sortFolder(mediaFolders);
+        // 相机胶卷
+        LocalMediaFolder allMediaFolder = new LocalMediaFolder();
+        allMediaFolder.setImageNum(totalCount);
+        allMediaFolder.setChecked(true);
+        allMediaFolder.setBucketId(-1);
+        allMediaFolder.setFirstImagePath(firstUrl);
+        String bucketDisplayName = config.chooseMode == PictureMimeType.ofAudio() ?
+                mContext.getString(R.string.picture_all_audio)
+                : mContext.getString(R.string.picture_camera_roll);
+        allMediaFolder.setName(bucketDisplayName);
+        allMediaFolder.setOfAllType(config.chooseMode);
+        allMediaFolder.setCameraFolder(true);
+        mediaFolders.add(0, allMediaFolder);
+        return mediaFolders;
     }
 
     /**
-     * Get cover url
+     * Copies of the folders scanned so far, the scan keeps counting into the originals
      *
-     * @param cursor
+     * @param mediaFolders
      * @return
      */
-    private static String getFirstUrl(Cursor cursor) {
-        return cursor.getString(cursor.getColumnIndex(MediaStore.Files.FileColumns.DATA));
+    private List<LocalMediaFolder> copyFolders(List<LocalMediaFolder> mediaFolders) {
+        List<LocalMediaFolder> result = new ArrayList<>(mediaFolders.size());
+        for (LocalMediaFolder mediaFolder : mediaFolders) {
+            LocalMediaFolder folder = new LocalMediaFolder();
+            folder.setBucketId(mediaFolder.getBucketId());
+            folder.setName(mediaFolder.getName());
+            folder.setFirstImagePath(mediaFolder.getFirstImagePath());
+            folder.setImageNum(mediaFolder.getImageNum());
+            result.add(folder);
+        }
+        return result;
     }
 
+    /**
+     * Start a page query，the caller's running page query is aborted and its result dropped
+     *
+     * @param caller
+     * @return
+     */
+    private synchronized MediaQueryHandle newPageQuery(Object caller) {
+        MediaQueryHandle handle = new MediaQueryHandle();
+        MediaQueryHandle pageQuery = pageQueries.put(caller, handle);
+        if (pageQuery != null) {
+            pageQuery.cancel();
+        }
+        return handle;
+    }
+
+    private synchronized boolean isCurrentPageQuery(Object caller, MediaQueryHandle handle) {
+        if (handle != pageQueries.get(caller) || handle.isCancelled()) {
+            return false;
+        }
+        pageQueries.remove(caller);
+        return true;
+    }
+
+    /**
+     * Abort the caller's running page query
+     *
+     * @param caller
+     */
+    public synchronized void cancelPageQuery(Object caller) {
+        MediaQueryHandle pageQuery = pageQueries.remove(caller);
+        if (pageQuery != null) {
+            pageQuery.cancel();
+        }
+    }
+
+    /**
+     * Start a folder query，the running folder query is aborted and its result dropped
+     *
+     * @return
+     */
+    private synchronized MediaQueryHandle newFolderQuery() {
+        if (folderQuery != null) {
+            folderQuery.cancel();
+        }
+        folderQuery = new MediaQueryHandle();
+        return folderQuery;
+    }
+
+    private synchronized boolean isCurrentFolderQuery(MediaQueryHandle handle) {
+        return handle == folderQuery && !handle.isCancelled();
+    }
+
+    /**
+     * Abort all running queries
+     */
+    public synchronized void cancelAll() {
+        for (MediaQueryHandle pageQuery : pageQueries.values()) {
+            pageQuery.cancel();
+        }
+        pageQueries.clear();
+        if (folderQuery != null) {
+            folderQuery.cancel();
+        }
+    }
 
     private String getPageSelection(long bucketId) {
         String durationCondition = getDurationCondition(0, 0);
@@ -575,6 +971,21 @@ public final class LocalMediaPageLoader {
         return null;
     }
 
+    /**
+     * Keyset page query conditions
+     *
+     * @param bucketId
+     * @param lastId
+     * @return
+     */
+    private String getSeekPageSelection(long bucketId, long lastId) {
+        String selection = getPageSelection(bucketId);
+        if (lastId <= 0 || selection == null) {
+            return selection;
+        }
+        return "(" + selection + ") AND " + MediaStore.Files.FileColumns._ID + "<" + lastId;
+    }
+
     private String[] getPageSelectionArgs(long bucketId) {
         switch (config.chooseMode) {
             case PictureConfig.TYPE_ALL:
@@ -724,6 +1135,9 @@ public final class LocalMediaPageLoader {
      * set empty
      */
     public static void setInstanceNull() {
+        if (instance != null) {
+            instance.cancelAll();
+        }
         instance = null;
     }
 }
@@ -0,0 +1,234 @@
+package com.luck.picture.lib.model;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.provider.MediaStore;
+import android.util.Log;
+
+import com.luck.picture.lib.config.PictureSelectionConfig;
+import com.luck.picture.lib.entity.LocalMedia;
+import com.luck.picture.lib.entity.LocalMediaFolder;
+import com.luck.picture.lib.tools.PictureFileUtils;
+import com.luck.picture.lib.tools.SdkVersionUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 14:05
+ * @describe：On-disk snapshot of the album folders and the first page，shown while MediaStore is queried again
+ */
+public final class LocalMediaSnapshot {
+    private static final String TAG = LocalMediaSnapshot.class.getSimpleName();
+    private static final String FILE_NAME = "picture_media_snapshot";
+    private static final int MAGIC = 0x50534E31;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Album folders
+     */
+    public final List<LocalMediaFolder> folders;
+    /**
+     * The first page of the first folder
+     */
+    public final List<LocalMedia> data;
+    /**
+     * The last _ID of the first page, keyset paging resumes from it while the snapshot is shown
+     */
+    public final long lastId;
+
+    private LocalMediaSnapshot(List<LocalMediaFolder> folders, List<LocalMedia> data, long lastId) {
+        this.folders = folders;
+        this.data = data;
+        this.lastId = lastId;
+    }
+
+    /**
+     * Read the snapshot, memory-mapped
+     *
+     * @param context
+     * @param config
+     * @return null if there is no snapshot for the current MediaStore version and query config
+     */
+    public static LocalMediaSnapshot read(Context context, PictureSelectionConfig config) {
+        File file = new File(context.getCacheDir(), FILE_NAME);
+        if (!file.exists()) {
+            return null;
+        }
+        FileInputStream inputStream = null;
+        try {
+            inputStream = new FileInputStream(file);
+            FileChannel channel = inputStream.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || !getSnapshotKey(context, config).equals(getString(buffer))) {
+                return null;
+            }
+            long lastId = buffer.getLong();
+            int folderCount = buffer.getInt();
+            List<LocalMediaFolder> folders = new ArrayList<>(folderCount);
+            for (int i = 0; i < folderCount; i++) {
+                LocalMediaFolder folder = new LocalMediaFolder();
+                folder.setBucketId(buffer.getLong());
+                folder.setName(getString(buffer));
+                folder.setFirstImagePath(getString(buffer));
+                folder.setImageNum(buffer.getInt());
+                folder.setOfAllType(buffer.getInt());
+                folder.setCameraFolder(buffer.get() != 0);
+                folders.add(folder);
+            }
+            int mediaCount = buffer.getInt();
+            List<LocalMedia> data = new ArrayList<>(mediaCount);
+            for (int i = 0; i < mediaCount; i++) {
+                long id = buffer.getLong();
+                String path = getString(buffer);
+                String absolutePath = getString(buffer);
+                String fileName = getString(buffer);
+                String parentFolderName = getString(buffer);
+                long duration = buffer.getLong();
+                int chooseModel = buffer.getInt();
+                String mimeType = getString(buffer);
+                int width = buffer.getInt();
+                int height = buffer.getInt();
+                long size = buffer.getLong();
+                long bucketId = buffer.getLong();
+                data.add(new LocalMedia(id, path, absolutePath, fileName, parentFolderName, duration,
+                        chooseModel, mimeType, width, height, size, bucketId));
+            }
+            return new LocalMediaSnapshot(folders, data, lastId);
+        } catch (Exception e) {
+            // A damaged snapshot is just dropped, the MediaStore query will write a new one
+            e.printStackTrace();
+            file.delete();
+            return null;
+        } finally {
+            PictureFileUtils.close(inputStream);
+        }
+    }
+
+    /**
+     * Save the snapshot, written to a temp file and renamed so readers never see a partial file
+     *
+     * @param context
+     * @param config
+     * @param folders
+     * @param data
+     * @param lastId
+     */
+    public static void save(Context context, PictureSelectionConfig config,
+                            List<LocalMediaFolder> folders, List<LocalMedia> data, long lastId) {
+        File file = new File(context.getCacheDir(), FILE_NAME);
+        File tempFile = new File(context.getCacheDir(), FILE_NAME + ".tmp");
+        DataOutputStream outputStream = null;
+        try {
+            outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            outputStream.writeInt(MAGIC);
+            putString(outputStream, getSnapshotKey(context, config));
+            outputStream.writeLong(lastId);
+            outputStream.writeInt(folders.size());
+            for (LocalMediaFolder folder : folders) {
+                outputStream.writeLong(folder.getBucketId());
+                putString(outputStream, folder.getName());
+                putString(outputStream, folder.getFirstImagePath());
+                outputStream.writeInt(folder.getImageNum());
+                outputStream.writeInt(folder.getOfAllType());
+                outputStream.writeByte(folder.isCameraFolder() ? 1 : 0);
+            }
+            outputStream.writeInt(data.size());
+            for (LocalMedia media : data) {
+                outputStream.writeLong(media.getId());
+                putString(outputStream, media.getPath());
+                putString(outputStream, media.getRealPath());
+                putString(outputStream, media.getFileName());
+                putString(outputStream, media.getParentFolderName());
+                outputStream.writeLong(media.getDuration());
+                outputStream.writeInt(media.getChooseModel());
+                putString(outputStream, media.getMimeType());
+                outputStream.writeInt(media.getWidth());
+                outputStream.writeInt(media.getHeight());
+                outputStream.writeLong(media.getSize());
+                outputStream.writeLong(media.getBucketId());
+            }
+            outputStream.close();
+            outputStream = null;
+            if (!tempFile.renameTo(file)) {
+                tempFile.delete();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            Log.i(TAG, "save Snapshot Error: " + e.getMessage());
+            tempFile.delete();
+        } finally {
+            PictureFileUtils.close(outputStream);
+        }
+    }
+
+    /**
+     * The snapshot is only valid for the same MediaStore database and the same query conditions
+     *
+     * @param context
+     * @param config
+     * @return
+     */
+    private static String getSnapshotKey(Context context, PictureSelectionConfig config) {
+        String version = SdkVersionUtils.checkedAndroid_Q() ? MediaStore.getVersion(context) : queryContentVersion(context);
+        return version + "|" + config.chooseMode + "|" + config.isGif + "|" + config.isWebp + "|" + config.isBmp
+                + "|" + config.specifiedFormat + "|" + config.filterFileSize + "|" + config.videoMinSecond
+                + "|" + config.videoMaxSecond + "|" + config.isFilterInvalidFile + "|" + config.pageSize;
+    }
+
+    /**
+     * Before Android Q there is no MediaStore version，the row count and the newest _ID change with
+     * every insert and delete and cost a single aggregate query
+     *
+     * @param context
+     * @return
+     */
+    private static String queryContentVersion(Context context) {
+        Cursor data = null;
+        try {
+            data = context.getContentResolver().query(MediaStore.Files.getContentUri("external"),
+                    new String[]{"COUNT(*)", "MAX(" + MediaStore.Files.FileColumns._ID + ")"}, null, null, null);
+            if (data != null && data.moveToFirst()) {
+                return data.getInt(0) + ":" + data.getLong(1);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            if (data != null && !data.isClosed()) {
+                data.close();
+            }
+        }
+        // Unknown，never matches a saved key
+        return String.valueOf(System.nanoTime());
+    }
+
+    private static void putString(DataOutputStream outputStream, String value) throws IOException {
+        if (value == null) {
+            outputStream.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(UTF_8);
+        outputStream.writeInt(bytes.length);
+        outputStream.write(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == -1) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
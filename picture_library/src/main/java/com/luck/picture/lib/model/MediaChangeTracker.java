@@ -0,0 +1,265 @@
+package com.luck.picture.lib.model;
+
+import android.content.Context;
+import android.database.ContentObserver;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.MediaStore;
+
+import com.luck.picture.lib.entity.LocalMedia;
+import com.luck.picture.lib.listener.OnMediaChangeListener;
+import com.luck.picture.lib.thread.PictureThreadUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 15:10
+ * @describe：MediaStore change tracking，turns ContentObserver notifications into
+ * inserted、updated and deleted rows since the last sync instead of a full reload
+ */
+public final class MediaChangeTracker {
+    private static final Uri QUERY_URI = MediaStore.Files.getContentUri("external");
+    /**
+     * MediaStore notifies several times for one file, merge them
+     */
+    private static final long DELAY_TIME = 500;
+
+    private final Context mContext;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final OnMediaChangeListener listener;
+    private final ContentObserver observer;
+    private final Runnable checkRunnable = new Runnable() {
+        @Override
+        public void run() {
+            checkChanges();
+        }
+    };
+    /**
+     * Watermark of the last sync
+     */
+    private long maxId;
+    private long maxDateModified;
+    /**
+     * Filtered media count of the last sync，a drop not explained by the loaded media is a delete outside of them
+     */
+    private int totalCount = -1;
+    /**
+     * Rows of the last check，those still in the watermark's second come back and are not reported twice
+     */
+    private Set<Long> reportedIds = new HashSet<>();
+    private boolean isSynced;
+    private boolean isRegistered;
+    private boolean isQuerying;
+    private boolean isPending;
+
+    public MediaChangeTracker(Context context, OnMediaChangeListener listener) {
+        this.mContext = context;
+        this.listener = listener;
+        this.observer = new ContentObserver(mHandler) {
+            @Override
+            public void onChange(boolean selfChange) {
+                mHandler.removeCallbacks(checkRunnable);
+                mHandler.postDelayed(checkRunnable, DELAY_TIME);
+            }
+        };
+    }
+
+    public void register() {
+        if (!isRegistered) {
+            isRegistered = true;
+            mContext.getContentResolver().registerContentObserver(QUERY_URI, true, observer);
+        }
+    }
+
+    public void unregister() {
+        if (isRegistered) {
+            isRegistered = false;
+            mContext.getContentResolver().unregisterContentObserver(observer);
+        }
+        mHandler.removeCallbacks(checkRunnable);
+    }
+
+    /**
+     * Record the watermark after a full load，only later changes are reported
+     */
+    public void sync() {
+        PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<long[]>() {
+
+            @Override
+            public long[] doInBackground() {
+                LocalMediaPageLoader loader = LocalMediaPageLoader.getInstance(mContext);
+                long[] watermark = loader.queryWatermark();
+                return new long[]{watermark[0], watermark[1], loader.queryMediaCount(-1)};
+            }
+
+            @Override
+            public void onSuccess(long[] result) {
+                if (!isSynced) {
+                    maxId = result[0];
+                    maxDateModified = result[1];
+                    totalCount = (int) result[2];
+                    isSynced = true;
+                }
+            }
+        });
+    }
+
+    /**
+     * Query the changes since the last sync and move the watermark forward
+     */
+    public void checkChanges() {
+        if (!isSynced || !isRegistered) {
+            return;
+        }
+        if (isQuerying) {
+            isPending = true;
+            return;
+        }
+        isQuerying = true;
+        long sinceId = maxId;
+        long sinceDateModified = maxDateModified;
+        int sinceTotalCount = totalCount;
+        Set<Long> seenIds = reportedIds;
+        List<Long> loadedIds = new ArrayList<>();
+        Map<Long, Long> loadedBucketIds = new HashMap<>();
+        for (LocalMedia media : listener.getLoadedData()) {
+            // Camera temporary ids are above the watermark and not in MediaStore yet
+            if (media.getId() > 0 && media.getId() <= sinceId) {
+                loadedIds.add(media.getId());
+                loadedBucketIds.put(media.getId(), media.getBucketId());
+            }
+        }
+        Set<Long> folderBucketIds = new HashSet<>(listener.getFolderBucketIds());
+        PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<MediaChange>() {
+
+            @Override
+            public MediaChange doInBackground() {
+                LocalMediaPageLoader loader = LocalMediaPageLoader.getInstance(mContext);
+                // Taken first, a row written during the queries is reported again next time rather than lost
+                long[] watermark = loader.queryWatermark();
+                List<LocalMedia> changed = loader.queryChangedMedia(sinceId, sinceDateModified);
+                Set<Long> existingIds = loader.queryExistingIds(loadedIds);
+                if (changed == null || existingIds == null) {
+                    return null;
+                }
+                Set<Long> changedIds = new HashSet<>();
+                List<LocalMedia> unseen = new ArrayList<>();
+                for (LocalMedia media : changed) {
+                    changedIds.add(media.getId());
+                    if (media.getId() > sinceId || !seenIds.contains(media.getId())) {
+                        unseen.add(media);
+                    }
+                }
+                int count = loader.queryMediaCount(-1);
+                if (count < 0) {
+                    return null;
+                }
+                // Only the buckets of the changed and deleted rows are recounted
+                Set<Long> bucketIds = new HashSet<>();
+                int insertedCount = 0;
+                for (LocalMedia media : unseen) {
+                    bucketIds.add(media.getBucketId());
+                    if (media.getId() > sinceId) {
+                        insertedCount++;
+                    }
+                }
+                int deletedCount = 0;
+                for (Long id : loadedIds) {
+                    if (!existingIds.contains(id)) {
+                        bucketIds.add(loadedBucketIds.get(id));
+                        deletedCount++;
+                    }
+                }
+                // The total moved more than the rows seen here，something outside of the loaded media was deleted
+                if (sinceTotalCount >= 0 && count != sinceTotalCount + insertedCount - deletedCount) {
+                    bucketIds.addAll(folderBucketIds);
+                }
+                bucketIds.remove(-1L);
+                Map<Long, Integer> bucketCounts = null;
+                if (bucketIds.size() > 0 || count != sinceTotalCount) {
+                    bucketCounts = loader.queryBucketCounts(bucketIds);
+                    if (bucketCounts == null) {
+                        return null;
+                    }
+                    bucketCounts.put(-1L, count);
+                }
+                return new MediaChange(watermark, count, unseen, changedIds, existingIds, bucketCounts);
+            }
+
+            @Override
+            public void onSuccess(MediaChange result) {
+                isQuerying = false;
+                if (result != null && isRegistered) {
+                    dispatchChanges(result, sinceId, loadedIds);
+                }
+                if (isPending) {
+                    isPending = false;
+                    checkChanges();
+                }
+            }
+
+            @Override
+            public void onFail(Throwable t) {
+                super.onFail(t);
+                isQuerying = false;
+            }
+        });
+    }
+
+    private void dispatchChanges(MediaChange result, long sinceId, List<Long> loadedIds) {
+        List<LocalMedia> inserted = new ArrayList<>();
+        List<LocalMedia> updated = new ArrayList<>();
+        for (LocalMedia media : result.changed) {
+            if (media.getId() > sinceId) {
+                inserted.add(media);
+            } else {
+                updated.add(media);
+            }
+        }
+        Set<Long> deletedIds = new HashSet<>();
+        for (Long id : loadedIds) {
+            if (!result.existingIds.contains(id)) {
+                deletedIds.add(id);
+            }
+        }
+        maxId = Math.max(maxId, result.watermark[0]);
+        maxDateModified = Math.max(maxDateModified, result.watermark[1]);
+        totalCount = result.totalCount;
+        reportedIds = result.changedIds;
+        if (inserted.size() > 0 || updated.size() > 0 || deletedIds.size() > 0 || result.bucketCounts != null) {
+            listener.onMediaChange(inserted, updated, deletedIds, result.bucketCounts);
+        }
+    }
+
+    private static class MediaChange {
+        private final long[] watermark;
+        private final int totalCount;
+        /**
+         * Changed rows not reported before
+         */
+        private final List<LocalMedia> changed;
+        /**
+         * All changed rows，reported before or not
+         */
+        private final Set<Long> changedIds;
+        private final Set<Long> existingIds;
+        private final Map<Long, Integer> bucketCounts;
+
+        private MediaChange(long[] watermark, int totalCount, List<LocalMedia> changed, Set<Long> changedIds,
+                            Set<Long> existingIds, Map<Long, Integer> bucketCounts) {
+            this.watermark = watermark;
+            this.totalCount = totalCount;
+            this.changed = changed;
+            this.changedIds = changedIds;
+            this.existingIds = existingIds;
+            this.bucketCounts = bucketCounts;
+        }
+    }
+}
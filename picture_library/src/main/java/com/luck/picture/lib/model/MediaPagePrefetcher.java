@@ -0,0 +1,218 @@
+package com.luck.picture.lib.model;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.luck.picture.lib.entity.LocalMedia;
+import com.luck.picture.lib.entity.MediaData;
+import com.luck.picture.lib.listener.OnQueryDataResultListener;
+import com.luck.picture.lib.thread.PictureThreadUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 17:56
+ * @describe：Keeps the next keyset pages of the current album loaded ahead of the scroll position，
+ * one page ahead while scrolling down，two when the end would be reached within two page queries
+ */
+public final class MediaPagePrefetcher {
+    private static final String TAG = MediaPagePrefetcher.class.getSimpleName();
+    /**
+     * At most this many pages are held ahead
+     */
+    private static final int MAX_BUFFER_PAGES = 2;
+    /**
+     * Assumed page query time until one has been measured
+     */
+    private static final long DEFAULT_LATENCY = 200;
+
+    private final Context mContext;
+    private final int pageSize;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final ArrayDeque<MediaData> buffer = new ArrayDeque<>(MAX_BUFFER_PAGES);
+    private long bucketId = -1;
+    /**
+     * The seek position after the newest page fetched, delivered or buffered
+     */
+    private long lastId;
+    private boolean isHasMore;
+    private MediaQueryHandle fetchHandle;
+    private OnQueryDataResultListener<LocalMedia> pendingListener;
+    private long averageLatency = DEFAULT_LATENCY;
+    /**
+     * Scroll velocity in adapter positions per second
+     */
+    private float velocity;
+    private int lastPosition = -1;
+    private long lastScrollTime;
+
+    private int hitCount;
+    private int missCount;
+    private int wastedCount;
+
+    public MediaPagePrefetcher(Context context, int pageSize) {
+        this.mContext = context;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Start over from a page of an album that has just been shown，buffered pages are dropped
+     *
+     * @param bucketId
+     * @param lastId    The last _ID of the pages shown
+     * @param isHasMore
+     */
+    public void reset(long bucketId, long lastId, boolean isHasMore) {
+        cancelFetch();
+        wastedCount += buffer.size();
+        buffer.clear();
+        pendingListener = null;
+        this.bucketId = bucketId;
+        this.lastId = lastId;
+        this.isHasMore = isHasMore;
+        this.velocity = 0;
+        this.lastPosition = -1;
+    }
+
+    /**
+     * Called from the grid scroll listener
+     *
+     * @param lastVisiblePosition
+     * @param itemCount
+     */
+    public void onScroll(int lastVisiblePosition, int itemCount) {
+        long now = SystemClock.uptimeMillis();
+        if (lastPosition != -1 && now > lastScrollTime) {
+            float sample = (lastVisiblePosition - lastPosition) * 1000F / (now - lastScrollTime);
+            velocity = velocity * 0.5F + sample * 0.5F;
+        }
+        lastPosition = lastVisiblePosition;
+        lastScrollTime = now;
+        if (velocity <= 0) {
+            return;
+        }
+        int remaining = Math.max(0, itemCount - 1 - lastVisiblePosition);
+        float timeToEnd = remaining * 1000F / velocity;
+        int depth = timeToEnd < 2 * averageLatency ? MAX_BUFFER_PAGES : 1;
+        if (buffer.size() + (fetchHandle != null ? 1 : 0) < depth) {
+            fetchNextPage();
+        }
+    }
+
+    /**
+     * The grid needs the next page，delivered from the buffer or as soon as it has been queried
+     *
+     * @param listener
+     */
+    public void requestNextPage(OnQueryDataResultListener<LocalMedia> listener) {
+        MediaData page = buffer.poll();
+        if (page != null) {
+            hitCount++;
+            deliver(page, listener);
+            fetchNextPage();
+            return;
+        }
+        if (!isHasMore && fetchHandle == null) {
+            // Every page has been delivered already, an empty page ends the paging like a query would
+            deliver(new MediaData(false, lastId, new ArrayList<>()), listener);
+            return;
+        }
+        if (pendingListener == null) {
+            missCount++;
+        }
+        pendingListener = listener;
+        fetchNextPage();
+    }
+
+    private void fetchNextPage() {
+        if (!isHasMore || fetchHandle != null || buffer.size() >= MAX_BUFFER_PAGES) {
+            return;
+        }
+        MediaQueryHandle handle = new MediaQueryHandle();
+        fetchHandle = handle;
+        long fetchBucketId = bucketId;
+        long fetchLastId = lastId;
+        long startTime = SystemClock.uptimeMillis();
+        PictureThreadUtils.executeByIo(new PictureThreadUtils.SimpleTask<MediaData>() {
+
+            @Override
+            public MediaData doInBackground() {
+                if (handle.isCancelled()) {
+                    return null;
+                }
+                return LocalMediaPageLoader.getInstance(mContext)
+                        .querySeekPageMediaData(fetchBucketId, fetchLastId, pageSize, handle.getCancellationSignal());
+            }
+
+            @Override
+            public void onSuccess(MediaData result) {
+                if (handle != fetchHandle) {
+                    return;
+                }
+                fetchHandle = null;
+                if (result == null) {
+                    // Failed, the next scroll or request tries again
+                    return;
+                }
+                averageLatency = (averageLatency * 3 + SystemClock.uptimeMillis() - startTime) / 4;
+                lastId = result.lastId;
+                isHasMore = result.isHasNextMore;
+                if (pendingListener != null) {
+                    OnQueryDataResultListener<LocalMedia> listener = pendingListener;
+                    pendingListener = null;
+                    deliver(result, listener);
+                } else {
+                    buffer.offer(result);
+                }
+            }
+        });
+    }
+
+    /**
+     * Posted, so the adapter is never changed inside a scroll or layout pass
+     */
+    private void deliver(MediaData page, OnQueryDataResultListener<LocalMedia> listener) {
+        long pageBucketId = bucketId;
+        mHandler.post(() -> listener.onComplete(page.data, pageBucketId, page.lastId, page.isHasNextMore));
+    }
+
+    private void cancelFetch() {
+        if (fetchHandle != null) {
+            fetchHandle.cancel();
+            fetchHandle = null;
+        }
+    }
+
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    public int getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Pages fetched ahead but dropped by an album switch
+     *
+     * @return
+     */
+    public int getWastedCount() {
+        return wastedCount;
+    }
+
+    public float getHitRate() {
+        int total = hitCount + missCount;
+        return total > 0 ? (float) hitCount / total : 0;
+    }
+
+    public void release() {
+        reset(-1, 0, false);
+        mHandler.removeCallbacksAndMessages(null);
+        Log.i(TAG, "prefetch hit: " + hitCount + ", miss: " + missCount + ", wasted: " + wastedCount);
+    }
+}
@@ -0,0 +1,27 @@
+package com.luck.picture.lib.model;
+
+import android.os.CancellationSignal;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 16:48
+ * @describe：A running media query，cancelling it aborts the query inside the provider and drops its result
+ */
+public final class MediaQueryHandle {
+    private final CancellationSignal cancellationSignal = new CancellationSignal();
+
+    MediaQueryHandle() {
+    }
+
+    CancellationSignal getCancellationSignal() {
+        return cancellationSignal;
+    }
+
+    public void cancel() {
+        cancellationSignal.cancel();
+    }
+
+    public boolean isCancelled() {
+        return cancellationSignal.isCanceled();
+    }
+}
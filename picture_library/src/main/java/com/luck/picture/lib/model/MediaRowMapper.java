@@ -0,0 +1,147 @@
+package com.luck.picture.lib.model;
+
+import android.database.Cursor;
+import android.provider.MediaStore;
+
+import com.luck.picture.lib.entity.LocalMedia;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 10:21
+ * @describe：MediaStore cursor row reader，column indices are resolved once per cursor.
+ * _ID，_DATA and MIME_TYPE are required，reading one the projection lacks throws like Cursor#getColumnIndexOrThrow
+ */
+public final class MediaRowMapper {
+    public static final String COLUMN_COUNT = "count";
+    public static final String COLUMN_BUCKET_ID = "bucket_id";
+    public static final String COLUMN_BUCKET_DISPLAY_NAME = "bucket_display_name";
+
+    private final Cursor cursor;
+    private final int idColumn;
+    private final int dataColumn;
+    private final int mimeTypeColumn;
+    private final int widthColumn;
+    private final int heightColumn;
+    private final int durationColumn;
+    private final int sizeColumn;
+    private final int bucketDisplayNameColumn;
+    private final int displayNameColumn;
+    private final int bucketIdColumn;
+    private final int dateAddedColumn;
+    private final int countColumn;
+
+    public MediaRowMapper(Cursor cursor) {
+        this.cursor = cursor;
+        this.idColumn = cursor.getColumnIndex(MediaStore.Files.FileColumns._ID);
+        this.dataColumn = cursor.getColumnIndex(MediaStore.MediaColumns.DATA);
+        this.mimeTypeColumn = cursor.getColumnIndex(MediaStore.MediaColumns.MIME_TYPE);
+        this.widthColumn = cursor.getColumnIndex(MediaStore.MediaColumns.WIDTH);
+        this.heightColumn = cursor.getColumnIndex(MediaStore.MediaColumns.HEIGHT);
+        this.durationColumn = cursor.getColumnIndex(MediaStore.MediaColumns.DURATION);
+        this.sizeColumn = cursor.getColumnIndex(MediaStore.MediaColumns.SIZE);
+        this.bucketDisplayNameColumn = cursor.getColumnIndex(COLUMN_BUCKET_DISPLAY_NAME);
+        this.displayNameColumn = cursor.getColumnIndex(MediaStore.MediaColumns.DISPLAY_NAME);
+        this.bucketIdColumn = cursor.getColumnIndex(COLUMN_BUCKET_ID);
+        this.dateAddedColumn = cursor.getColumnIndex(MediaStore.MediaColumns.DATE_ADDED);
+        this.countColumn = cursor.getColumnIndex(COLUMN_COUNT);
+    }
+
+    public long getId() {
+        return cursor.getLong(requireColumn(idColumn, MediaStore.Files.FileColumns._ID));
+    }
+
+    public String getData() {
+        return cursor.getString(requireColumn(dataColumn, MediaStore.MediaColumns.DATA));
+    }
+
+    public String getMimeType() {
+        return cursor.getString(requireColumn(mimeTypeColumn, MediaStore.MediaColumns.MIME_TYPE));
+    }
+
+    public int getWidth() {
+        return getInt(widthColumn);
+    }
+
+    public int getHeight() {
+        return getInt(heightColumn);
+    }
+
+    public long getDuration() {
+        return getLong(durationColumn);
+    }
+
+    public long getSize() {
+        return getLong(sizeColumn);
+    }
+
+    public String getBucketDisplayName() {
+        return getString(bucketDisplayNameColumn);
+    }
+
+    public String getDisplayName() {
+        return getString(displayNameColumn);
+    }
+
+    public long getBucketId() {
+        return bucketIdColumn == -1 ? -1 : cursor.getLong(bucketIdColumn);
+    }
+
+    public long getDateAdded() {
+        return getLong(dateAddedColumn);
+    }
+
+    /**
+     * The "COUNT(*) AS count" column of a grouped query
+     *
+     * @return
+     */
+    public int getBucketCount() {
+        return getInt(countColumn);
+    }
+
+    /**
+     * Read the current row into LocalMedia
+     * # The caller has already read and filtered id, path, mimeType, duration and size,
+     * the remaining columns are only read for rows that are kept
+     *
+     * @param id
+     * @param url
+     * @param absolutePath
+     * @param mimeType
+     * @param duration
+     * @param size
+     * @param chooseMode
+     * @return
+     */
+    public LocalMedia toLocalMedia(long id, String url, String absolutePath, String mimeType,
+                                   long duration, long size, int chooseMode) {
+        return new LocalMedia(id, url, absolutePath, getDisplayName(), getBucketDisplayName(), duration,
+                chooseMode, mimeType, getWidth(), getHeight(), size, getBucketId());
+    }
+
+    /**
+     * A missing required column is a broken projection，not an empty value
+     *
+     * @param column
+     * @param columnName
+     * @return
+     */
+    private static int requireColumn(int column, String columnName) {
+        if (column == -1) {
+            throw new IllegalArgumentException("column '" + columnName + "' does not exist");
+        }
+        return column;
+    }
+
+    private int getInt(int column) {
+        return column == -1 ? 0 : cursor.getInt(column);
+    }
+
+    private long getLong(int column) {
+        return column == -1 ? 0 : cursor.getLong(column);
+    }
+
+    private String getString(int column) {
+        return column == -1 ? null : cursor.getString(column);
+    }
+}
@@ -0,0 +1,47 @@
+package com.luck.picture.lib.model;
+
+import android.os.SystemClock;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 16:02
+ * @describe：Decides when a streaming query emits its partial result，
+ * the first batch after a screenful of rows，then at most once per interval
+ */
+final class ProgressThrottle {
+    /**
+     * Rows of the first batch
+     */
+    private static final int FIRST_BATCH_SIZE = 120;
+    /**
+     * Minimum time between two batches
+     */
+    private static final long INTERVAL = 300;
+
+    private int rowCount;
+    private int emittedCount;
+    private long lastEmitTime = SystemClock.uptimeMillis();
+
+    /**
+     * Called once per row kept
+     *
+     * @return Whether to emit the result so far
+     */
+    boolean onRow() {
+        rowCount++;
+        if (emittedCount == 0 && rowCount >= FIRST_BATCH_SIZE) {
+            return emit();
+        }
+        // Checking the clock every 32 rows is enough
+        if ((rowCount & 31) == 0 && SystemClock.uptimeMillis() - lastEmitTime >= INTERVAL) {
+            return emit();
+        }
+        return false;
+    }
+
+    private boolean emit() {
+        emittedCount = rowCount;
+        lastEmitTime = SystemClock.uptimeMillis();
+        return true;
+    }
+}
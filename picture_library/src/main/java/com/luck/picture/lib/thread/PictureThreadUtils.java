@@ -8,6 +8,9 @@ import androidx.annotation.CallSuper;
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
 
+import com.yalantis.ucrop.callback.OnCropTaskListener;
+import com.yalantis.ucrop.task.CropExecutor;
+
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -57,6 +60,19 @@ public final class PictureThreadUtils {
         return Looper.myLooper() == Looper.getMainLooper();
     }
 
+    /**
+     * Run the runnable on the main thread.
+     *
+     * @param runnable The runnable.
+     */
+    public static void runOnUiThread(final Runnable runnable) {
+        if (isMainThread()) {
+            runnable.run();
+        } else {
+            getGlobalDeliver().execute(runnable);
+        }
+    }
+
     /**
      * Return a thread pool that reuses a fixed number of threads
      * operating off a shared unbounded queue, using the provided
@@ -891,12 +907,22 @@ public final class PictureThreadUtils {
     }
 
     /**
-     * Set the deliver.
+     * Set the deliver，also used by the crop screens' worker.
      *
      * @param deliver The deliver.
      */
     public static void setDeliver(final Executor deliver) {
         sDeliver = deliver;
+        CropExecutor.getInstance().setDeliver(deliver);
+    }
+
+    /**
+     * Set the listener of the crop screens' load and crop tasks.
+     *
+     * @param listener The listener，null to remove.
+     */
+    public static void setOnCropTaskListener(final OnCropTaskListener listener) {
+        CropExecutor.getInstance().setOnCropTaskListener(listener);
     }
 
     private static <T> void execute(final ExecutorService pool, final Task<T> task) {
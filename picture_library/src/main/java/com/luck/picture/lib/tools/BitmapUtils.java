@@ -4,6 +4,8 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.graphics.Matrix;
 
+import com.yalantis.ucrop.util.BitmapPool;
+
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -25,7 +27,7 @@ public class BitmapUtils {
         Matrix matrix = new Matrix();
 
         matrix.postRotate(angle);
-        return Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        return BitmapPool.getInstance().transform(bitmap, matrix, true);
     }
 
     /**
@@ -42,10 +44,11 @@ public class BitmapUtils {
                 opts.inSampleSize = 2;
                 File file = new File(path);
                 Bitmap bitmap = BitmapFactory.decodeFile(file.getAbsolutePath(), opts);
-                bitmap = rotatingImage(bitmap, degree);
                 if (bitmap != null) {
-                    saveBitmapFile(bitmap, file);
-                    bitmap.recycle();
+                    Bitmap rotateBitmap = rotatingImage(bitmap, degree);
+                    BitmapPool.getInstance().put(bitmap);
+                    saveBitmapFile(rotateBitmap, file);
+                    BitmapPool.getInstance().put(rotateBitmap);
                 }
             } catch (Exception e) {
                 e.printStackTrace();
@@ -11,7 +11,15 @@ import java.util.concurrent.TimeUnit;
  */
 
 public class DateUtils {
-    private static SimpleDateFormat sf = new SimpleDateFormat("yyyyMMdd_HHmmssSS");
+    /**
+     * SimpleDateFormat is not thread-safe，compression names files from several threads at once
+     */
+    private static final ThreadLocal<SimpleDateFormat> sf = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("yyyyMMdd_HHmmssSS");
+        }
+    };
 
     /**
      * 判断两个时间戳相差多少秒
@@ -52,7 +60,7 @@ public class DateUtils {
      */
     public static String getCreateFileName(String prefix) {
         long millis = System.currentTimeMillis();
-        return prefix + sf.format(millis);
+        return prefix + sf.get().format(millis);
     }
 
     /**
@@ -62,7 +70,7 @@ public class DateUtils {
      */
     public static String getCreateFileName() {
         long millis = System.currentTimeMillis();
-        return sf.format(millis);
+        return sf.get().format(millis);
     }
 
     /**
@@ -18,6 +18,7 @@ import androidx.annotation.Nullable;
 import com.luck.picture.lib.config.PictureMimeType;
 import com.luck.picture.lib.entity.LocalMedia;
 import com.luck.picture.lib.listener.OnCallbackListener;
+import com.luck.picture.lib.model.MediaRowMapper;
 import com.luck.picture.lib.thread.PictureThreadUtils;
 
 import java.io.InputStream;
@@ -314,11 +315,13 @@ public class MediaUtils {
             String selection = MediaStore.Images.Media.DATA + " like ?";
             //定义selectionArgs：
             String[] selectionArgs = {absolutePath + "%"};
-            data = context.getApplicationContext().getContentResolver().query(MediaStore.Images.Media.EXTERNAL_CONTENT_URI, null,
+            String[] projection = {MediaStore.Images.Media._ID, MediaStore.Images.Media.DATE_ADDED};
+            data = context.getApplicationContext().getContentResolver().query(MediaStore.Images.Media.EXTERNAL_CONTENT_URI, projection,
                     selection, selectionArgs, orderBy);
             if (data != null && data.getCount() > 0 && data.moveToFirst()) {
-                int id = data.getInt(data.getColumnIndex(MediaStore.Images.Media._ID));
-                long date = data.getLong(data.getColumnIndex(MediaStore.Images.Media.DATE_ADDED));
+                MediaRowMapper mapper = new MediaRowMapper(data);
+                int id = (int) mapper.getId();
+                long date = mapper.getDateAdded();
                 int duration = DateUtils.dateDiffer(date);
                 // DCIM文件下最近时间1s以内的图片，可以判定是最新生成的重复照片
                 return duration <= 1 ? id : -1;
@@ -349,10 +352,11 @@ public class MediaUtils {
             //定义selectionArgs：
             String[] selectionArgs = {absolutePath + "%"};
             String orderBy = MediaStore.Files.FileColumns._ID + " DESC limit 1 offset 0";
-            data = context.getApplicationContext().getContentResolver().query(MediaStore.Files.getContentUri("external"), null,
+            String[] projection = {MediaRowMapper.COLUMN_BUCKET_ID};
+            data = context.getApplicationContext().getContentResolver().query(MediaStore.Files.getContentUri("external"), projection,
                     selection, selectionArgs, orderBy);
             if (data != null && data.getCount() > 0 && data.moveToFirst()) {
-                return data.getLong(data.getColumnIndex("bucket_id"));
+                return new MediaRowMapper(data).getBucketId();
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -110,6 +110,20 @@ public class FolderPopWindow extends PopupWindow {
                 : ViewGroup.LayoutParams.WRAP_CONTENT;
     }
 
+    /**
+     * Merge a newer scan without resetting the list while it is open
+     *
+     * @param folders
+     * @param isRemoveMissing
+     */
+    public void mergeFolder(List<LocalMediaFolder> folders, boolean isRemoveMissing) {
+        adapter.setChooseMode(chooseMode);
+        adapter.mergeFolderData(folders, isRemoveMissing);
+        ViewGroup.LayoutParams lp = mRecyclerView.getLayoutParams();
+        lp.height = adapter.getItemCount() > 8 ? maxHeight
+                : ViewGroup.LayoutParams.WRAP_CONTENT;
+    }
+
     public List<LocalMediaFolder> getFolderData() {
         return adapter.getFolderData();
     }
@@ -50,6 +50,7 @@ import androidx.annotation.AnyThread;
 import androidx.annotation.NonNull;
 
 import com.luck.picture.lib.R;
+import com.yalantis.ucrop.util.BitmapMemoryBudget;
 
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
@@ -1659,13 +1660,21 @@ public class SubsamplingScaleImageView extends View {
                 Tile tile = tileRef.get();
                 if (decoder != null && tile != null && view != null && decoder.isReady() && tile.visible) {
                     view.debug("TileLoadTask.doInBackground, tile.sRect=%s, tile.sampleSize=%d", tile.sRect, tile.sampleSize);
-                    synchronized (view.decoderLock) {
-                        // Update tile's file sRect according to rotation
-                        view.fileSRect(tile.sRect, tile.fileSRect);
-                        if (view.sRegion != null) {
-                            tile.fileSRect.offset(view.sRegion.left, view.sRegion.top);
+                    // Waits outside the decoder lock while other bitmap work holds the budget
+                    BitmapMemoryBudget.Permit permit = BitmapMemoryBudget.getInstance(view.getContext()).acquire(
+                            BitmapMemoryBudget.estimateBytes(tile.sRect.width(), tile.sRect.height(), tile.sampleSize, null),
+                            BitmapMemoryBudget.PRIORITY_LOW);
+                    try {
+                        synchronized (view.decoderLock) {
+                            // Update tile's file sRect according to rotation
+                            view.fileSRect(tile.sRect, tile.fileSRect);
+                            if (view.sRegion != null) {
+                                tile.fileSRect.offset(view.sRegion.left, view.sRegion.top);
+                            }
+                            return decoder.decodeRegion(tile.fileSRect, tile.sampleSize);
                         }
-                        return decoder.decodeRegion(tile.fileSRect, tile.sampleSize);
+                    } finally {
+                        permit.close();
                     }
                 } else if (tile != null) {
                     tile.loading = false;
@@ -0,0 +1,73 @@
+package com.luck.picture.lib.compress;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author：luck
+ * @date：2026-10-18 17:20
+ * @describe：Eviction of the compression cache around a running batch，and what it leaves alone outside of its directory
+ */
+public class CompressCacheTest {
+    private static final int FILE_SIZE = 60;
+
+    @Test
+    public void outputsOfARunningBatchAreNotEvicted() throws IOException {
+        File cacheDir = new File(Files.createTempDirectory("cache").toFile(), CompressCache.DIR_NAME);
+        CompressCache cache = CompressCache.getInstance(cacheDir, 100);
+        File first = createFile(cacheDir, "IMG_CMP_first.jpg", 0);
+        File second = createFile(cacheDir, "IMG_CMP_second.jpg", 0);
+
+        cache.pin("first");
+        cache.put("first", first);
+        cache.pin("second");
+        cache.put("second", second);
+        // Over the budget，but both are still being delivered
+        assertTrue(first.exists());
+        assertTrue(second.exists());
+        assertEquals(2L * FILE_SIZE, cache.getSize());
+        // Nothing written before the batch ends
+        assertFalse(new File(cacheDir, "compress_cache.index").exists());
+
+        cache.endBatch(Arrays.asList("first", "second"));
+        assertFalse(first.exists());
+        assertTrue(second.exists());
+        assertEquals(FILE_SIZE, cache.getSize());
+        assertEquals(1, Files.readAllLines(new File(cacheDir, "compress_cache.index").toPath()).size());
+    }
+
+    @Test
+    public void outputsOutsideOfTheCacheDirAreKept() throws IOException {
+        File targetDir = Files.createTempDirectory("target").toFile();
+        // Handed to a caller by a non-cached run，long ago
+        File delivered = createFile(targetDir, "IMG_CMP_delivered.jpg", System.currentTimeMillis() - 2 * 24 * 60 * 60 * 1000L);
+        CompressCache cache = CompressCache.getInstance(new File(targetDir, CompressCache.DIR_NAME), 100);
+
+        assertEquals(0, cache.getSize());
+        assertTrue(delivered.exists());
+    }
+
+    private static File createFile(File dir, String name, long lastModified) throws IOException {
+        dir.mkdirs();
+        File file = new File(dir, name);
+        FileOutputStream stream = new FileOutputStream(file);
+        try {
+            stream.write(new byte[FILE_SIZE]);
+        } finally {
+            stream.close();
+        }
+        if (lastModified > 0) {
+            file.setLastModified(lastModified);
+        }
+        return file;
+    }
+}
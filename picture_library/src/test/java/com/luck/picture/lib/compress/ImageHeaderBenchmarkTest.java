@@ -0,0 +1,285 @@
+package com.luck.picture.lib.compress;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author：luck
+ * @date：2026-10-18 11:30
+ * @describe：ImageHeader against reading the whole file with toByteArray and parsing the EXIF from the array
+ */
+public class ImageHeaderBenchmarkTest {
+    private static final int WIDTH = 4000;
+    private static final int HEIGHT = 3000;
+    private static final int[] ORIENTATIONS = {1, 3, 6, 8};
+    private static final int[] DEGREES = {0, 180, 90, 270};
+    private static final int ROUNDS = 5;
+
+    private static File[] files;
+
+    @BeforeClass
+    public static void createJpegs() throws IOException {
+        // Noise keeps the entropy coded data large，like a 12MP photo
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        byte[] jpeg = out.toByteArray();
+        files = new File[ORIENTATIONS.length];
+        for (int i = 0; i < ORIENTATIONS.length; i++) {
+            files[i] = File.createTempFile("header", ".jpg");
+            OutputStream os = new FileOutputStream(files[i]);
+            try {
+                // SOI，then the EXIF APP1 where cameras put it，then the JFIF stream
+                os.write(jpeg, 0, 2);
+                os.write(createExifSegment(ORIENTATIONS[i], i % 2 == 0));
+                os.write(jpeg, 2, jpeg.length - 2);
+            } finally {
+                os.close();
+            }
+        }
+    }
+
+    @AfterClass
+    public static void deleteJpegs() {
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void headerMatchesWholeFileParse() throws IOException {
+        for (int i = 0; i < files.length; i++) {
+            CountingInputStream is = new CountingInputStream(new FileInputStream(files[i]));
+            ImageHeader header;
+            try {
+                header = ImageHeader.read(is);
+            } finally {
+                is.close();
+            }
+            assertTrue(header.isJPG());
+            assertEquals(WIDTH, header.width);
+            assertEquals(HEIGHT, header.height);
+            assertEquals(DEGREES[i], header.orientation);
+            assertEquals(DEGREES[i], readWholeFileOrientation(files[i]));
+            // Only the segments before the frame header are read
+            assertTrue("read " + is.count + " of " + files[i].length(), is.count < 64 * 1024);
+        }
+    }
+
+    @Test
+    public void benchmark() throws IOException {
+        long header = Long.MAX_VALUE;
+        long wholeFile = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long startTime = System.nanoTime();
+            for (File file : files) {
+                InputStream is = new FileInputStream(file);
+                try {
+                    ImageHeader.read(is);
+                } finally {
+                    is.close();
+                }
+            }
+            header = Math.min(header, System.nanoTime() - startTime);
+
+            startTime = System.nanoTime();
+            for (File file : files) {
+                readWholeFileOrientation(file);
+            }
+            wholeFile = Math.min(wholeFile, System.nanoTime() - startTime);
+        }
+        System.out.println("ImageHeader " + files.length + " JPEGs of " + files[0].length() / 1024 + "KB, best of "
+                + ROUNDS + ": toByteArray " + wholeFile / 1000 + "us, header " + header / 1000 + "us");
+    }
+
+    private static byte[] createExifSegment(int orientation, boolean littleEndian) {
+        // "Exif\0\0"，TIFF header，IFD0 with a single orientation entry
+        byte[] tiff = new byte[8 + 2 + 12 + 4];
+        if (littleEndian) {
+            tiff[0] = 'I';
+            tiff[1] = 'I';
+        } else {
+            tiff[0] = 'M';
+            tiff[1] = 'M';
+        }
+        putShort(tiff, 2, 42, littleEndian);
+        putInt(tiff, 4, 8, littleEndian);
+        putShort(tiff, 8, 1, littleEndian);
+        putShort(tiff, 10, 0x0112, littleEndian);
+        // SHORT，count 1
+        putShort(tiff, 12, 3, littleEndian);
+        putInt(tiff, 14, 1, littleEndian);
+        putShort(tiff, 18, orientation, littleEndian);
+        byte[] segment = new byte[4 + 6 + tiff.length];
+        segment[0] = (byte) 0xFF;
+        segment[1] = (byte) 0xE1;
+        putShort(segment, 2, segment.length - 2, false);
+        segment[4] = 'E';
+        segment[5] = 'x';
+        segment[6] = 'i';
+        segment[7] = 'f';
+        System.arraycopy(tiff, 0, segment, 10, tiff.length);
+        return segment;
+    }
+
+    private static void putShort(byte[] bytes, int offset, int value, boolean littleEndian) {
+        bytes[offset + (littleEndian ? 0 : 1)] = (byte) value;
+        bytes[offset + (littleEndian ? 1 : 0)] = (byte) (value >> 8);
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value, boolean littleEndian) {
+        for (int i = 0; i < 4; i++) {
+            bytes[offset + (littleEndian ? i : 3 - i)] = (byte) (value >> (i * 8));
+        }
+    }
+
+    /**
+     * Checker before ImageHeader：the whole file into memory，then a walk over the array
+     */
+    private static int readWholeFileOrientation(File file) throws IOException {
+        InputStream is = new FileInputStream(file);
+        byte[] jpeg;
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            int read;
+            byte[] data = new byte[4096];
+            while ((read = is.read(data, 0, data.length)) != -1) {
+                buffer.write(data, 0, read);
+            }
+            jpeg = buffer.toByteArray();
+        } finally {
+            is.close();
+        }
+
+        int offset = 0;
+        int length = 0;
+        while (offset + 3 < jpeg.length && (jpeg[offset++] & 0xFF) == 0xFF) {
+            int marker = jpeg[offset] & 0xFF;
+            if (marker == 0xFF) {
+                continue;
+            }
+            offset++;
+            if (marker == 0xD8 || marker == 0x01) {
+                continue;
+            }
+            if (marker == 0xD9 || marker == 0xDA) {
+                break;
+            }
+            length = pack(jpeg, offset, 2, false);
+            if (length < 2 || offset + length > jpeg.length) {
+                return 0;
+            }
+            if (marker == 0xE1 && length >= 8
+                    && pack(jpeg, offset + 2, 4, false) == 0x45786966
+                    && pack(jpeg, offset + 6, 2, false) == 0) {
+                offset += 8;
+                length -= 8;
+                break;
+            }
+            offset += length;
+            length = 0;
+        }
+        if (length > 8) {
+            int tag = pack(jpeg, offset, 4, false);
+            if (tag != 0x49492A00 && tag != 0x4D4D002A) {
+                return 0;
+            }
+            boolean littleEndian = (tag == 0x49492A00);
+            int count = pack(jpeg, offset + 4, 4, littleEndian) + 2;
+            if (count < 10 || count > length) {
+                return 0;
+            }
+            offset += count;
+            length -= count;
+            count = pack(jpeg, offset - 2, 2, littleEndian);
+            while (count-- > 0 && length >= 12) {
+                tag = pack(jpeg, offset, 2, littleEndian);
+                if (tag == 0x0112) {
+                    switch (pack(jpeg, offset + 8, 2, littleEndian)) {
+                        case 3:
+                            return 180;
+                        case 6:
+                            return 90;
+                        case 8:
+                            return 270;
+                        default:
+                            return 0;
+                    }
+                }
+                offset += 12;
+                length -= 12;
+            }
+        }
+        return 0;
+    }
+
+    private static int pack(byte[] bytes, int offset, int length, boolean littleEndian) {
+        int step = 1;
+        if (littleEndian) {
+            offset += length - 1;
+            step = -1;
+        }
+        int value = 0;
+        while (length-- > 0) {
+            value = (value << 8) | (bytes[offset] & 0xFF);
+            offset += step;
+        }
+        return value;
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.luck.picture.lib.model;
+
+import android.provider.MediaStore;
+
+import com.luck.picture.lib.entity.LocalMedia;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author：luck
+ * @date：2026-10-18 10:20
+ * @describe：MediaRowMapper against resolving every column with getColumnIndexOrThrow on every row
+ */
+public class MediaRowMapperBenchmarkTest {
+    private static final int ROW_COUNT = 100_000;
+    private static final int ROUNDS = 5;
+    private static final int CHOOSE_MODE = 0;
+
+    private static final String[] PROJECTION = {
+            MediaStore.Files.FileColumns._ID,
+            MediaStore.MediaColumns.DATA,
+            MediaStore.MediaColumns.MIME_TYPE,
+            MediaStore.MediaColumns.WIDTH,
+            MediaStore.MediaColumns.HEIGHT,
+            MediaStore.MediaColumns.DURATION,
+            MediaStore.MediaColumns.SIZE,
+            MediaStore.MediaColumns.BUCKET_DISPLAY_NAME,
+            MediaStore.MediaColumns.DISPLAY_NAME,
+            MediaStore.MediaColumns.BUCKET_ID};
+
+    @Test
+    public void mapperMatchesPerRowLookup() {
+        Object[][] rows = createRows(1000);
+        List<LocalMedia> expected = readPerRowLookup(new FakeCursor(PROJECTION, rows));
+        List<LocalMedia> actual = readMapper(new FakeCursor(PROJECTION, rows));
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            LocalMedia e = expected.get(i);
+            LocalMedia a = actual.get(i);
+            assertEquals(e.getId(), a.getId());
+            assertEquals(e.getPath(), a.getPath());
+            assertEquals(e.getRealPath(), a.getRealPath());
+            assertEquals(e.getFileName(), a.getFileName());
+            assertEquals(e.getParentFolderName(), a.getParentFolderName());
+            assertEquals(e.getMimeType(), a.getMimeType());
+            assertEquals(e.getWidth(), a.getWidth());
+            assertEquals(e.getHeight(), a.getHeight());
+            assertEquals(e.getDuration(), a.getDuration());
+            assertEquals(e.getSize(), a.getSize());
+            assertEquals(e.getBucketId(), a.getBucketId());
+        }
+    }
+
+    @Test
+    public void missingRequiredColumnThrows() {
+        String[] projection = {MediaStore.Files.FileColumns._ID, MediaStore.MediaColumns.DATA};
+        FakeCursor cursor = new FakeCursor(projection, new Object[][]{{1L, "/sdcard/DCIM/1.jpg"}});
+        cursor.moveToFirst();
+        MediaRowMapper mapper = new MediaRowMapper(cursor);
+        assertEquals(1L, mapper.getId());
+        assertEquals("/sdcard/DCIM/1.jpg", mapper.getData());
+        // Optional columns read as empty
+        assertEquals(0, mapper.getWidth());
+        assertNull(mapper.getDisplayName());
+        assertEquals(-1, mapper.getBucketId());
+        try {
+            mapper.getMimeType();
+            fail("MIME_TYPE is required");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains(MediaStore.MediaColumns.MIME_TYPE));
+        }
+    }
+
+    @Test
+    public void benchmark() {
+        Object[][] rows = createRows(ROW_COUNT);
+        long perRowLookup = Long.MAX_VALUE;
+        long mapper = Long.MAX_VALUE;
+        // Alternate the two so neither gets all the warm JIT
+        for (int i = 0; i < ROUNDS; i++) {
+            long startTime = System.nanoTime();
+            assertEquals(ROW_COUNT, readPerRowLookup(new FakeCursor(PROJECTION, rows)).size());
+            perRowLookup = Math.min(perRowLookup, System.nanoTime() - startTime);
+
+            startTime = System.nanoTime();
+            assertEquals(ROW_COUNT, readMapper(new FakeCursor(PROJECTION, rows)).size());
+            mapper = Math.min(mapper, System.nanoTime() - startTime);
+        }
+        System.out.println("MediaRowMapper " + ROW_COUNT + " rows, best of " + ROUNDS
+                + ": getColumnIndexOrThrow per row " + perRowLookup / 1000_000 + "ms"
+                + ", mapper " + mapper / 1000_000 + "ms");
+    }
+
+    private static Object[][] createRows(int count) {
+        Object[][] rows = new Object[count][];
+        for (int i = 0; i < count; i++) {
+            long id = count - i;
+            long bucketId = id % 40;
+            rows[i] = new Object[]{
+                    id,
+                    "/storage/emulated/0/DCIM/Bucket" + bucketId + "/IMG_" + id + ".jpg",
+                    i % 10 == 0 ? "video/mp4" : "image/jpeg",
+                    4000L,
+                    3000L,
+                    i % 10 == 0 ? 15_000L : 0L,
+                    2_500_000L + i,
+                    "Bucket" + bucketId,
+                    "IMG_" + id + ".jpg",
+                    bucketId};
+        }
+        return rows;
+    }
+
+    /**
+     * The loaders before MediaRowMapper
+     */
+    private static List<LocalMedia> readPerRowLookup(FakeCursor data) {
+        List<LocalMedia> result = new ArrayList<>(data.getCount());
+        while (data.moveToNext()) {
+            long id = data.getLong(data.getColumnIndexOrThrow(PROJECTION[0]));
+            String absolutePath = data.getString(data.getColumnIndexOrThrow(PROJECTION[1]));
+            String mimeType = data.getString(data.getColumnIndexOrThrow(PROJECTION[2]));
+            int width = data.getInt(data.getColumnIndexOrThrow(PROJECTION[3]));
+            int height = data.getInt(data.getColumnIndexOrThrow(PROJECTION[4]));
+            long duration = data.getLong(data.getColumnIndexOrThrow(PROJECTION[5]));
+            long size = data.getLong(data.getColumnIndexOrThrow(PROJECTION[6]));
+            String folderName = data.getString(data.getColumnIndexOrThrow(PROJECTION[7]));
+            String fileName = data.getString(data.getColumnIndexOrThrow(PROJECTION[8]));
+            long bucketId = data.getLong(data.getColumnIndexOrThrow(PROJECTION[9]));
+            result.add(new LocalMedia(id, absolutePath, absolutePath, fileName, folderName, duration,
+                    CHOOSE_MODE, mimeType, width, height, size, bucketId));
+        }
+        return result;
+    }
+
+    private static List<LocalMedia> readMapper(FakeCursor data) {
+        List<LocalMedia> result = new ArrayList<>(data.getCount());
+        MediaRowMapper mapper = new MediaRowMapper(data);
+        while (data.moveToNext()) {
+            long id = mapper.getId();
+            String absolutePath = mapper.getData();
+            String mimeType = mapper.getMimeType();
+            result.add(mapper.toLocalMedia(id, absolutePath, absolutePath, mimeType,
+                    mapper.getDuration(), mapper.getSize(), CHOOSE_MODE));
+        }
+        return result;
+    }
+}
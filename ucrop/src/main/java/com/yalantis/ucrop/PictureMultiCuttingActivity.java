@@ -1,6 +1,7 @@
 package com.yalantis.ucrop;
 
 import android.content.Intent;
+import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.Environment;
@@ -11,18 +12,30 @@ import android.view.animation.LayoutAnimationController;
 import android.widget.FrameLayout;
 import android.widget.RelativeLayout;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.recyclerview.widget.SimpleItemAnimator;
 
+import com.yalantis.ucrop.callback.BitmapLoadCallback;
 import com.yalantis.ucrop.model.CutInfo;
+import com.yalantis.ucrop.model.ExifInfo;
+import com.yalantis.ucrop.task.BitmapLoadTask;
+import com.yalantis.ucrop.util.BitmapLoadUtils;
+import com.yalantis.ucrop.util.BitmapMemoryBudget;
 import com.yalantis.ucrop.util.FileUtils;
 import com.yalantis.ucrop.util.MimeType;
+import com.yalantis.ucrop.util.PreviewCache;
 import com.yalantis.ucrop.util.ScreenUtils;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @author：luck
@@ -40,6 +53,18 @@ public class PictureMultiCuttingActivity extends UCropActivity {
     private String renameCropFilename;
     private boolean isCamera;
     private boolean isAnimation;
+    /**
+     * 当前、上一张和下一张的预览图及每张图片的裁剪状态
+     */
+    private PreviewCache mPreviewCache;
+    /**
+     * 正在预解码的相邻图片
+     */
+    private final Map<String, BitmapLoadTask> mPredecodeTasks = new HashMap<>();
+    /**
+     * 当前图片的缓存key
+     */
+    private String mCurrentCacheKey;
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
@@ -63,7 +88,107 @@ public class PictureMultiCuttingActivity extends UCropActivity {
         if (list.size() > MIN_NUM) {
             initLoadCutData();
             addPhotoRecyclerView();
+            //第一张图片已经在解码,解码完成后放入缓存
+            mPreviewCache = new PreviewCache();
+            mGestureCropImageView.setPreviewCache(mPreviewCache);
+            Uri inputUri = intent.getParcelableExtra(UCrop.EXTRA_INPUT_URI);
+            mCurrentCacheKey = inputUri != null ? inputUri.toString() : null;
+            predecodeAdjacent();
+        }
+    }
+
+    @Override
+    protected void setImageData(@NonNull Intent intent) {
+        if (mPreviewCache != null) {
+            Uri inputUri = intent.getParcelableExtra(UCrop.EXTRA_INPUT_URI);
+            mCurrentCacheKey = inputUri != null ? inputUri.toString() : null;
+            mGestureCropImageView.setPreviewCache(mPreviewCache);
+            if (mCurrentCacheKey != null) {
+                mGestureCropImageView.setSavedImageState(mPreviewCache.getImageState(mCurrentCacheKey));
+            }
+        }
+        super.setImageData(intent);
+        if (mPreviewCache != null) {
+            predecodeAdjacent();
+        }
+    }
+
+    /**
+     * 预解码当前图片的上一张和下一张,其它还没开始的预解码取消
+     */
+    private void predecodeAdjacent() {
+        List<String> keys = new ArrayList<>();
+        int[] indexes = {getAdjacentImageIndex(cutIndex, 1), getAdjacentImageIndex(cutIndex, -1)};
+        for (int index : indexes) {
+            if (index != -1) {
+                keys.add(getInputUri(list.get(index)).toString());
+            }
+        }
+        Iterator<Map.Entry<String, BitmapLoadTask>> iterator = mPredecodeTasks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, BitmapLoadTask> entry = iterator.next();
+            if (!keys.contains(entry.getKey())) {
+                entry.getValue().cancel();
+                iterator.remove();
+            }
+        }
+        int maxBitmapSize = mGestureCropImageView.getMaxBitmapSize();
+        for (final String key : keys) {
+            if (mPreviewCache.contains(key) || mPredecodeTasks.containsKey(key)) {
+                continue;
+            }
+            //低优先级,在预加载线程解码,裁剪不用排在预解码后面
+            BitmapLoadTask task = BitmapLoadUtils.decodeBitmapInBackground(this, Uri.parse(key), null,
+                    maxBitmapSize, maxBitmapSize, BitmapMemoryBudget.PRIORITY_LOW, new BitmapLoadCallback() {
+                        @Override
+                        public void onBitmapLoaded(@NonNull Bitmap bitmap, @NonNull ExifInfo exifInfo,
+                                                   @NonNull String imageInputPath, @Nullable String imageOutputPath) {
+                            mPredecodeTasks.remove(key);
+                            mPreviewCache.put(key, bitmap, exifInfo, imageInputPath);
+                        }
+
+                        @Override
+                        public void onFailure(@NonNull Exception bitmapWorkerException) {
+                            //切换到这张图片时再正常解码并提示错误
+                            mPredecodeTasks.remove(key);
+                        }
+                    });
+            mPredecodeTasks.put(key, task);
+        }
+    }
+
+    /**
+     * 向前或向后找到相邻的可预解码图片,跳过视频和网络图片
+     *
+     * @param index
+     * @param step  1 下一张,-1 上一张
+     * @return -1 没有
+     */
+    private int getAdjacentImageIndex(int index, int step) {
+        for (int i = index + step; i >= 0 && i < list.size(); i += step) {
+            CutInfo cutInfo = list.get(i);
+            if (!MimeType.isHasVideo(cutInfo.getMimeType())) {
+                //网络图片需要先下载到输出路径,不预解码
+                return MimeType.isHttp(cutInfo.getPath()) ? -1 : i;
+            }
         }
+        return -1;
+    }
+
+    /**
+     * 保存当前图片的裁剪状态,再次切换回来时恢复
+     */
+    private void saveImageState() {
+        if (mPreviewCache != null && mCurrentCacheKey != null) {
+            mPreviewCache.putImageState(mCurrentCacheKey, mGestureCropImageView.getImageState());
+        }
+    }
+
+    private void cancelPredecode() {
+        for (BitmapLoadTask task : mPredecodeTasks.values()) {
+            task.cancel();
+        }
+        mPredecodeTasks.clear();
     }
 
     /**
@@ -108,6 +233,7 @@ public class PictureMultiCuttingActivity extends UCropActivity {
                     if (cutIndex == position) {
                         return;
                     }
+                    saveImageState();
                     resetLastCropStatus();
                     cutIndex = position;
                     oldCutIndex = cutIndex;
@@ -147,16 +273,9 @@ public class PictureMultiCuttingActivity extends UCropActivity {
         }
         CutInfo cutInfo = list.get(cutIndex);
         String path = cutInfo.getPath();
-        boolean isHttp = MimeType.isHttp(path);
         String suffix = MimeType.getLastImgType(MimeType.isContent(path)
                 ? FileUtils.getPath(this, Uri.parse(path)) : path);
-        Uri uri;
-        if (!TextUtils.isEmpty(cutInfo.getAndroidQToPath())) {
-            uri = Uri.fromFile(new File(cutInfo.getAndroidQToPath()));
-        } else {
-            uri = isHttp || MimeType.isContent(path) ? Uri.parse(path) : Uri.fromFile(new File(path));
-        }
-        extras.putParcelable(UCrop.EXTRA_INPUT_URI, uri);
+        extras.putParcelable(UCrop.EXTRA_INPUT_URI, getInputUri(cutInfo));
         File file = Environment.getExternalStorageState().equals(Environment.MEDIA_MOUNTED) ?
                 getExternalFilesDir(Environment.DIRECTORY_PICTURES) : getCacheDir();
         extras.putParcelable(UCrop.EXTRA_OUTPUT_URI,
@@ -175,6 +294,20 @@ public class PictureMultiCuttingActivity extends UCropActivity {
         }
     }
 
+    /**
+     * 裁剪的输入uri,也作为预览图缓存的key
+     *
+     * @param cutInfo
+     * @return
+     */
+    private Uri getInputUri(CutInfo cutInfo) {
+        String path = cutInfo.getPath();
+        if (!TextUtils.isEmpty(cutInfo.getAndroidQToPath())) {
+            return Uri.fromFile(new File(cutInfo.getAndroidQToPath()));
+        }
+        return MimeType.isHttp(path) || MimeType.isContent(path) ? Uri.parse(path) : Uri.fromFile(new File(path));
+    }
+
     /**
      * 切换裁剪图片
      */
@@ -294,6 +427,7 @@ public class PictureMultiCuttingActivity extends UCropActivity {
                 onBackPressed();
                 return;
             }
+            saveImageState();
             CutInfo info = list.get(cutIndex);
             info.setCutPath(uri.getPath());
             info.setCut(true);
@@ -337,11 +471,23 @@ public class PictureMultiCuttingActivity extends UCropActivity {
         }
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (mPreviewCache != null) {
+            mPreviewCache.trimMemory(level);
+        }
+    }
+
     @Override
     protected void onDestroy() {
         if (mAdapter != null) {
             mAdapter.setOnItemClickListener(null);
         }
+        cancelPredecode();
+        if (mPreviewCache != null) {
+            mPreviewCache.clear();
+        }
         super.onDestroy();
     }
 }
@@ -32,7 +32,9 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.yalantis.ucrop.callback.BitmapLoadCallback;
 import com.yalantis.ucrop.model.CutInfo;
 import com.yalantis.ucrop.model.ExifInfo;
+import com.yalantis.ucrop.task.BitmapLoadTask;
 import com.yalantis.ucrop.util.BitmapLoadUtils;
+import com.yalantis.ucrop.util.BitmapMemoryBudget;
 import com.yalantis.ucrop.util.MimeType;
 import com.yalantis.ucrop.util.SdkUtils;
 
@@ -84,6 +86,8 @@ public class PicturePhotoGalleryAdapter extends RecyclerView.Adapter<PicturePhot
         } else {
             holder.iv_dot.setVisibility(View.INVISIBLE);
         }
+        //复用的item不再需要之前的缩略图
+        holder.cancelLoad();
         boolean isHasVideo = MimeType.isHasVideo(photoInfo.getMimeType());
         if (isHasVideo) {
             holder.mIvPhoto.setVisibility(View.GONE);
@@ -94,13 +98,15 @@ public class PicturePhotoGalleryAdapter extends RecyclerView.Adapter<PicturePhot
             holder.mIvVideo.setVisibility(View.GONE);
             Uri uri = SdkUtils.isQ() || MimeType.isHttp(path) ? Uri.parse(path) : Uri.fromFile(new File(path));
             holder.tvGif.setVisibility(MimeType.isGif(photoInfo.getMimeType()) ? View.VISIBLE : View.GONE);
-            BitmapLoadUtils.decodeBitmapInBackground(context, uri, photoInfo.getHttpOutUri(), maxImageWidth,
-                    maxImageHeight, new BitmapLoadCallback() {
+            //缩略图在预加载线程解码,不排在当前图片和裁剪前面
+            holder.mLoadTask = BitmapLoadUtils.decodeBitmapInBackground(context, uri, photoInfo.getHttpOutUri(), maxImageWidth,
+                    maxImageHeight, BitmapMemoryBudget.PRIORITY_LOW, new BitmapLoadCallback() {
                         @Override
                         public void onBitmapLoaded(@NonNull Bitmap bitmap,
                                                    @NonNull ExifInfo exifInfo,
                                                    @NonNull String imageInputPath,
                                                    @Nullable String imageOutputPath) {
+                            holder.mLoadTask = null;
                             if (holder.mIvPhoto != null && bitmap != null) {
                                 holder.mIvPhoto.setImageBitmap(bitmap);
                             }
@@ -108,6 +114,7 @@ public class PicturePhotoGalleryAdapter extends RecyclerView.Adapter<PicturePhot
 
                         @Override
                         public void onFailure(@NonNull Exception bitmapWorkerException) {
+                            holder.mLoadTask = null;
                             if (holder.mIvPhoto != null) {
                                 holder.mIvPhoto.setImageResource(R.color.ucrop_color_ba3);
                             }
@@ -126,6 +133,12 @@ public class PicturePhotoGalleryAdapter extends RecyclerView.Adapter<PicturePhot
     }
 
 
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        super.onViewRecycled(holder);
+        holder.cancelLoad();
+    }
+
     @Override
     public int getItemCount() {
         return list != null ? list.size() : 0;
@@ -137,6 +150,7 @@ public class PicturePhotoGalleryAdapter extends RecyclerView.Adapter<PicturePhot
         ImageView iv_dot;
         ImageView mIvVideo;
         TextView tvGif;
+        BitmapLoadTask mLoadTask;
 
         public ViewHolder(View view) {
             super(view);
@@ -145,6 +159,13 @@ public class PicturePhotoGalleryAdapter extends RecyclerView.Adapter<PicturePhot
             iv_dot = view.findViewById(R.id.iv_dot);
             tvGif = view.findViewById(R.id.tv_gif);
         }
+
+        void cancelLoad() {
+            if (mLoadTask != null) {
+                mLoadTask.cancel();
+                mLoadTask = null;
+            }
+        }
     }
 
     private OnItemClickListener listener;
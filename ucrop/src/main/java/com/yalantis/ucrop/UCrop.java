@@ -20,6 +20,7 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.yalantis.ucrop.model.AspectRatio;
 import com.yalantis.ucrop.model.CutInfo;
+import com.yalantis.ucrop.task.BatchCropTask;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -72,6 +73,16 @@ public class UCrop {
         return new UCrop(source, destination);
     }
 
+    /**
+     * Crop many images without the crop screen，add a {@link com.yalantis.ucrop.model.CropSpec} per image
+     * 无界面批量裁剪
+     *
+     * @param context
+     */
+    public static BatchCropTask.Builder batch(@NonNull Context context) {
+        return new BatchCropTask.Builder(context);
+    }
+
     private UCrop(@NonNull Uri source, @NonNull Uri destination) {
         mCropIntent = new Intent();
         mCropOptionsBundle = new Bundle();
@@ -386,6 +397,7 @@ public class UCrop {
         public static final String EXTRA_DIMMED_LAYER_BORDER_COLOR = EXTRA_PREFIX + ".DimmedLayerBorderColor";
         public static final String EXTRA_CIRCLE_STROKE_WIDTH_LAYER = EXTRA_PREFIX + ".CircleStrokeWidth";
         public static final String EXTRA_DRAG_CROP_FRAME = EXTRA_PREFIX + ".DragCropFrame";
+        public static final String EXTRA_FULL_RESOLUTION_CROP = EXTRA_PREFIX + ".FullResolutionCrop";
         public static final String EXTRA_SCALE = EXTRA_PREFIX + ".scale";
         public static final String EXTRA_ROTATE = EXTRA_PREFIX + ".rotate";
         public static final String EXTRA_NAV_BAR_COLOR = EXTRA_PREFIX + ".navBarColor";
@@ -584,6 +596,15 @@ public class UCrop {
             mOptionBundle.putBoolean(EXTRA_DRAG_CROP_FRAME, isDragFrame);
         }
 
+        /**
+         * 从原图解码裁剪区域,输出原图分辨率而不是预览图分辨率,仍受{@link UCrop#withMaxResultSize}限制
+         *
+         * @param isFullResolution - crop from the original image instead of the downsampled preview
+         */
+        public void setFullResolutionCrop(boolean isFullResolution) {
+            mOptionBundle.putBoolean(EXTRA_FULL_RESOLUTION_CROP, isFullResolution);
+        }
+
 
         /**
          * @param count - crop grid rows count.
@@ -44,6 +44,7 @@ import androidx.transition.TransitionManager;
 import com.yalantis.ucrop.callback.BitmapCropCallback;
 import com.yalantis.ucrop.immersion.CropImmersiveManage;
 import com.yalantis.ucrop.model.AspectRatio;
+import com.yalantis.ucrop.util.BitmapPool;
 import com.yalantis.ucrop.util.FileUtils;
 import com.yalantis.ucrop.util.MimeType;
 import com.yalantis.ucrop.util.ScreenUtils;
@@ -132,7 +133,7 @@ public class UCropActivity extends AppCompatActivity {
 
     protected RelativeLayout uCropPhotoBox;
     private UCropView mUCropView;
-    private GestureCropImageView mGestureCropImageView;
+    protected GestureCropImageView mGestureCropImageView;
     private OverlayView mOverlayView;
     private ViewGroup mWrapperStateAspectRatio, mWrapperStateRotate, mWrapperStateScale;
     private ViewGroup mLayoutAspectRatio, mLayoutRotate, mLayoutScale;
@@ -248,9 +249,27 @@ public class UCropActivity extends AppCompatActivity {
         super.onStop();
         if (mGestureCropImageView != null) {
             mGestureCropImageView.cancelAllAnimations();
+            //退出页面时不再等待解码和裁剪结果
+            if (isFinishing()) {
+                mGestureCropImageView.cancelTasks();
+            }
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        if (mGestureCropImageView != null) {
+            mGestureCropImageView.cancelTasks();
+        }
+        super.onDestroy();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        BitmapPool.getInstance().trimMemory(level);
+    }
+
     /**
      * 设置图片组件和裁剪框组件属性
      * This method extracts all data from the incoming intent and setups views properly.
@@ -396,6 +415,7 @@ public class UCropActivity extends AppCompatActivity {
             mGestureCropImageView.setMaxResultImageSizeX(maxSizeX);
             mGestureCropImageView.setMaxResultImageSizeY(maxSizeY);
         }
+        mGestureCropImageView.setFullResolutionCrop(intent.getBooleanExtra(UCrop.Options.EXTRA_FULL_RESOLUTION_CROP, false));
     }
 
     static {
@@ -0,0 +1,29 @@
+package com.yalantis.ucrop.callback;
+
+import androidx.annotation.NonNull;
+
+import com.yalantis.ucrop.model.CropResult;
+
+import java.util.List;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 23:40
+ * @describe：Receives the results of a headless batch crop on the main thread
+ */
+public interface BatchCropCallback {
+
+    /**
+     * An image is cropped or failed，in the order they finish
+     *
+     * @param result
+     */
+    void onItemCropped(@NonNull CropResult result);
+
+    /**
+     * Every image is done，the results are in the order of the specs
+     *
+     * @param results
+     */
+    void onBatchFinished(@NonNull List<CropResult> results);
+}
@@ -0,0 +1,21 @@
+package com.yalantis.ucrop.callback;
+
+import androidx.annotation.NonNull;
+
+/**
+ * @author：luck
+ * @date：2026-10-18 00:10
+ * @describe：Timing of each load and crop run on the {@link com.yalantis.ucrop.task.CropExecutor}
+ */
+public interface OnCropTaskListener {
+
+    /**
+     * A task ran or was cancelled，on the worker thread，or on the cancelling thread for a task that never ran
+     *
+     * @param task        simple class name of the task
+     * @param queueMillis time waiting for the worker
+     * @param runMillis   time running，0 for a task cancelled before it ran
+     * @param isCancelled
+     */
+    void onTaskFinished(@NonNull String task, long queueMillis, long runMillis, boolean isCancelled);
+}
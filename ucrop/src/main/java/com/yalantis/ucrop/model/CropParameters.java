@@ -27,6 +27,10 @@ public class CropParameters {
      * 图片元数据
      */
     private ExifInfo mExifInfo;
+    /**
+     * 是否从原图解码裁剪区域
+     */
+    private boolean mIsFullResolution;
 
 
     public CropParameters(int maxResultImageSizeX, int maxResultImageSizeY,
@@ -69,4 +73,12 @@ public class CropParameters {
         return mExifInfo;
     }
 
+    public boolean isFullResolution() {
+        return mIsFullResolution;
+    }
+
+    public void setFullResolution(boolean isFullResolution) {
+        mIsFullResolution = isFullResolution;
+    }
+
 }
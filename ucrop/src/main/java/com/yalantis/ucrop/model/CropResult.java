@@ -0,0 +1,98 @@
+package com.yalantis.ucrop.model;
+
+import android.net.Uri;
+
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 23:40
+ * @describe：The outcome of one {@link CropSpec} of a headless batch crop
+ */
+public class CropResult {
+    private final int index;
+    private final CropSpec spec;
+    private Uri output;
+    private int offsetX;
+    private int offsetY;
+    private int imageWidth;
+    private int imageHeight;
+    private Throwable error;
+
+    public CropResult(int index, CropSpec spec) {
+        this.index = index;
+        this.spec = spec;
+    }
+
+    public void setOutput(Uri output, int offsetX, int offsetY, int imageWidth, int imageHeight) {
+        this.output = output;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+    }
+
+    public void setError(Throwable error) {
+        this.error = error;
+    }
+
+    /**
+     * Position of the spec in the batch
+     *
+     * @return
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public CropSpec getSpec() {
+        return spec;
+    }
+
+    @Nullable
+    public Uri getOutput() {
+        return output;
+    }
+
+    public int getOffsetX() {
+        return offsetX;
+    }
+
+    public int getOffsetY() {
+        return offsetY;
+    }
+
+    public int getImageWidth() {
+        return imageWidth;
+    }
+
+    public int getImageHeight() {
+        return imageHeight;
+    }
+
+    @Nullable
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null && output != null;
+    }
+
+    /**
+     * The batch was cancelled before the image was cropped
+     *
+     * @return
+     */
+    public boolean isCancelled() {
+        return error instanceof CancellationException;
+    }
+
+    @Override
+    public String toString() {
+        return "CropResult{index=" + index + ", output=" + output + ", size=" + imageWidth + "x" + imageHeight
+                + ", error=" + error + "}";
+    }
+}
@@ -0,0 +1,115 @@
+package com.yalantis.ucrop.model;
+
+import android.net.Uri;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yalantis.ucrop.UCrop;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 23:40
+ * @describe：One image of a headless batch crop，without a preset {@link ImageState} the largest crop of the
+ * aspect ratio is taken from the center of the rotated image
+ */
+public class CropSpec {
+    private final Uri source;
+    private final Uri destination;
+    private float aspectRatioX;
+    private float aspectRatioY;
+    private int maxResultWidth;
+    private int maxResultHeight;
+    private float rotation;
+    private ImageState imageState;
+
+    public static CropSpec of(@NonNull Uri source, @NonNull Uri destination) {
+        return new CropSpec(source, destination);
+    }
+
+    private CropSpec(@NonNull Uri source, @NonNull Uri destination) {
+        this.source = source;
+        this.destination = destination;
+    }
+
+    /**
+     * Aspect ratio of the crop，0 to keep the one of the source image
+     *
+     * @param x
+     * @param y
+     * @return
+     */
+    public CropSpec withAspectRatio(float x, float y) {
+        this.aspectRatioX = x;
+        this.aspectRatioY = y;
+        return this;
+    }
+
+    /**
+     * @param width
+     * @param height
+     * @return
+     */
+    public CropSpec withMaxResultSize(@IntRange(from = UCrop.MIN_SIZE) int width, @IntRange(from = UCrop.MIN_SIZE) int height) {
+        this.maxResultWidth = Math.max(UCrop.MIN_SIZE, width);
+        this.maxResultHeight = Math.max(UCrop.MIN_SIZE, height);
+        return this;
+    }
+
+    /**
+     * Rotate the image clockwise around its center before cropping
+     *
+     * @param degrees
+     * @return
+     */
+    public CropSpec withRotation(float degrees) {
+        this.rotation = degrees;
+        return this;
+    }
+
+    /**
+     * Crop exactly like a {@link com.yalantis.ucrop.view.CropImageView} did，
+     * the aspect ratio and the rotation are ignored then
+     *
+     * @param imageState the state the view passed to its crop
+     * @return
+     */
+    public CropSpec withImageState(@Nullable ImageState imageState) {
+        this.imageState = imageState;
+        return this;
+    }
+
+    public Uri getSource() {
+        return source;
+    }
+
+    public Uri getDestination() {
+        return destination;
+    }
+
+    public float getAspectRatioX() {
+        return aspectRatioX;
+    }
+
+    public float getAspectRatioY() {
+        return aspectRatioY;
+    }
+
+    public int getMaxResultWidth() {
+        return maxResultWidth;
+    }
+
+    public int getMaxResultHeight() {
+        return maxResultHeight;
+    }
+
+    public float getRotation() {
+        return rotation;
+    }
+
+    @Nullable
+    public ImageState getImageState() {
+        return imageState;
+    }
+}
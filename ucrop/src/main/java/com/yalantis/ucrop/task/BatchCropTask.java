@@ -0,0 +1,341 @@
+package com.yalantis.ucrop.task;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+import android.graphics.RectF;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yalantis.ucrop.UCropActivity;
+import com.yalantis.ucrop.callback.BatchCropCallback;
+import com.yalantis.ucrop.callback.BitmapCropCallback;
+import com.yalantis.ucrop.model.CropParameters;
+import com.yalantis.ucrop.model.CropResult;
+import com.yalantis.ucrop.model.CropSpec;
+import com.yalantis.ucrop.model.ImageState;
+import com.yalantis.ucrop.util.BitmapLoadUtils;
+import com.yalantis.ucrop.util.BitmapPool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 23:40
+ * @describe：Headless batch crop，each image is loaded and cropped on a worker thread without an Activity or a view.
+ * The loads and crops acquire {@link com.yalantis.ucrop.util.BitmapMemoryBudget} like the crop screen does，
+ * so the workers wait for memory instead of running out of it
+ */
+public class BatchCropTask {
+    private static final String TAG = "BatchCropTask";
+    private static final int MAX_PARALLELISM = 4;
+
+    private final Context mContext;
+    private final List<CropSpec> mSpecs;
+    private final Bitmap.CompressFormat mCompressFormat;
+    private final int mCompressQuality;
+    private final boolean mIsFullResolution;
+    private final int mParallelism;
+    private final int mMaxBitmapSize;
+    private final AtomicReferenceArray<CropResult> mResults;
+    private final AtomicInteger mRemaining;
+    private final CountDownLatch mFinished = new CountDownLatch(1);
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private BatchCropCallback mCallback;
+    private volatile boolean mIsCancelled;
+    private boolean mIsStarted;
+
+    private BatchCropTask(Builder builder) {
+        mContext = builder.context;
+        mSpecs = new ArrayList<>(builder.specs);
+        mCompressFormat = builder.compressFormat;
+        mCompressQuality = builder.compressQuality;
+        mIsFullResolution = builder.isFullResolution;
+        mParallelism = builder.parallelism;
+        mMaxBitmapSize = builder.maxBitmapSize;
+        mResults = new AtomicReferenceArray<>(mSpecs.size());
+        mRemaining = new AtomicInteger(mSpecs.size());
+    }
+
+    /**
+     * Crop every image on the workers，the results are posted to the main thread
+     *
+     * @param callback
+     * @return
+     */
+    public synchronized BatchCropTask start(@Nullable BatchCropCallback callback) {
+        if (mIsStarted) {
+            throw new IllegalStateException("Batch crop is already started");
+        }
+        mIsStarted = true;
+        mCallback = callback;
+        if (mSpecs.isEmpty()) {
+            finish();
+            return this;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(mParallelism, mSpecs.size()));
+        for (int i = 0; i < mSpecs.size(); i++) {
+            final int index = i;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    cropItem(index);
+                }
+            });
+        }
+        executor.shutdown();
+        return this;
+    }
+
+    /**
+     * Start the batch if needed and wait until every image is done，not on the main thread
+     *
+     * @return the results in the order of the specs
+     * @throws InterruptedException
+     */
+    public List<CropResult> get() throws InterruptedException {
+        synchronized (this) {
+            if (!mIsStarted) {
+                start(null);
+            }
+        }
+        mFinished.await();
+        return getResults();
+    }
+
+    /**
+     * Images not started yet are skipped with a {@link CancellationException}，the running ones finish，
+     * nothing more is posted to the callback
+     */
+    public void cancel() {
+        mIsCancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return mIsCancelled;
+    }
+
+    public boolean isFinished() {
+        return mFinished.getCount() == 0;
+    }
+
+    /**
+     * @return the results so far in the order of the specs，null for the images not done yet
+     */
+    public List<CropResult> getResults() {
+        List<CropResult> results = new ArrayList<>(mResults.length());
+        for (int i = 0; i < mResults.length(); i++) {
+            results.add(mResults.get(i));
+        }
+        return Collections.unmodifiableList(results);
+    }
+
+    private void cropItem(int index) {
+        CropSpec spec = mSpecs.get(index);
+        CropResult result = new CropResult(index, spec);
+        if (mIsCancelled) {
+            result.setError(new CancellationException("Batch crop is cancelled"));
+        } else {
+            try {
+                crop(spec, result);
+            } catch (Throwable throwable) {
+                Log.e(TAG, "Crop failed: " + spec.getSource(), throwable);
+                result.setError(throwable);
+            }
+        }
+        mResults.set(index, result);
+        final BatchCropCallback callback = mCallback;
+        if (callback != null && !mIsCancelled) {
+            final CropResult itemResult = result;
+            mHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (!mIsCancelled) {
+                        callback.onItemCropped(itemResult);
+                    }
+                }
+            });
+        }
+        if (mRemaining.decrementAndGet() == 0) {
+            finish();
+        }
+    }
+
+    private void finish() {
+        mFinished.countDown();
+        final BatchCropCallback callback = mCallback;
+        if (callback != null && !mIsCancelled) {
+            final List<CropResult> results = getResults();
+            mHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (!mIsCancelled) {
+                        callback.onBatchFinished(results);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 加载预览图、计算裁剪框,再用和裁剪页相同的BitmapCropTask裁剪保存
+     */
+    private void crop(CropSpec spec, final CropResult result) throws Exception {
+        Uri destination = spec.getDestination();
+        BitmapLoadTask loadTask = new BitmapLoadTask(mContext, spec.getSource(), destination,
+                mMaxBitmapSize, mMaxBitmapSize, null);
+        BitmapLoadTask.BitmapWorkerResult loadResult = loadTask.loadBitmap();
+        if (loadResult.mBitmapWorkerException != null) {
+            throw loadResult.mBitmapWorkerException;
+        }
+        Bitmap bitmap = loadResult.mBitmapResult;
+        try {
+            ImageState imageState = getImageState(spec, bitmap.getWidth(), bitmap.getHeight());
+            CropParameters cropParameters = new CropParameters(spec.getMaxResultWidth(), spec.getMaxResultHeight(),
+                    mCompressFormat, mCompressQuality, loadTask.getInputPath(), destination.getPath(), loadResult.mExifInfo);
+            cropParameters.setFullResolution(mIsFullResolution);
+            BitmapCropTask cropTask = new BitmapCropTask(mContext, bitmap, imageState, cropParameters,
+                    new BitmapCropCallback() {
+                        @Override
+                        public void onBitmapCropped(@NonNull Uri resultUri, int offsetX, int offsetY, int imageWidth, int imageHeight) {
+                            result.setOutput(resultUri, offsetX, offsetY, imageWidth, imageHeight);
+                        }
+
+                        @Override
+                        public void onCropFailure(@NonNull Throwable t) {
+                            result.setError(t);
+                        }
+                    });
+            cropTask.dispatchResult(cropTask.cropBitmap());
+        } finally {
+            //原图分辨率裁剪,或预览图不需要缩放和旋转时,预览图不会被回收
+            if (!bitmap.isRecycled()) {
+                BitmapPool.getInstance().put(bitmap);
+            }
+        }
+    }
+
+    /**
+     * 没有控件时的裁剪状态：预览图按角度旋转后放在原点,缩放为1;
+     * 预设的状态来自控件,图片矩形换算到这张预览图的大小
+     */
+    private static ImageState getImageState(CropSpec spec, int width, int height) {
+        ImageState preset = spec.getImageState();
+        float angle = preset != null ? preset.getCurrentAngle() : spec.getRotation();
+        Matrix rotateMatrix = new Matrix();
+        rotateMatrix.setRotate(angle, width / 2F, height / 2F);
+        RectF imageRect = new RectF(0, 0, width, height);
+        rotateMatrix.mapRect(imageRect);
+        if (preset != null) {
+            //裁剪只用到裁剪框相对图片的位置除以缩放,所以只需换算缩放
+            float scale = preset.getCurrentImageRect().width() / imageRect.width();
+            return new ImageState(new RectF(preset.getCropRect()), new RectF(preset.getCurrentImageRect()), scale, angle);
+        }
+        imageRect.offsetTo(0, 0);
+
+        float ratio = spec.getAspectRatioX() > 0 && spec.getAspectRatioY() > 0
+                ? spec.getAspectRatioX() / spec.getAspectRatioY() : (float) width / height;
+        //居中且完全落在旋转后图片内的最大裁剪框,半宽a、半高a/ratio投影到图片的两条边上都不能超过图片的半宽高
+        double radians = Math.toRadians(angle);
+        float cos = (float) Math.abs(Math.cos(radians));
+        float sin = (float) Math.abs(Math.sin(radians));
+        float halfWidth = Math.min(width / 2F / (cos + sin / ratio), height / 2F / (sin + cos / ratio));
+        float halfHeight = halfWidth / ratio;
+        RectF cropRect = new RectF(imageRect.centerX() - halfWidth, imageRect.centerY() - halfHeight,
+                imageRect.centerX() + halfWidth, imageRect.centerY() + halfHeight);
+        return new ImageState(cropRect, imageRect, 1, angle);
+    }
+
+    public static class Builder {
+        private final Context context;
+        private final List<CropSpec> specs = new ArrayList<>();
+        private Bitmap.CompressFormat compressFormat = UCropActivity.DEFAULT_COMPRESS_FORMAT;
+        private int compressQuality = UCropActivity.DEFAULT_COMPRESS_QUALITY;
+        private boolean isFullResolution = true;
+        private int parallelism = Math.min(MAX_PARALLELISM, Runtime.getRuntime().availableProcessors());
+        private int maxBitmapSize;
+
+        public Builder(@NonNull Context context) {
+            this.context = context.getApplicationContext();
+        }
+
+        public Builder add(@NonNull CropSpec spec) {
+            specs.add(spec);
+            return this;
+        }
+
+        public Builder addAll(@NonNull List<CropSpec> specs) {
+            this.specs.addAll(specs);
+            return this;
+        }
+
+        public Builder setCompressionFormat(@NonNull Bitmap.CompressFormat format) {
+            this.compressFormat = format;
+            return this;
+        }
+
+        public Builder setCompressionQuality(@IntRange(from = 0, to = 100) int quality) {
+            this.compressQuality = quality;
+            return this;
+        }
+
+        /**
+         * Decode the crop region from the original image，on by default.
+         * Off crops the preview bounded by {@link #setMaxBitmapSize(int)} like the crop screen used to
+         *
+         * @param isFullResolution
+         * @return
+         */
+        public Builder setFullResolutionCrop(boolean isFullResolution) {
+            this.isFullResolution = isFullResolution;
+            return this;
+        }
+
+        /**
+         * Images cropped at the same time，the memory budget may still hold some of them back
+         *
+         * @param parallelism
+         * @return
+         */
+        public Builder setParallelism(@IntRange(from = 1) int parallelism) {
+            this.parallelism = Math.max(1, parallelism);
+            return this;
+        }
+
+        /**
+         * Max size of the preview the crop rect is laid on，the screen diagonal by default
+         *
+         * @param maxBitmapSize
+         * @return
+         */
+        public Builder setMaxBitmapSize(@IntRange(from = 100) int maxBitmapSize) {
+            this.maxBitmapSize = maxBitmapSize;
+            return this;
+        }
+
+        public BatchCropTask build() {
+            if (maxBitmapSize <= 0) {
+                maxBitmapSize = BitmapLoadUtils.calculateMaxBitmapSize(context);
+            }
+            return new BatchCropTask(this);
+        }
+
+        public BatchCropTask start(@Nullable BatchCropCallback callback) {
+            return build().start(callback);
+        }
+    }
+}
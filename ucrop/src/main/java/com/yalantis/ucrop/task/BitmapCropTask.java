@@ -2,10 +2,14 @@ package com.yalantis.ucrop.task;
 
 import android.content.Context;
 import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
 import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.RectF;
 import android.net.Uri;
-import android.os.AsyncTask;
 import android.os.ParcelFileDescriptor;
 import android.util.Log;
 
@@ -15,13 +19,21 @@ import androidx.exifinterface.media.ExifInterface;
 
 import com.yalantis.ucrop.callback.BitmapCropCallback;
 import com.yalantis.ucrop.model.CropParameters;
+import com.yalantis.ucrop.model.ExifInfo;
 import com.yalantis.ucrop.model.ImageState;
 import com.yalantis.ucrop.util.BitmapLoadUtils;
+import com.yalantis.ucrop.util.BitmapMemoryBudget;
+import com.yalantis.ucrop.util.BitmapPool;
 import com.yalantis.ucrop.util.FileUtils;
 import com.yalantis.ucrop.util.ImageHeaderParser;
+import com.yalantis.ucrop.util.JpegStripWriter;
 import com.yalantis.ucrop.util.MimeType;
+import com.yalantis.ucrop.util.PngStripWriter;
 import com.yalantis.ucrop.util.SdkUtils;
+import com.yalantis.ucrop.util.StripImageWriter;
+import com.yalantis.ucrop.util.StripTiler;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileDescriptor;
 import java.io.FileInputStream;
@@ -39,10 +51,15 @@ import java.lang.ref.WeakReference;
  * <p>
  * 在异步线程中执行裁剪图片
  */
-public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
+public class BitmapCropTask extends CropTask<Throwable> {
 
     private static final String TAG = "BitmapCropTask";
 
+    private static final int MAX_STRIP_HEIGHT = 256;
+    private static final int MIN_STRIP_HEIGHT = 16;
+    private static final int MAX_JPEG_SIZE = 65535;
+    private static final int STRIP_OUTPUT_BUFFER_SIZE = 64 * 1024;
+
     private final WeakReference<Context> mContextWeakReference;
 
     private Bitmap mViewBitmap;
@@ -56,6 +73,8 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
     private final Bitmap.CompressFormat mCompressFormat;
     private final int mCompressQuality;
     private final String mImageInputPath, mImageOutputPath;
+    private final ExifInfo mExifInfo;
+    private final boolean mIsFullResolution;
     private final BitmapCropCallback mCropCallback;
 
     private int mCroppedImageWidth, mCroppedImageHeight;
@@ -80,6 +99,8 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
 
         mImageInputPath = cropParameters.getImageInputPath();
         mImageOutputPath = cropParameters.getImageOutputPath();
+        mExifInfo = cropParameters.getExifInfo();
+        mIsFullResolution = cropParameters.isFullResolution();
 
         mCropCallback = cropCallback;
     }
@@ -90,7 +111,17 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
 
     @Override
     @Nullable
-    protected Throwable doInBackground(Void... params) {
+    protected Throwable doInBackground() {
+        return cropBitmap();
+    }
+
+    /**
+     * 在当前线程裁剪并保存,批量裁剪不经过CropExecutor直接调用
+     *
+     * @return null 裁剪成功
+     */
+    @Nullable
+    Throwable cropBitmap() {
         if (mViewBitmap == null) {
             return new NullPointerException("ViewBitmap is null");
         } else if (mViewBitmap.isRecycled()) {
@@ -99,11 +130,31 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
             return new NullPointerException("CurrentImageRect is empty");
         }
 
+        if (mIsFullResolution) {
+            try {
+                if (cropFullResolution()) {
+                    mViewBitmap = null;
+                    return null;
+                }
+            } catch (Throwable throwable) {
+                return throwable;
+            }
+            //原图无法区域解码或不需要裁剪,按预览图处理
+        }
+
+        //缩放、旋转和裁剪各会生成一份拷贝,同一时刻最多两份
+        BitmapMemoryBudget.Permit permit = null;
         try {
+            permit = BitmapMemoryBudget.getInstance(getContext()).acquire(
+                    2L * mViewBitmap.getRowBytes() * mViewBitmap.getHeight(), BitmapMemoryBudget.PRIORITY_HIGH);
             crop();
             mViewBitmap = null;
         } catch (Throwable throwable) {
             return throwable;
+        } finally {
+            if (permit != null) {
+                permit.close();
+            }
         }
 
         return null;
@@ -114,6 +165,9 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
      * 剪裁图片
      */
     private boolean crop() throws IOException {
+        BitmapPool bitmapPool = BitmapPool.getInstance();
+        //控件持有的原图,缩放和旋转生成的中间图都来自复用池
+        Bitmap viewBitmap = mViewBitmap;
         // Downsize if needed
         if (mMaxResultImageSizeX > 0 && mMaxResultImageSizeY > 0) {
             //计算当前裁剪框将要裁剪出的图片真实宽高,裁剪框看到的图片有可能是缩放后的图片
@@ -130,13 +184,11 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
                 float resizeScale = Math.min(scaleX, scaleY);
 
                 //将原图片进行缩放
-                Bitmap resizedBitmap = Bitmap.createScaledBitmap(mViewBitmap,
-                        Math.round(mViewBitmap.getWidth() * resizeScale),
-                        Math.round(mViewBitmap.getHeight() * resizeScale), false);
+                Matrix resizeMatrix = new Matrix();
+                resizeMatrix.setScale(resizeScale, resizeScale);
+                Bitmap resizedBitmap = bitmapPool.transform(mViewBitmap, resizeMatrix, false);
 
-                if (mViewBitmap != resizedBitmap) {
-                    mViewBitmap.recycle();
-                }
+                mViewBitmap.recycle();
                 //注意这里存储的是根据最大裁剪尺寸缩放后的图片了
                 mViewBitmap = resizedBitmap;
 
@@ -153,10 +205,11 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
             tempMatrix.setRotate(mCurrentAngle, mViewBitmap.getWidth() / 2, mViewBitmap.getHeight() / 2);
 
             //根据矩阵创建一个旋转后的图片
-            Bitmap rotatedBitmap = Bitmap.createBitmap(mViewBitmap, 0, 0,
-                    mViewBitmap.getWidth(), mViewBitmap.getHeight(), tempMatrix, true);
+            Bitmap rotatedBitmap = bitmapPool.transform(mViewBitmap, tempMatrix, true);
 
-            if (mViewBitmap != rotatedBitmap) {
+            if (mViewBitmap != viewBitmap) {
+                bitmapPool.put(mViewBitmap);
+            } else {
                 mViewBitmap.recycle();
             }
 
@@ -181,30 +234,12 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
             /**
              *最核心方法:裁剪图片,就是在原图片上找一块区域,根据改区域对应的图片重新创建一个Bitmap
              */
-            saveImage(Bitmap.createBitmap(mViewBitmap, cropOffsetX, cropOffsetY, mCroppedImageWidth, mCroppedImageHeight));
-
-            ParcelFileDescriptor parcelFileDescriptor = null;
-
-            //剪裁成功复制图片EXIF信息
-            if (mCompressFormat.equals(Bitmap.CompressFormat.JPEG)) {
-                //获取图片原数据信息
-                ExifInterface originalExif;
-                if (SdkUtils.isQ() && MimeType.isContent(mImageInputPath)) {
-                    parcelFileDescriptor =
-                            getContext().getContentResolver().openFileDescriptor(Uri.parse(mImageInputPath), "r");
-                    originalExif = new ExifInterface(new FileInputStream(parcelFileDescriptor.getFileDescriptor()));
-                } else {
-                    originalExif = new ExifInterface(mImageInputPath);
-                }
-
-                //拷贝图片源数据信息到新生成的图片上
-                ImageHeaderParser.copyExif(originalExif, mCroppedImageWidth, mCroppedImageHeight, mImageOutputPath);
-            }
-
-            if (parcelFileDescriptor != null) {
-                BitmapLoadUtils.close(parcelFileDescriptor);
+            saveImage(bitmapPool.crop(mViewBitmap, cropOffsetX, cropOffsetY, mCroppedImageWidth, mCroppedImageHeight));
+            if (mViewBitmap != viewBitmap) {
+                bitmapPool.put(mViewBitmap);
             }
 
+            copyExif();
             return true;
         } else {
             //不需要裁剪,则直接复制图片到目标文件夹
@@ -221,6 +256,308 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
         }
     }
 
+    /**
+     * 剪裁成功复制图片EXIF信息
+     */
+    private void copyExif() throws IOException {
+        if (!mCompressFormat.equals(Bitmap.CompressFormat.JPEG)) {
+            return;
+        }
+        ParcelFileDescriptor parcelFileDescriptor = null;
+        try {
+            //获取图片原数据信息
+            ExifInterface originalExif;
+            if (SdkUtils.isQ() && MimeType.isContent(mImageInputPath)) {
+                parcelFileDescriptor =
+                        getContext().getContentResolver().openFileDescriptor(Uri.parse(mImageInputPath), "r");
+                originalExif = new ExifInterface(new FileInputStream(parcelFileDescriptor.getFileDescriptor()));
+            } else {
+                originalExif = new ExifInterface(mImageInputPath);
+            }
+
+            //拷贝图片源数据信息到新生成的图片上
+            ImageHeaderParser.copyExif(originalExif, mCroppedImageWidth, mCroppedImageHeight, mImageOutputPath);
+        } finally {
+            if (parcelFileDescriptor != null) {
+                BitmapLoadUtils.close(parcelFileDescriptor);
+            }
+        }
+    }
+
+    /**
+     * 原图分辨率裁剪：把裁剪框从预览图坐标映射回原图坐标,用BitmapRegionDecoder只解码需要的区域,
+     * 采样率按最大输出尺寸和内存预算选择,EXIF方向、旋转角度和缩放合并成一次矩阵变换
+     *
+     * @return false 原图无法区域解码或不需要裁剪,由预览图处理
+     */
+    private boolean cropFullResolution() throws IOException, InterruptedException {
+        int viewWidth = mViewBitmap.getWidth();
+        int viewHeight = mViewBitmap.getHeight();
+        //裁剪框在预览图(旋转后)上的位置和大小
+        float cropLeft = (mCropRect.left - mCurrentImageRect.left) / mCurrentScale;
+        float cropTop = (mCropRect.top - mCurrentImageRect.top) / mCurrentScale;
+        float cropWidth = mCropRect.width() / mCurrentScale;
+        float cropHeight = mCropRect.height() / mCurrentScale;
+        if (!shouldCrop(Math.round(cropWidth), Math.round(cropHeight))) {
+            return false;
+        }
+
+        ParcelFileDescriptor parcelFileDescriptor = null;
+        BitmapRegionDecoder decoder = null;
+        try {
+            try {
+                if (SdkUtils.isQ() && MimeType.isContent(mImageInputPath)) {
+                    parcelFileDescriptor = getContext().getContentResolver().openFileDescriptor(Uri.parse(mImageInputPath), "r");
+                    decoder = BitmapRegionDecoder.newInstance(parcelFileDescriptor.getFileDescriptor(), false);
+                } else {
+                    decoder = BitmapRegionDecoder.newInstance(mImageInputPath, false);
+                }
+            } catch (IOException e) {
+                //GIF等格式不支持区域解码
+                Log.w(TAG, "Region decoder is not supported: " + e.getMessage());
+                return false;
+            }
+
+            //原图 -> 按EXIF摆正的原图,和BitmapLoadTask对预览图做的变换一致
+            Matrix matrix = new Matrix();
+            if (mExifInfo != null && mExifInfo.getExifDegrees() != 0) {
+                matrix.preRotate(mExifInfo.getExifDegrees());
+            }
+            if (mExifInfo != null && mExifInfo.getExifTranslation() != 1) {
+                matrix.postScale(mExifInfo.getExifTranslation(), 1);
+            }
+            RectF uprightBounds = new RectF(0, 0, decoder.getWidth(), decoder.getHeight());
+            matrix.mapRect(uprightBounds);
+            matrix.postTranslate(-uprightBounds.left, -uprightBounds.top);
+            //摆正的原图 -> 预览图,预览图是原图按采样率解码的
+            float sampleScale = (uprightBounds.width() / viewWidth + uprightBounds.height() / viewHeight) / 2;
+            matrix.postScale(1 / sampleScale, 1 / sampleScale);
+            //预览图 -> 按当前角度绕中心旋转后的预览图,和控件显示的一致
+            if (mCurrentAngle != 0) {
+                Matrix rotateMatrix = new Matrix();
+                rotateMatrix.setRotate(mCurrentAngle, viewWidth / 2, viewHeight / 2);
+                RectF rotatedBounds = new RectF(0, 0, viewWidth, viewHeight);
+                rotateMatrix.mapRect(rotatedBounds);
+                rotateMatrix.postTranslate(-rotatedBounds.left, -rotatedBounds.top);
+                matrix.postConcat(rotateMatrix);
+            }
+            //旋转后的预览图 -> 原图分辨率的裁剪结果
+            matrix.postTranslate(-cropLeft, -cropTop);
+            matrix.postScale(sampleScale, sampleScale);
+            float resultWidth = cropWidth * sampleScale;
+            float resultHeight = cropHeight * sampleScale;
+
+            //裁剪结果对应的原图区域
+            Matrix inverse = new Matrix();
+            if (!matrix.invert(inverse)) {
+                return false;
+            }
+            RectF sourceRect = new RectF(0, 0, resultWidth, resultHeight);
+            inverse.mapRect(sourceRect);
+            Rect region = new Rect();
+            sourceRect.roundOut(region);
+            //多解一个像素给过滤采样
+            region.inset(-1, -1);
+            if (!region.intersect(0, 0, decoder.getWidth(), decoder.getHeight())) {
+                throw new IllegalArgumentException("Crop region is outside of the image");
+            }
+
+            float resizeScale = 1;
+            if (mMaxResultImageSizeX > 0 && mMaxResultImageSizeY > 0
+                    && (resultWidth > mMaxResultImageSizeX || resultHeight > mMaxResultImageSizeY)) {
+                resizeScale = Math.min(mMaxResultImageSizeX / resultWidth, mMaxResultImageSizeY / resultHeight);
+            }
+            //不超过输出分辨率的最大2的幂采样率
+            int sampleSize = Integer.highestOneBit(Math.max(1, (int) (1 / resizeScale)));
+            long budgetBytes = BitmapMemoryBudget.getInstance().getBudgetBytes();
+            long bytes = estimateRegionBytes(region, sampleSize, resultWidth * resizeScale, resultHeight * resizeScale);
+            //整张放不进内存预算时按条带裁剪,保持输出分辨率;否则加大采样率,输出也随之缩小
+            if (bytes > budgetBytes && canWriteStrips(Math.round(resultWidth * resizeScale),
+                    Math.round(resultHeight * resizeScale))) {
+                Matrix stripMatrix = new Matrix(matrix);
+                stripMatrix.postScale(resizeScale, resizeScale);
+                setCroppedImage(resultWidth, resultHeight, cropLeft * sampleScale, cropTop * sampleScale, resizeScale);
+                if (cropInStrips(decoder, stripMatrix, sampleSize)) {
+                    copyExif();
+                    return true;
+                }
+                //旋转后最小的条带分块仍超出预算,按加大采样率处理
+            }
+            while (bytes > budgetBytes && sampleSize < (1 << 10)) {
+                sampleSize *= 2;
+                resizeScale = Math.min(resizeScale, 1F / sampleSize);
+                bytes = estimateRegionBytes(region, sampleSize, resultWidth * resizeScale, resultHeight * resizeScale);
+            }
+            matrix.postScale(resizeScale, resizeScale);
+            setCroppedImage(resultWidth, resultHeight, cropLeft * sampleScale, cropTop * sampleScale, resizeScale);
+            BitmapMemoryBudget.Permit permit = BitmapMemoryBudget.getInstance().acquire(bytes, BitmapMemoryBudget.PRIORITY_HIGH);
+            try {
+                BitmapFactory.Options options = new BitmapFactory.Options();
+                options.inSampleSize = sampleSize;
+                Bitmap regionBitmap = decoder.decodeRegion(region, options);
+                if (regionBitmap == null) {
+                    throw new IllegalArgumentException("Region could not be decoded: " + region);
+                }
+                //解码出的区域 -> 原图坐标 -> 裁剪结果
+                Matrix drawMatrix = new Matrix();
+                drawMatrix.setScale((float) region.width() / regionBitmap.getWidth(),
+                        (float) region.height() / regionBitmap.getHeight());
+                drawMatrix.postTranslate(region.left, region.top);
+                drawMatrix.postConcat(matrix);
+
+                BitmapPool bitmapPool = BitmapPool.getInstance();
+                Bitmap croppedBitmap = bitmapPool.get(mCroppedImageWidth, mCroppedImageHeight, Bitmap.Config.ARGB_8888);
+                croppedBitmap.setHasAlpha(regionBitmap.hasAlpha() || !drawMatrix.rectStaysRect());
+                Canvas canvas = new Canvas(croppedBitmap);
+                canvas.drawBitmap(regionBitmap, drawMatrix, new Paint(Paint.FILTER_BITMAP_FLAG));
+                canvas.setBitmap(null);
+                regionBitmap.recycle();
+                saveImage(croppedBitmap);
+            } finally {
+                permit.close();
+            }
+        } finally {
+            if (decoder != null) {
+                decoder.recycle();
+            }
+            if (parcelFileDescriptor != null) {
+                BitmapLoadUtils.close(parcelFileDescriptor);
+            }
+        }
+        copyExif();
+        return true;
+    }
+
+    /**
+     * 裁剪结果的宽高和偏移
+     *
+     * @param resultWidth  原图分辨率的裁剪宽度
+     * @param resultHeight 原图分辨率的裁剪高度
+     * @param cropLeft     原图分辨率的裁剪偏移
+     * @param cropTop      原图分辨率的裁剪偏移
+     * @param resizeScale  按最大输出尺寸和采样率的缩放
+     */
+    private void setCroppedImage(float resultWidth, float resultHeight, float cropLeft, float cropTop, float resizeScale) {
+        mCroppedImageWidth = Math.max(1, Math.round(resultWidth * resizeScale));
+        mCroppedImageHeight = Math.max(1, Math.round(resultHeight * resizeScale));
+        cropOffsetX = Math.round(cropLeft * resizeScale);
+        cropOffsetY = Math.round(cropTop * resizeScale);
+    }
+
+    /**
+     * 按条带裁剪：每次只解码一条输出行对应的原图区域,变换后画到复用的条带图上,再交给流式编码器写出。
+     * 旋转后一条条带对应的原图区域和输出宽度一样高,所以条带再按列分块,每块单独解码,
+     * 内存占用取决于条带高度和分块宽度而不是图片大小
+     *
+     * @param decoder
+     * @param matrix     原图 -> 裁剪结果
+     * @param sampleSize
+     * @return false 最小的条带分块也超出预算,没有写出任何内容
+     */
+    private boolean cropInStrips(BitmapRegionDecoder decoder, Matrix matrix, int sampleSize)
+            throws IOException, InterruptedException {
+        Context context = getContext();
+        if (context == null) {
+            return true;
+        }
+        int width = mCroppedImageWidth;
+        int height = mCroppedImageHeight;
+        Matrix inverse = new Matrix();
+        matrix.invert(inverse);
+        float[] inverseValues = new float[9];
+        inverse.getValues(inverseValues);
+
+        //一条条带图、像素数组和一块解码区域不超过预算的四分之一
+        StripTiler tiler = new StripTiler(inverseValues, decoder.getWidth(), decoder.getHeight(), width, sampleSize);
+        if (!tiler.plan(MAX_STRIP_HEIGHT, MIN_STRIP_HEIGHT, BitmapMemoryBudget.getInstance().getBudgetBytes() / 4)) {
+            Log.i(TAG, "Strips do not fit the budget: " + width + "x" + height);
+            return false;
+        }
+        int stripHeight = Math.min(tiler.getStripHeight(), height);
+        int tileWidth = tiler.getTileWidth();
+        Log.i(TAG, "Crop in strips: " + width + "x" + height + ", strip height: " + stripHeight + ", tile width: " + tileWidth);
+
+        BitmapMemoryBudget.Permit permit = BitmapMemoryBudget.getInstance().acquire(tiler.getBytes(), BitmapMemoryBudget.PRIORITY_HIGH);
+        BitmapPool bitmapPool = BitmapPool.getInstance();
+        Bitmap strip = null;
+        StripImageWriter writer = null;
+        try {
+            strip = bitmapPool.get(width, stripHeight, Bitmap.Config.ARGB_8888);
+            //PNG保留透明度,旋转后的空白角是透明的
+            strip.setHasAlpha(true);
+            int[] pixels = new int[width * stripHeight];
+            Canvas canvas = new Canvas(strip);
+            Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+            OutputStream outputStream = new BufferedOutputStream(
+                    context.getContentResolver().openOutputStream(Uri.fromFile(new File(mImageOutputPath))), STRIP_OUTPUT_BUFFER_SIZE);
+            writer = mCompressFormat == Bitmap.CompressFormat.PNG
+                    ? new PngStripWriter(outputStream, width, height)
+                    : new JpegStripWriter(outputStream, width, height, mCompressQuality);
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inSampleSize = sampleSize;
+            Matrix drawMatrix = new Matrix();
+            for (int top = 0; top < height; top += stripHeight) {
+                int rowCount = Math.min(stripHeight, height - top);
+                strip.eraseColor(0);
+                for (int left = 0; left < width; left += tileWidth) {
+                    int right = Math.min(width, left + tileWidth);
+                    int[] region = tiler.getRegion(left, top, right, top + rowCount);
+                    if (region == null) {
+                        continue;
+                    }
+                    Rect regionRect = new Rect(region[0], region[1], region[2], region[3]);
+                    Bitmap regionBitmap = decoder.decodeRegion(regionRect, options);
+                    if (regionBitmap == null) {
+                        throw new IllegalArgumentException("Region could not be decoded: " + regionRect);
+                    }
+                    //解码出的区域 -> 原图坐标 -> 裁剪结果 -> 条带,只画到这一块内,相邻块的解码区域有重叠
+                    drawMatrix.setScale((float) regionRect.width() / regionBitmap.getWidth(),
+                            (float) regionRect.height() / regionBitmap.getHeight());
+                    drawMatrix.postTranslate(regionRect.left, regionRect.top);
+                    drawMatrix.postConcat(matrix);
+                    drawMatrix.postTranslate(0, -top);
+                    canvas.save();
+                    canvas.clipRect(left, 0, right, rowCount);
+                    canvas.drawBitmap(regionBitmap, drawMatrix, paint);
+                    canvas.restore();
+                    regionBitmap.recycle();
+                }
+                strip.getPixels(pixels, 0, width, 0, 0, width, rowCount);
+                writer.writeRows(pixels, 0, width, rowCount);
+            }
+            canvas.setBitmap(null);
+            writer.close();
+            writer = null;
+        } finally {
+            if (writer != null) {
+                BitmapLoadUtils.close(writer);
+            }
+            if (strip != null) {
+                bitmapPool.put(strip);
+            }
+            permit.close();
+        }
+        return true;
+    }
+
+    /**
+     * 只有JPEG和PNG有流式编码器,JPEG的宽高不能超过65535
+     */
+    private boolean canWriteStrips(int width, int height) {
+        if (mCompressFormat == Bitmap.CompressFormat.PNG) {
+            return true;
+        }
+        return mCompressFormat == Bitmap.CompressFormat.JPEG && width <= MAX_JPEG_SIZE && height <= MAX_JPEG_SIZE;
+    }
+
+    /**
+     * 区域解码和输出图片的内存占用
+     */
+    private static long estimateRegionBytes(Rect region, int sampleSize, float resultWidth, float resultHeight) {
+        return BitmapMemoryBudget.estimateBytes(region.width(), region.height(), sampleSize, Bitmap.Config.ARGB_8888)
+                + BitmapMemoryBudget.estimateBytes(Math.round(resultWidth), Math.round(resultHeight), 1, Bitmap.Config.ARGB_8888);
+    }
+
     /**
      * 保存图片
      *
@@ -237,7 +574,7 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
         try {
             outputStream = context.getContentResolver().openOutputStream(Uri.fromFile(new File(mImageOutputPath)));
             croppedBitmap.compress(mCompressFormat, mCompressQuality, outputStream);
-            croppedBitmap.recycle();
+            BitmapPool.getInstance().put(croppedBitmap);
         } finally {
             BitmapLoadUtils.close(outputStream);
         }
@@ -267,6 +604,13 @@ public class BitmapCropTask extends AsyncTask<Void, Void, Throwable> {
 
     @Override
     protected void onPostExecute(@Nullable Throwable t) {
+        dispatchResult(t);
+    }
+
+    /**
+     * 把裁剪结果交给回调,在调用线程上执行
+     */
+    void dispatchResult(@Nullable Throwable t) {
         if (mCropCallback != null) {
             if (t == null) {
                 Uri uri = Uri.fromFile(new File(mImageOutputPath));
@@ -7,7 +7,6 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.graphics.Matrix;
 import android.net.Uri;
-import android.os.AsyncTask;
 import android.os.Build;
 import android.os.ParcelFileDescriptor;
 import android.text.TextUtils;
@@ -20,6 +19,8 @@ import androidx.core.content.ContextCompat;
 import com.yalantis.ucrop.callback.BitmapLoadCallback;
 import com.yalantis.ucrop.model.ExifInfo;
 import com.yalantis.ucrop.util.BitmapLoadUtils;
+import com.yalantis.ucrop.util.BitmapMemoryBudget;
+import com.yalantis.ucrop.util.BitmapPool;
 import com.yalantis.ucrop.util.FileUtils;
 import com.yalantis.ucrop.util.MimeType;
 import com.yalantis.ucrop.util.SdkUtils;
@@ -35,6 +36,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.ref.WeakReference;
 import java.net.URL;
+import java.net.URLConnection;
 
 /**
  * Creates and returns a Bitmap for a given Uri(String url).
@@ -43,9 +45,14 @@ import java.net.URL;
  * <p>
  * 这个类负责了Uri解码bitmap，并处理分辨率
  */
-public class BitmapLoadTask extends AsyncTask<Void, Void, BitmapLoadTask.BitmapWorkerResult> {
+public class BitmapLoadTask extends CropTask<BitmapLoadTask.BitmapWorkerResult> {
 
     private static final String TAG = "BitmapWorkerTask";
+    /**
+     * 网络图片下载超时,中断无法结束阻塞的socket读取
+     */
+    private static final int DOWNLOAD_CONNECT_TIMEOUT = 15 * 1000;
+    private static final int DOWNLOAD_READ_TIMEOUT = 30 * 1000;
 
     private WeakReference<Context> mContextWeakReference;
     private Uri mInputUri;
@@ -94,7 +101,15 @@ public class BitmapLoadTask extends AsyncTask<Void, Void, BitmapLoadTask.BitmapW
 
     @Override
     @NonNull
-    protected BitmapWorkerResult doInBackground(Void... params) {
+    protected BitmapWorkerResult doInBackground() {
+        return loadBitmap();
+    }
+
+    /**
+     * 在当前线程加载图片,批量裁剪不经过CropExecutor直接调用
+     */
+    @NonNull
+    BitmapWorkerResult loadBitmap() {
         if (mInputUri == null) {
             return new BitmapWorkerResult(new NullPointerException("Input Uri cannot be null"));
         }
@@ -137,7 +152,29 @@ public class BitmapLoadTask extends AsyncTask<Void, Void, BitmapLoadTask.BitmapW
         //下面真正的开始解析图片了
         options.inJustDecodeBounds = false;
 
+        //解码和矩阵变换的内存占用先向全局预算申请,避免和压缩、长图同时解码导致OOM
+        BitmapMemoryBudget.Permit permit;
+        try {
+            permit = BitmapMemoryBudget.getInstance(getContext()).acquire(
+                    2 * BitmapMemoryBudget.estimateBytes(options.outWidth, options.outHeight, options.inSampleSize, null),
+                    getPriority());
+        } catch (InterruptedException e) {
+            return new BitmapWorkerResult(e);
+        }
+        try {
+            return decodeBitmap(fileDescriptor, parcelFileDescriptor, options);
+        } finally {
+            permit.close();
+        }
+    }
+
+    @NonNull
+    private BitmapWorkerResult decodeBitmap(FileDescriptor fileDescriptor, ParcelFileDescriptor parcelFileDescriptor,
+                                            BitmapFactory.Options options) {
         Bitmap decodeSampledBitmap = null;
+        BitmapPool bitmapPool = BitmapPool.getInstance();
+        //优先复用池中的bitmap解码
+        bitmapPool.prepareDecode(options, options.outWidth, options.outHeight);
 
         boolean decodeAttemptSuccess = false;
         //循环解码,防止oom内存溢出
@@ -145,8 +182,12 @@ public class BitmapLoadTask extends AsyncTask<Void, Void, BitmapLoadTask.BitmapW
             try {
                 decodeSampledBitmap = BitmapFactory.decodeFileDescriptor(fileDescriptor, null, options);
                 decodeAttemptSuccess = true;
+            } catch (IllegalArgumentException e) {
+                //复用的bitmap不符合,重新分配
+                bitmapPool.decodeFailed(options);
             } catch (OutOfMemoryError error) {
                 Log.e(TAG, "doInBackground: BitmapFactory.decodeFileDescriptor: ", error);
+                bitmapPool.decodeFailed(options);
                 options.inSampleSize *= 2;
             }
         }
@@ -290,7 +331,10 @@ public class BitmapLoadTask extends AsyncTask<Void, Void, BitmapLoadTask.BitmapW
             URL u = new URL(inputUri.toString());
             byte[] buffer = new byte[1024];
             int read;
-            bin = new BufferedInputStream(u.openStream());
+            URLConnection connection = u.openConnection();
+            connection.setConnectTimeout(DOWNLOAD_CONNECT_TIMEOUT);
+            connection.setReadTimeout(DOWNLOAD_READ_TIMEOUT);
+            bin = new BufferedInputStream(connection.getInputStream());
             outputStream = getContext().getContentResolver().openOutputStream(outputUri);
             if (outputStream != null) {
                 bout = new BufferedOutputStream(outputStream);
@@ -315,12 +359,26 @@ public class BitmapLoadTask extends AsyncTask<Void, Void, BitmapLoadTask.BitmapW
         }
     }
 
+    /**
+     * 加载后的图片路径,网络图片和无法直接访问的content图片已经拷贝到输出路径
+     */
+    String getInputPath() {
+        String inputUriString = mInputUri.toString();
+        return MimeType.isContent(inputUriString) ? inputUriString : mInputUri.getPath();
+    }
+
+    @Override
+    protected void onCancelled(@Nullable BitmapWorkerResult result) {
+        //控件已经不在了,解码出的图片放回复用池
+        if (result != null && result.mBitmapResult != null) {
+            BitmapPool.getInstance().put(result.mBitmapResult);
+        }
+    }
+
     @Override
     protected void onPostExecute(@NonNull BitmapWorkerResult result) {
         if (result.mBitmapWorkerException == null) {
-            String inputUriString = mInputUri.toString();
-            mBitmapLoadCallback.onBitmapLoaded(result.mBitmapResult, result.mExifInfo,
-                    MimeType.isContent(inputUriString) ? inputUriString : mInputUri.getPath(),
+            mBitmapLoadCallback.onBitmapLoaded(result.mBitmapResult, result.mExifInfo, getInputPath(),
                     (mOutputUri == null) ? null : mOutputUri.getPath());
         } else {
             mBitmapLoadCallback.onFailure(result.mBitmapWorkerException);
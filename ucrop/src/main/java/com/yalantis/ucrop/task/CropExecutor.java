@@ -0,0 +1,176 @@
+package com.yalantis.ucrop.task;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yalantis.ucrop.callback.OnCropTaskListener;
+import com.yalantis.ucrop.util.BitmapMemoryBudget;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author：luck
+ * @date：2026-10-18 00:10
+ * @describe：The one worker thread the crop screens load and crop on，kept alive between the images of a multi crop.
+ * Thumbnails and predecodes run on separate lower priority preload threads，a slow one never holds up the worker.
+ * Results are handed to the deliver executor，the main thread unless {@link #setDeliver(Executor)} changed it
+ */
+public final class CropExecutor {
+    private static final String TAG = "CropExecutor";
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    private static final int PRELOAD_THREAD_COUNT = 2;
+
+    private static volatile CropExecutor instance;
+
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor preloadExecutor;
+    private final Executor mainDeliver;
+    private volatile Executor deliver;
+    private volatile OnCropTaskListener taskListener;
+
+    private long finishedCount;
+    private long cancelledCount;
+    private long totalQueueNanos;
+    private long maxQueueNanos;
+    private long totalRunNanos;
+    private long maxRunNanos;
+
+    private CropExecutor() {
+        executor = newExecutor(1, Process.THREAD_PRIORITY_BACKGROUND, "ucrop-worker");
+        preloadExecutor = newExecutor(PRELOAD_THREAD_COUNT, Process.THREAD_PRIORITY_LOWEST, "ucrop-preload");
+        final Handler handler = new Handler(Looper.getMainLooper());
+        mainDeliver = new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                handler.post(command);
+            }
+        };
+        deliver = mainDeliver;
+    }
+
+    private static ThreadPoolExecutor newExecutor(int threadCount, final int threadPriority, final String name) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(@NonNull final Runnable r) {
+                return new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(threadPriority);
+                        r.run();
+                    }
+                }, name);
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public static CropExecutor getInstance() {
+        if (instance == null) {
+            synchronized (CropExecutor.class) {
+                if (instance == null) {
+                    instance = new CropExecutor();
+                }
+            }
+        }
+        return instance;
+    }
+
+    void execute(Runnable runnable, int priority) {
+        if (priority == BitmapMemoryBudget.PRIORITY_LOW) {
+            preloadExecutor.execute(runnable);
+        } else {
+            executor.execute(runnable);
+        }
+    }
+
+    /**
+     * Where results are delivered
+     *
+     * @param deliver null for the main thread
+     */
+    public void setDeliver(@Nullable Executor deliver) {
+        this.deliver = deliver != null ? deliver : mainDeliver;
+    }
+
+    Executor getDeliver() {
+        return deliver;
+    }
+
+    public void setOnCropTaskListener(@Nullable OnCropTaskListener listener) {
+        this.taskListener = listener;
+    }
+
+    void recordTask(CropTask<?> task, long queueNanos, long runNanos, boolean isCancelled) {
+        synchronized (this) {
+            if (isCancelled) {
+                cancelledCount++;
+            } else {
+                finishedCount++;
+            }
+            totalQueueNanos += queueNanos;
+            maxQueueNanos = Math.max(maxQueueNanos, queueNanos);
+            totalRunNanos += runNanos;
+            maxRunNanos = Math.max(maxRunNanos, runNanos);
+        }
+        OnCropTaskListener listener = taskListener;
+        if (listener != null) {
+            listener.onTaskFinished(task.getClass().getSimpleName(), TimeUnit.NANOSECONDS.toMillis(queueNanos),
+                    TimeUnit.NANOSECONDS.toMillis(runNanos), isCancelled);
+        }
+    }
+
+    /**
+     * Tasks waiting for the worker or the preload threads
+     *
+     * @return
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size() + preloadExecutor.getQueue().size();
+    }
+
+    public synchronized long getFinishedCount() {
+        return finishedCount;
+    }
+
+    public synchronized long getCancelledCount() {
+        return cancelledCount;
+    }
+
+    public synchronized long getTotalQueueMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalQueueNanos);
+    }
+
+    public synchronized long getMaxQueueMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxQueueNanos);
+    }
+
+    public synchronized long getTotalRunMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalRunNanos);
+    }
+
+    public synchronized long getMaxRunMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxRunNanos);
+    }
+
+    public void logStats() {
+        Log.i(TAG, toString());
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CropExecutor{queued=" + getQueueSize() + ", finished=" + finishedCount + ", cancelled=" + cancelledCount
+                + ", queueMs=" + getTotalQueueMillis() + ", maxQueueMs=" + getMaxQueueMillis()
+                + ", runMs=" + getTotalRunMillis() + ", maxRunMs=" + getMaxRunMillis() + "}";
+    }
+}
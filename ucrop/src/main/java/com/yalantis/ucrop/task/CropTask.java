@@ -0,0 +1,189 @@
+package com.yalantis.ucrop.task;
+
+import androidx.annotation.Nullable;
+
+import com.yalantis.ucrop.util.BitmapMemoryBudget;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author：luck
+ * @date：2026-10-18 00:10
+ * @describe：Background work of the crop screens run on the {@link CropExecutor}，the caller keeps it as a {@link Future} to cancel.
+ * Once cancelled {@link #onPostExecute(Object)} is never called，a result computed anyway goes to
+ * {@link #onCancelled(Object)} so it can be released
+ */
+public abstract class CropTask<Result> implements Future<Result> {
+    private final FutureTask<Result> mFuture;
+    private final AtomicBoolean mIsCancelled = new AtomicBoolean();
+    /**
+     * Set once a result or the cancellation is posted to the deliver executor
+     */
+    private final AtomicBoolean mIsFinished = new AtomicBoolean();
+    /**
+     * Claimed by whichever comes first，call() starting the work or done() of a task cancelled before it started，
+     * so exactly one of them finishes the task
+     */
+    private final AtomicBoolean mIsStarted = new AtomicBoolean();
+    private volatile boolean mIsDelivered;
+    private volatile long mSubmitNanos;
+    private volatile int mPriority = BitmapMemoryBudget.PRIORITY_HIGH;
+
+    protected CropTask() {
+        mFuture = new FutureTask<Result>(new Callable<Result>() {
+            @Override
+            public Result call() {
+                if (!mIsStarted.compareAndSet(false, true)) {
+                    //取消时还没开始,已经由done()结束
+                    return null;
+                }
+                long startNanos = System.nanoTime();
+                Result result = null;
+                try {
+                    result = doInBackground();
+                    return result;
+                } catch (RuntimeException e) {
+                    postError(e);
+                    throw e;
+                } finally {
+                    long endNanos = System.nanoTime();
+                    CropExecutor.getInstance().recordTask(CropTask.this, startNanos - mSubmitNanos,
+                            endNanos - startNanos, mIsCancelled.get());
+                    finish(result);
+                }
+            }
+        }) {
+            @Override
+            protected void done() {
+                //已经开始执行的任务由call()结束时投递,计算出的结果交给onCancelled释放
+                if (isCancelled() && mIsStarted.compareAndSet(false, true)) {
+                    CropExecutor.getInstance().recordTask(CropTask.this, System.nanoTime() - mSubmitNanos, 0, true);
+                    finish(null);
+                }
+            }
+        };
+    }
+
+    /**
+     * Queue on the crop worker of the {@link CropExecutor}
+     *
+     * @return this，to cancel or wait for
+     */
+    public final CropTask<Result> execute() {
+        return execute(BitmapMemoryBudget.PRIORITY_HIGH);
+    }
+
+    /**
+     * @param priority {@link BitmapMemoryBudget#PRIORITY_HIGH} for the crop worker，
+     *                 {@link BitmapMemoryBudget#PRIORITY_LOW} for the preload threads，which never hold up the worker
+     * @return this，to cancel or wait for
+     */
+    public final CropTask<Result> execute(int priority) {
+        mPriority = priority;
+        mSubmitNanos = System.nanoTime();
+        CropExecutor.getInstance().execute(mFuture, priority);
+        return this;
+    }
+
+    /**
+     * The priority passed to {@link #execute(int)}，also used for the memory budget
+     *
+     * @return
+     */
+    protected int getPriority() {
+        return mPriority;
+    }
+
+    /**
+     * On the worker thread
+     */
+    protected abstract Result doInBackground();
+
+    /**
+     * On the deliver thread，only if the task was not cancelled
+     */
+    protected void onPostExecute(Result result) {
+    }
+
+    /**
+     * On the deliver thread instead of {@link #onPostExecute(Object)}
+     *
+     * @param result null if the task was cancelled before it finished
+     */
+    protected void onCancelled(@Nullable Result result) {
+    }
+
+    private void finish(final Result result) {
+        if (!mIsFinished.compareAndSet(false, true)) {
+            return;
+        }
+        CropExecutor.getInstance().getDeliver().execute(new Runnable() {
+            @Override
+            public void run() {
+                if (mIsCancelled.get()) {
+                    onCancelled(result);
+                } else {
+                    mIsDelivered = true;
+                    onPostExecute(result);
+                }
+            }
+        });
+    }
+
+    /**
+     * Crash on the deliver thread like AsyncTask does，rather than losing the error in the future
+     */
+    private void postError(final RuntimeException e) {
+        mIsFinished.set(true);
+        CropExecutor.getInstance().getDeliver().execute(new Runnable() {
+            @Override
+            public void run() {
+                throw new RuntimeException("An error occurred while executing doInBackground()", e);
+            }
+        });
+    }
+
+    /**
+     * Cancel and interrupt if running
+     *
+     * @return false if already cancelled or delivered
+     */
+    public final boolean cancel() {
+        return cancel(true);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (mIsDelivered || !mIsCancelled.compareAndSet(false, true)) {
+            return false;
+        }
+        mFuture.cancel(mayInterruptIfRunning);
+        return !mIsDelivered;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return mIsCancelled.get();
+    }
+
+    @Override
+    public boolean isDone() {
+        return mFuture.isDone();
+    }
+
+    @Override
+    public Result get() throws InterruptedException, ExecutionException {
+        return mFuture.get();
+    }
+
+    @Override
+    public Result get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        return mFuture.get(timeout, unit);
+    }
+}
@@ -21,7 +21,6 @@ import com.yalantis.ucrop.task.BitmapLoadTask;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.concurrent.Executors;
 
 /**
  * Created by Oleksii Shliama (https://github.com/shliama).
@@ -30,13 +29,33 @@ public class BitmapLoadUtils {
 
     private static final String TAG = "BitmapLoadUtils";
 
-    public static void decodeBitmapInBackground(@NonNull Context context,
-                                                @NonNull Uri inputUri, @Nullable Uri outputUri,
-                                                int requiredWidth, int requiredHeight,
-                                                BitmapLoadCallback loadCallback) {
+    /**
+     * 在裁剪线程上解码图片
+     *
+     * @return 取消加载用的任务,取消后不会再回调
+     */
+    public static BitmapLoadTask decodeBitmapInBackground(@NonNull Context context,
+                                                          @NonNull Uri inputUri, @Nullable Uri outputUri,
+                                                          int requiredWidth, int requiredHeight,
+                                                          BitmapLoadCallback loadCallback) {
+        return decodeBitmapInBackground(context, inputUri, outputUri, requiredWidth, requiredHeight,
+                BitmapMemoryBudget.PRIORITY_HIGH, loadCallback);
+    }
 
-        new BitmapLoadTask(context, inputUri, outputUri, requiredWidth, requiredHeight, loadCallback)
-                .executeOnExecutor(Executors.newCachedThreadPool());
+    /**
+     * 解码图片,缩略图和预解码用{@link BitmapMemoryBudget#PRIORITY_LOW},不占用裁剪线程
+     *
+     * @param priority {@link BitmapMemoryBudget#PRIORITY_HIGH} or {@link BitmapMemoryBudget#PRIORITY_LOW}
+     * @return 取消加载用的任务,取消后不会再回调
+     */
+    public static BitmapLoadTask decodeBitmapInBackground(@NonNull Context context,
+                                                          @NonNull Uri inputUri, @Nullable Uri outputUri,
+                                                          int requiredWidth, int requiredHeight, int priority,
+                                                          BitmapLoadCallback loadCallback) {
+
+        BitmapLoadTask task = new BitmapLoadTask(context, inputUri, outputUri, requiredWidth, requiredHeight, loadCallback);
+        task.execute(priority);
+        return task;
     }
 
     /**
@@ -48,10 +67,10 @@ public class BitmapLoadUtils {
      */
     public static Bitmap transformBitmap(@NonNull Bitmap bitmap, @NonNull Matrix transformMatrix) {
         try {
-            Bitmap converted = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), transformMatrix, true);
-            if (!bitmap.sameAs(converted)) {
-                bitmap = converted;
-            }
+            //变换到复用池中的bitmap,原图归还复用池
+            Bitmap converted = BitmapPool.getInstance().transform(bitmap, transformMatrix, true);
+            BitmapPool.getInstance().put(bitmap);
+            bitmap = converted;
         } catch (OutOfMemoryError error) {
             Log.e(TAG, "transformBitmap: ", error);
         }
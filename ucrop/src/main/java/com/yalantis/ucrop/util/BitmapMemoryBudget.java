@@ -0,0 +1,277 @@
+package com.yalantis.ucrop.util;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Build;
+import android.util.Log;
+
+import java.io.Closeable;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 19:10
+ * @describe：Process-wide admission control for bitmap work，compression, crop loading, crop saving
+ * and long image tiles reserve their estimated decode footprint here before decoding，
+ * so their combined peak stays within one budget
+ * # The budget models the pool bitmap pixels are allocated from：the Java heap before Android O，
+ * native memory from O on，where the heap limit no longer bounds them and the memory class is used instead
+ */
+public final class BitmapMemoryBudget {
+    private static final String TAG = "BitmapMemoryBudget";
+    /**
+     * Work the user is waiting on，admitted before any queued low priority job
+     */
+    public static final int PRIORITY_HIGH = 0;
+    /**
+     * Background work，waits while high priority work is queued
+     */
+    public static final int PRIORITY_LOW = 1;
+
+    private static volatile BitmapMemoryBudget instance;
+
+    private long budgetBytes;
+    private boolean isMemoryClassRead;
+    private boolean isBudgetSet;
+    private long usedBytes;
+    private long peakBytes;
+    private int activeCount;
+    private int waitingHighCount;
+    private int waitingLowCount;
+    private long admittedCount;
+    private long downsampledCount;
+
+    private BitmapMemoryBudget() {
+        // Half the heap，the rest is left to the views and the app，on O and above until a Context gives the memory class
+        this.budgetBytes = Runtime.getRuntime().maxMemory() / 2;
+    }
+
+    /**
+     * The budget，derived from the memory class of the device on Android O and above
+     *
+     * @param context
+     * @return
+     */
+    public static BitmapMemoryBudget getInstance(Context context) {
+        BitmapMemoryBudget budget = getInstance();
+        budget.readMemoryClass(context);
+        return budget;
+    }
+
+    public static BitmapMemoryBudget getInstance() {
+        if (instance == null) {
+            synchronized (BitmapMemoryBudget.class) {
+                if (instance == null) {
+                    instance = new BitmapMemoryBudget();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private synchronized void readMemoryClass(Context context) {
+        if (isMemoryClassRead || context == null) {
+            return;
+        }
+        isMemoryClassRead = true;
+        if (isBudgetSet || Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            return;
+        }
+        ActivityManager activityManager = (ActivityManager) context.getApplicationContext().getSystemService(Context.ACTIVITY_SERVICE);
+        if (activityManager == null) {
+            return;
+        }
+        // Pixels are native memory，half of what the device provisions for one app，a third on low RAM devices
+        long memoryClassBytes = activityManager.getMemoryClass() * 1024L * 1024L;
+        budgetBytes = activityManager.isLowRamDevice() ? memoryClassBytes / 3 : memoryClassBytes / 2;
+        notifyAll();
+    }
+
+    /**
+     * Estimated bytes of a bitmap decoded with the given inSampleSize
+     *
+     * @param width        source width
+     * @param height       source height
+     * @param inSampleSize
+     * @param config       null for ARGB_8888
+     * @return
+     */
+    public static long estimateBytes(int width, int height, int inSampleSize, Bitmap.Config config) {
+        int sampleSize = Math.max(1, inSampleSize);
+        long sampleWidth = (Math.max(0, width) + sampleSize - 1) / sampleSize;
+        long sampleHeight = (Math.max(0, height) + sampleSize - 1) / sampleSize;
+        return sampleWidth * sampleHeight * getBytesPerPixel(config);
+    }
+
+    private static int getBytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) {
+            return 2;
+        } else if (config == Bitmap.Config.ALPHA_8) {
+            return 1;
+        }
+        return 4;
+    }
+
+    /**
+     * Change the budget，waiting jobs are re-checked，the memory class no longer replaces it
+     *
+     * @param budgetBytes
+     */
+    public synchronized void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = Math.max(1, budgetBytes);
+        isBudgetSet = true;
+        notifyAll();
+    }
+
+    /**
+     * The smallest inSampleSize not below the given one whose decode fits the whole budget，
+     * for low priority jobs that would otherwise never be admitted
+     *
+     * @param width
+     * @param height
+     * @param inSampleSize
+     * @param config
+     * @return
+     */
+    public synchronized int fitSampleSize(int width, int height, int inSampleSize, Bitmap.Config config) {
+        int sampleSize = Math.max(1, inSampleSize);
+        while (estimateBytes(width, height, sampleSize, config) > budgetBytes && sampleSize < (1 << 10)) {
+            sampleSize *= 2;
+        }
+        if (sampleSize != inSampleSize) {
+            downsampledCount++;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Block until the bytes can be reserved
+     * # A job larger than the whole budget is admitted alone
+     *
+     * @param bytes
+     * @param priority {@link #PRIORITY_HIGH} or {@link #PRIORITY_LOW}
+     * @return the reservation，close it once the bitmaps of the job are released or handed over
+     * @throws InterruptedException
+     */
+    public synchronized Permit acquire(long bytes, int priority) throws InterruptedException {
+        boolean isHigh = priority == PRIORITY_HIGH;
+        if (isHigh) {
+            waitingHighCount++;
+        } else {
+            waitingLowCount++;
+        }
+        try {
+            while (!canAdmit(bytes, isHigh)) {
+                wait();
+            }
+        } finally {
+            if (isHigh) {
+                waitingHighCount--;
+            } else {
+                waitingLowCount--;
+            }
+            // The admission order changed, let the others check again
+            notifyAll();
+        }
+        return admit(bytes);
+    }
+
+    /**
+     * Reserve the bytes only if they fit now
+     *
+     * @param bytes
+     * @return null if the budget is used up
+     */
+    public synchronized Permit tryAcquire(long bytes) {
+        return canAdmit(bytes, waitingHighCount == 0) ? admit(bytes) : null;
+    }
+
+    private boolean canAdmit(long bytes, boolean isHigh) {
+        if (!isHigh && waitingHighCount > 0) {
+            return false;
+        }
+        return activeCount == 0 || usedBytes + bytes <= budgetBytes;
+    }
+
+    private Permit admit(long bytes) {
+        usedBytes += bytes;
+        activeCount++;
+        admittedCount++;
+        peakBytes = Math.max(peakBytes, usedBytes);
+        return new Permit(this, bytes);
+    }
+
+    private synchronized void release(long bytes) {
+        usedBytes -= bytes;
+        activeCount--;
+        notifyAll();
+    }
+
+    public synchronized long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized long getPeakBytes() {
+        return peakBytes;
+    }
+
+    public synchronized int getActiveCount() {
+        return activeCount;
+    }
+
+    public synchronized int getWaitingCount() {
+        return waitingHighCount + waitingLowCount;
+    }
+
+    public synchronized long getAdmittedCount() {
+        return admittedCount;
+    }
+
+    public synchronized long getDownsampledCount() {
+        return downsampledCount;
+    }
+
+    public void logStats() {
+        Log.i(TAG, toString());
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "BitmapMemoryBudget{used=" + usedBytes + ", peak=" + peakBytes + ", budget=" + budgetBytes
+                + ", active=" + activeCount + ", waiting=" + (waitingHighCount + waitingLowCount)
+                + ", admitted=" + admittedCount + ", downsampled=" + downsampledCount + "}";
+    }
+
+    /**
+     * A reservation，closing it more than once has no effect
+     */
+    public static final class Permit implements Closeable {
+        private final BitmapMemoryBudget budget;
+        private final long bytes;
+        private boolean isReleased;
+
+        private Permit(BitmapMemoryBudget budget, long bytes) {
+            this.budget = budget;
+            this.bytes = bytes;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (isReleased) {
+                    return;
+                }
+                isReleased = true;
+            }
+            budget.release(bytes);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.yalantis.ucrop.util;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 21:15
+ * @describe：Size-bucketed pool of mutable bitmaps，fed to BitmapFactory.Options#inBitmap and used
+ * for the rotate, scale and crop intermediates of compression and cropping instead of new allocations
+ */
+public final class BitmapPool {
+    private static final String TAG = "BitmapPool";
+    /**
+     * A pooled bitmap is only handed out for a request at least 1/OVERSIZE_FACTOR of its size
+     */
+    private static final int OVERSIZE_FACTOR = 2;
+
+    private static volatile BitmapPool instance;
+
+    private long maxSize;
+    private long size;
+    /**
+     * config -> allocation byte count -> bitmaps
+     */
+    private final Map<Bitmap.Config, TreeMap<Integer, ArrayDeque<Bitmap>>> buckets = new HashMap<>();
+    /**
+     * Put order，the eldest is evicted first
+     */
+    private final LinkedList<Bitmap> lru = new LinkedList<>();
+
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    private long evictionCount;
+
+    private BitmapPool() {
+        this.maxSize = Runtime.getRuntime().maxMemory() / 8;
+    }
+
+    public static BitmapPool getInstance() {
+        if (instance == null) {
+            synchronized (BitmapPool.class) {
+                if (instance == null) {
+                    instance = new BitmapPool();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * A mutable，fully transparent bitmap of exactly this size and config，from the pool or newly allocated
+     *
+     * @param width
+     * @param height
+     * @param config null for ARGB_8888
+     * @return
+     */
+    public Bitmap get(int width, int height, Bitmap.Config config) {
+        Bitmap.Config bitmapConfig = config != null ? config : Bitmap.Config.ARGB_8888;
+        Bitmap bitmap = take(BitmapMemoryBudget.estimateBytes(width, height, 1, bitmapConfig), bitmapConfig);
+        if (bitmap != null) {
+            try {
+                bitmap.reconfigure(width, height, bitmapConfig);
+                //清掉上一张图片的像素,否则会从透明区域和越界的边缘透出来
+                bitmap.eraseColor(0);
+                return bitmap;
+            } catch (IllegalArgumentException e) {
+                bitmap.recycle();
+            }
+        }
+        return Bitmap.createBitmap(width, height, bitmapConfig);
+    }
+
+    /**
+     * Set inBitmap and inMutable for a decode of the given source size，if the pool has a fit
+     * # Call {@link #decodeFailed(BitmapFactory.Options)} and decode again if the decoder rejects it
+     *
+     * @param options      with inSampleSize already set
+     * @param sourceWidth
+     * @param sourceHeight
+     */
+    public void prepareDecode(BitmapFactory.Options options, int sourceWidth, int sourceHeight) {
+        options.inMutable = true;
+        Bitmap.Config config = options.inPreferredConfig != null ? options.inPreferredConfig : Bitmap.Config.ARGB_8888;
+        long bytes = BitmapMemoryBudget.estimateBytes(sourceWidth, sourceHeight, options.inSampleSize, config);
+        options.inBitmap = bytes > 0 ? take(bytes, config) : null;
+    }
+
+    /**
+     * The decoder rejected inBitmap，it is returned to the pool and the next decode allocates
+     *
+     * @param options
+     */
+    public void decodeFailed(BitmapFactory.Options options) {
+        if (options.inBitmap != null) {
+            put(options.inBitmap);
+            options.inBitmap = null;
+        }
+    }
+
+    /**
+     * Same result as Bitmap.createBitmap(source, 0, 0, width, height, matrix, filter)，
+     * drawn into a pooled bitmap
+     *
+     * @param source
+     * @param matrix
+     * @param filter
+     * @return
+     */
+    public Bitmap transform(Bitmap source, Matrix matrix, boolean filter) {
+        RectF bounds = new RectF(0, 0, source.getWidth(), source.getHeight());
+        matrix.mapRect(bounds);
+        int width = Math.round(bounds.width());
+        int height = Math.round(bounds.height());
+        boolean isRectStaysRect = matrix.rectStaysRect();
+        Bitmap.Config config = isRectStaysRect && source.getConfig() != null ? source.getConfig() : Bitmap.Config.ARGB_8888;
+        Bitmap target = get(width, height, config);
+        target.setDensity(source.getDensity());
+        target.setHasAlpha(source.hasAlpha() || !isRectStaysRect);
+        Matrix drawMatrix = new Matrix(matrix);
+        drawMatrix.postTranslate(-bounds.left, -bounds.top);
+        Canvas canvas = new Canvas(target);
+        canvas.drawBitmap(source, drawMatrix, filter ? new Paint(Paint.FILTER_BITMAP_FLAG) : null);
+        canvas.setBitmap(null);
+        return target;
+    }
+
+    /**
+     * Same result as Bitmap.createBitmap(source, x, y, width, height)，copied into a pooled bitmap
+     *
+     * @param source
+     * @param x
+     * @param y
+     * @param width
+     * @param height
+     * @return
+     */
+    public Bitmap crop(Bitmap source, int x, int y, int width, int height) {
+        if (x < 0 || y < 0) {
+            throw new IllegalArgumentException("x and y must be >= 0");
+        }
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("width and height must be > 0");
+        }
+        if (x + width > source.getWidth()) {
+            throw new IllegalArgumentException("x + width must be <= bitmap.width()");
+        }
+        if (y + height > source.getHeight()) {
+            throw new IllegalArgumentException("y + height must be <= bitmap.height()");
+        }
+        Bitmap target = get(width, height, source.getConfig());
+        target.setDensity(source.getDensity());
+        target.setHasAlpha(source.hasAlpha());
+        Canvas canvas = new Canvas(target);
+        canvas.drawBitmap(source, -x, -y, null);
+        canvas.setBitmap(null);
+        return target;
+    }
+
+    /**
+     * Hand a bitmap back，it must not be used by the caller afterwards
+     *
+     * @param bitmap
+     */
+    public synchronized void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) {
+            return;
+        }
+        int bytes = bitmap.getAllocationByteCount();
+        if (!bitmap.isMutable() || bitmap.getConfig() == null || bytes > maxSize / 2) {
+            bitmap.recycle();
+            return;
+        }
+        TreeMap<Integer, ArrayDeque<Bitmap>> configBuckets = buckets.get(bitmap.getConfig());
+        if (configBuckets == null) {
+            configBuckets = new TreeMap<>();
+            buckets.put(bitmap.getConfig(), configBuckets);
+        }
+        ArrayDeque<Bitmap> bucket = configBuckets.get(bytes);
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            configBuckets.put(bytes, bucket);
+        }
+        bucket.push(bitmap);
+        lru.addLast(bitmap);
+        size += bytes;
+        putCount++;
+        trimToSize(maxSize);
+    }
+
+    private synchronized Bitmap take(long bytes, Bitmap.Config config) {
+        TreeMap<Integer, ArrayDeque<Bitmap>> configBuckets = buckets.get(config);
+        if (configBuckets != null && bytes <= Integer.MAX_VALUE) {
+            NavigableMap<Integer, ArrayDeque<Bitmap>> fits = configBuckets.tailMap((int) bytes, true);
+            for (Map.Entry<Integer, ArrayDeque<Bitmap>> entry : fits.entrySet()) {
+                if (entry.getKey() > bytes * OVERSIZE_FACTOR) {
+                    break;
+                }
+                Bitmap bitmap = entry.getValue().poll();
+                if (bitmap != null) {
+                    if (entry.getValue().isEmpty()) {
+                        configBuckets.remove(entry.getKey());
+                    }
+                    lru.remove(bitmap);
+                    size -= entry.getKey();
+                    hitCount++;
+                    return bitmap;
+                }
+            }
+        }
+        missCount++;
+        return null;
+    }
+
+    /**
+     * Connect to ComponentCallbacks2#onTrimMemory
+     *
+     * @param level
+     */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            trimToSize(maxSize / 2);
+        }
+    }
+
+    public void clear() {
+        trimToSize(0);
+    }
+
+    public synchronized void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+        trimToSize(maxSize);
+    }
+
+    private synchronized void trimToSize(long targetSize) {
+        Iterator<Bitmap> iterator = lru.iterator();
+        while (size > targetSize && iterator.hasNext()) {
+            Bitmap bitmap = iterator.next();
+            iterator.remove();
+            int bytes = bitmap.getAllocationByteCount();
+            TreeMap<Integer, ArrayDeque<Bitmap>> configBuckets = buckets.get(bitmap.getConfig());
+            if (configBuckets != null) {
+                ArrayDeque<Bitmap> bucket = configBuckets.get(bytes);
+                if (bucket != null) {
+                    bucket.remove(bitmap);
+                    if (bucket.isEmpty()) {
+                        configBuckets.remove(bytes);
+                    }
+                }
+            }
+            size -= bytes;
+            evictionCount++;
+            bitmap.recycle();
+        }
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Requests the pool could not serve，each one is a new allocation
+     *
+     * @return
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getPutCount() {
+        return putCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public void logStats() {
+        Log.i(TAG, toString());
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "BitmapPool{size=" + size + ", max=" + maxSize + ", hit=" + hitCount + ", miss=" + missCount
+                + ", put=" + putCount + ", evicted=" + evictionCount + "}";
+    }
+}
@@ -0,0 +1,497 @@
+package com.yalantis.ucrop.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 23:10
+ * @describe：Baseline JPEG encoder fed a strip of rows at a time，YCbCr 4:2:0 with the standard Huffman tables.
+ * Rows are buffered until a 16 row band of MCUs is complete，so the memory depends on the width only
+ */
+public final class JpegStripWriter implements StripImageWriter {
+    private static final int MAX_SIZE = 65535;
+    private static final int BAND_HEIGHT = 16;
+    private static final int OUTPUT_BUFFER_SIZE = 8 * 1024;
+
+    private static final int[] ZIGZAG = {
+            0, 1, 8, 16, 9, 2, 3, 10,
+            17, 24, 32, 25, 18, 11, 4, 5,
+            12, 19, 26, 33, 40, 48, 41, 34,
+            27, 20, 13, 6, 7, 14, 21, 28,
+            35, 42, 49, 56, 57, 50, 43, 36,
+            29, 22, 15, 23, 30, 37, 44, 51,
+            58, 59, 52, 45, 38, 31, 39, 46,
+            53, 60, 61, 54, 47, 55, 62, 63
+    };
+
+    private static final int[] LUMINANCE_QUANT = {
+            16, 11, 10, 16, 24, 40, 51, 61,
+            12, 12, 14, 19, 26, 58, 60, 55,
+            14, 13, 16, 24, 40, 57, 69, 56,
+            14, 17, 22, 29, 51, 87, 80, 62,
+            18, 22, 37, 56, 68, 109, 103, 77,
+            24, 35, 55, 64, 81, 104, 113, 92,
+            49, 64, 78, 87, 103, 121, 120, 101,
+            72, 92, 95, 98, 112, 100, 103, 99
+    };
+
+    private static final int[] CHROMINANCE_QUANT = {
+            17, 18, 24, 47, 99, 99, 99, 99,
+            18, 21, 26, 66, 99, 99, 99, 99,
+            24, 26, 56, 99, 99, 99, 99, 99,
+            47, 66, 99, 99, 99, 99, 99, 99,
+            99, 99, 99, 99, 99, 99, 99, 99,
+            99, 99, 99, 99, 99, 99, 99, 99,
+            99, 99, 99, 99, 99, 99, 99, 99,
+            99, 99, 99, 99, 99, 99, 99, 99
+    };
+
+    private static final int[] DC_LUMINANCE_BITS = {0, 1, 5, 1, 1, 1, 1, 1, 1, 0, 0, 0, 0, 0, 0, 0};
+    private static final int[] DC_CHROMINANCE_BITS = {0, 3, 1, 1, 1, 1, 1, 1, 1, 1, 1, 0, 0, 0, 0, 0};
+    private static final int[] DC_VALUES = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
+
+    private static final int[] AC_LUMINANCE_BITS = {0, 2, 1, 3, 3, 2, 4, 3, 5, 5, 4, 4, 0, 0, 1, 0x7d};
+    private static final int[] AC_LUMINANCE_VALUES = {
+            0x01, 0x02, 0x03, 0x00, 0x04, 0x11, 0x05, 0x12, 0x21, 0x31, 0x41, 0x06, 0x13, 0x51, 0x61, 0x07,
+            0x22, 0x71, 0x14, 0x32, 0x81, 0x91, 0xa1, 0x08, 0x23, 0x42, 0xb1, 0xc1, 0x15, 0x52, 0xd1, 0xf0,
+            0x24, 0x33, 0x62, 0x72, 0x82, 0x09, 0x0a, 0x16, 0x17, 0x18, 0x19, 0x1a, 0x25, 0x26, 0x27, 0x28,
+            0x29, 0x2a, 0x34, 0x35, 0x36, 0x37, 0x38, 0x39, 0x3a, 0x43, 0x44, 0x45, 0x46, 0x47, 0x48, 0x49,
+            0x4a, 0x53, 0x54, 0x55, 0x56, 0x57, 0x58, 0x59, 0x5a, 0x63, 0x64, 0x65, 0x66, 0x67, 0x68, 0x69,
+            0x6a, 0x73, 0x74, 0x75, 0x76, 0x77, 0x78, 0x79, 0x7a, 0x83, 0x84, 0x85, 0x86, 0x87, 0x88, 0x89,
+            0x8a, 0x92, 0x93, 0x94, 0x95, 0x96, 0x97, 0x98, 0x99, 0x9a, 0xa2, 0xa3, 0xa4, 0xa5, 0xa6, 0xa7,
+            0xa8, 0xa9, 0xaa, 0xb2, 0xb3, 0xb4, 0xb5, 0xb6, 0xb7, 0xb8, 0xb9, 0xba, 0xc2, 0xc3, 0xc4, 0xc5,
+            0xc6, 0xc7, 0xc8, 0xc9, 0xca, 0xd2, 0xd3, 0xd4, 0xd5, 0xd6, 0xd7, 0xd8, 0xd9, 0xda, 0xe1, 0xe2,
+            0xe3, 0xe4, 0xe5, 0xe6, 0xe7, 0xe8, 0xe9, 0xea, 0xf1, 0xf2, 0xf3, 0xf4, 0xf5, 0xf6, 0xf7, 0xf8,
+            0xf9, 0xfa
+    };
+
+    private static final int[] AC_CHROMINANCE_BITS = {0, 2, 1, 2, 4, 4, 3, 4, 7, 5, 4, 4, 0, 1, 2, 0x77};
+    private static final int[] AC_CHROMINANCE_VALUES = {
+            0x00, 0x01, 0x02, 0x03, 0x11, 0x04, 0x05, 0x21, 0x31, 0x06, 0x12, 0x41, 0x51, 0x07, 0x61, 0x71,
+            0x13, 0x22, 0x32, 0x81, 0x08, 0x14, 0x42, 0x91, 0xa1, 0xb1, 0xc1, 0x09, 0x23, 0x33, 0x52, 0xf0,
+            0x15, 0x62, 0x72, 0xd1, 0x0a, 0x16, 0x24, 0x34, 0xe1, 0x25, 0xf1, 0x17, 0x18, 0x19, 0x1a, 0x26,
+            0x27, 0x28, 0x29, 0x2a, 0x35, 0x36, 0x37, 0x38, 0x39, 0x3a, 0x43, 0x44, 0x45, 0x46, 0x47, 0x48,
+            0x49, 0x4a, 0x53, 0x54, 0x55, 0x56, 0x57, 0x58, 0x59, 0x5a, 0x63, 0x64, 0x65, 0x66, 0x67, 0x68,
+            0x69, 0x6a, 0x73, 0x74, 0x75, 0x76, 0x77, 0x78, 0x79, 0x7a, 0x82, 0x83, 0x84, 0x85, 0x86, 0x87,
+            0x88, 0x89, 0x8a, 0x92, 0x93, 0x94, 0x95, 0x96, 0x97, 0x98, 0x99, 0x9a, 0xa2, 0xa3, 0xa4, 0xa5,
+            0xa6, 0xa7, 0xa8, 0xa9, 0xaa, 0xb2, 0xb3, 0xb4, 0xb5, 0xb6, 0xb7, 0xb8, 0xb9, 0xba, 0xc2, 0xc3,
+            0xc4, 0xc5, 0xc6, 0xc7, 0xc8, 0xc9, 0xca, 0xd2, 0xd3, 0xd4, 0xd5, 0xd6, 0xd7, 0xd8, 0xd9, 0xda,
+            0xe2, 0xe3, 0xe4, 0xe5, 0xe6, 0xe7, 0xe8, 0xe9, 0xea, 0xf2, 0xf3, 0xf4, 0xf5, 0xf6, 0xf7, 0xf8,
+            0xf9, 0xfa
+    };
+
+    /**
+     * Row and column factors of the AAN forward DCT，folded into the quantization divisors
+     */
+    private static final double[] AAN_SCALE = {
+            1.0, 1.387039845, 1.306562965, 1.175875602,
+            1.0, 0.785694958, 0.541196100, 0.275899379
+    };
+
+    private final OutputStream out;
+    private final int width;
+    private final int height;
+    /**
+     * The width rounded up to whole MCUs，the columns past the image repeat its last column
+     */
+    private final int bandWidth;
+    private final float[] luminanceBand;
+    private final float[] blueBand;
+    private final float[] redBand;
+    private int bandRows;
+    private int writtenRows;
+
+    private final int[] luminanceQuant = new int[64];
+    private final int[] chrominanceQuant = new int[64];
+    private final float[] luminanceDivisors = new float[64];
+    private final float[] chrominanceDivisors = new float[64];
+    private final HuffmanTable dcLuminance = new HuffmanTable(DC_LUMINANCE_BITS, DC_VALUES);
+    private final HuffmanTable acLuminance = new HuffmanTable(AC_LUMINANCE_BITS, AC_LUMINANCE_VALUES);
+    private final HuffmanTable dcChrominance = new HuffmanTable(DC_CHROMINANCE_BITS, DC_VALUES);
+    private final HuffmanTable acChrominance = new HuffmanTable(AC_CHROMINANCE_BITS, AC_CHROMINANCE_VALUES);
+    private int previousLuminanceDc;
+    private int previousBlueDc;
+    private int previousRedDc;
+
+    private final float[] block = new float[64];
+    private final int[] coefficients = new int[64];
+    private final byte[] buffer = new byte[OUTPUT_BUFFER_SIZE];
+    private int bufferLength;
+    private int bitBuffer;
+    private int bitCount;
+    private boolean isClosed;
+
+    /**
+     * @param out
+     * @param width
+     * @param height
+     * @param quality 0 - 100，scaled like libjpeg does
+     * @throws IOException
+     */
+    public JpegStripWriter(OutputStream out, int width, int height, int quality) throws IOException {
+        if (width <= 0 || height <= 0 || width > MAX_SIZE || height > MAX_SIZE) {
+            throw new IllegalArgumentException("Invalid size: " + width + "x" + height);
+        }
+        this.out = out;
+        this.width = width;
+        this.height = height;
+        this.bandWidth = (width + BAND_HEIGHT - 1) / BAND_HEIGHT * BAND_HEIGHT;
+        this.luminanceBand = new float[bandWidth * BAND_HEIGHT];
+        this.blueBand = new float[bandWidth * BAND_HEIGHT];
+        this.redBand = new float[bandWidth * BAND_HEIGHT];
+        initQuantization(quality);
+        writeHeaders();
+    }
+
+    private void initQuantization(int quality) {
+        quality = Math.max(1, Math.min(100, quality));
+        int scale = quality < 50 ? 5000 / quality : 200 - quality * 2;
+        for (int i = 0; i < 64; i++) {
+            luminanceQuant[i] = Math.max(1, Math.min(255, (LUMINANCE_QUANT[i] * scale + 50) / 100));
+            chrominanceQuant[i] = Math.max(1, Math.min(255, (CHROMINANCE_QUANT[i] * scale + 50) / 100));
+            double aan = AAN_SCALE[i >> 3] * AAN_SCALE[i & 7] * 8;
+            luminanceDivisors[i] = (float) (1 / (luminanceQuant[i] * aan));
+            chrominanceDivisors[i] = (float) (1 / (chrominanceQuant[i] * aan));
+        }
+    }
+
+    @Override
+    public void writeRows(int[] argb, int offset, int stride, int rowCount) throws IOException {
+        if (writtenRows + rowCount > height) {
+            throw new IllegalStateException("More rows than the height: " + height);
+        }
+        for (int y = 0; y < rowCount; y++) {
+            putRow(argb, offset + y * stride, bandRows++);
+            writtenRows++;
+            if (bandRows == BAND_HEIGHT) {
+                encodeBand();
+                bandRows = 0;
+            }
+        }
+    }
+
+    /**
+     * Convert one row to YCbCr into the band，the luminance level shifted by -128
+     */
+    private void putRow(int[] argb, int start, int bandRow) {
+        int index = bandRow * bandWidth;
+        for (int x = 0; x < bandWidth; x++, index++) {
+            int color = argb[start + Math.min(x, width - 1)];
+            int r = (color >> 16) & 0xFF;
+            int g = (color >> 8) & 0xFF;
+            int b = color & 0xFF;
+            luminanceBand[index] = 0.299f * r + 0.587f * g + 0.114f * b - 128;
+            blueBand[index] = -0.168736f * r - 0.331264f * g + 0.5f * b;
+            redBand[index] = 0.5f * r - 0.418688f * g - 0.081312f * b;
+        }
+    }
+
+    private void encodeBand() throws IOException {
+        for (int mcuX = 0; mcuX < bandWidth; mcuX += BAND_HEIGHT) {
+            for (int blockY = 0; blockY < BAND_HEIGHT; blockY += 8) {
+                for (int blockX = mcuX; blockX < mcuX + BAND_HEIGHT; blockX += 8) {
+                    for (int y = 0; y < 8; y++) {
+                        System.arraycopy(luminanceBand, (blockY + y) * bandWidth + blockX, block, y * 8, 8);
+                    }
+                    previousLuminanceDc = encodeBlock(luminanceDivisors, previousLuminanceDc,
+                            dcLuminance, acLuminance);
+                }
+            }
+            subsample(blueBand, mcuX);
+            previousBlueDc = encodeBlock(chrominanceDivisors, previousBlueDc, dcChrominance, acChrominance);
+            subsample(redBand, mcuX);
+            previousRedDc = encodeBlock(chrominanceDivisors, previousRedDc, dcChrominance, acChrominance);
+        }
+    }
+
+    /**
+     * Average 2x2 samples of a 16x16 MCU into one 8x8 block
+     */
+    private void subsample(float[] band, int mcuX) {
+        for (int y = 0; y < 8; y++) {
+            int top = y * 2 * bandWidth + mcuX;
+            int bottom = top + bandWidth;
+            for (int x = 0; x < 8; x++) {
+                int column = x * 2;
+                block[y * 8 + x] = (band[top + column] + band[top + column + 1]
+                        + band[bottom + column] + band[bottom + column + 1]) * 0.25f;
+            }
+        }
+    }
+
+    /**
+     * Transform, quantize and entropy code {@link #block}
+     *
+     * @return the DC coefficient，the next block of the component is coded against it
+     */
+    private int encodeBlock(float[] divisors, int previousDc, HuffmanTable dc, HuffmanTable ac) throws IOException {
+        forwardDct(block);
+        for (int i = 0; i < 64; i++) {
+            int natural = ZIGZAG[i];
+            coefficients[i] = Math.round(block[natural] * divisors[natural]);
+        }
+        int dcValue = Math.max(-2047, Math.min(2047, coefficients[0]));
+        int diff = dcValue - previousDc;
+        int size = bitLength(diff);
+        writeCode(dc, size);
+        writeValue(diff, size);
+
+        int run = 0;
+        for (int i = 1; i < 64; i++) {
+            int value = coefficients[i];
+            if (value == 0) {
+                run++;
+                continue;
+            }
+            while (run > 15) {
+                writeCode(ac, 0xF0);
+                run -= 16;
+            }
+            value = Math.max(-1023, Math.min(1023, value));
+            size = bitLength(value);
+            writeCode(ac, (run << 4) | size);
+            writeValue(value, size);
+            run = 0;
+        }
+        if (run > 0) {
+            writeCode(ac, 0x00);
+        }
+        return dcValue;
+    }
+
+    /**
+     * AAN float forward DCT in place，the outputs are scaled by 8 and the AAN factors
+     */
+    private static void forwardDct(float[] data) {
+        for (int pass = 0; pass < 2; pass++) {
+            int step = pass == 0 ? 1 : 8;
+            int next = pass == 0 ? 8 : 1;
+            for (int line = 0, base = 0; line < 8; line++, base += next) {
+                int i0 = base, i1 = base + step, i2 = base + 2 * step, i3 = base + 3 * step;
+                int i4 = base + 4 * step, i5 = base + 5 * step, i6 = base + 6 * step, i7 = base + 7 * step;
+                float tmp0 = data[i0] + data[i7];
+                float tmp7 = data[i0] - data[i7];
+                float tmp1 = data[i1] + data[i6];
+                float tmp6 = data[i1] - data[i6];
+                float tmp2 = data[i2] + data[i5];
+                float tmp5 = data[i2] - data[i5];
+                float tmp3 = data[i3] + data[i4];
+                float tmp4 = data[i3] - data[i4];
+
+                float tmp10 = tmp0 + tmp3;
+                float tmp13 = tmp0 - tmp3;
+                float tmp11 = tmp1 + tmp2;
+                float tmp12 = tmp1 - tmp2;
+                data[i0] = tmp10 + tmp11;
+                data[i4] = tmp10 - tmp11;
+                float z1 = (tmp12 + tmp13) * 0.707106781f;
+                data[i2] = tmp13 + z1;
+                data[i6] = tmp13 - z1;
+
+                tmp10 = tmp4 + tmp5;
+                tmp11 = tmp5 + tmp6;
+                tmp12 = tmp6 + tmp7;
+                float z5 = (tmp10 - tmp12) * 0.382683433f;
+                float z2 = 0.541196100f * tmp10 + z5;
+                float z4 = 1.306562965f * tmp12 + z5;
+                float z3 = tmp11 * 0.707106781f;
+                float z11 = tmp7 + z3;
+                float z13 = tmp7 - z3;
+                data[i5] = z13 + z2;
+                data[i3] = z13 - z2;
+                data[i1] = z11 + z4;
+                data[i7] = z11 - z4;
+            }
+        }
+    }
+
+    private static int bitLength(int value) {
+        return 32 - Integer.numberOfLeadingZeros(Math.abs(value));
+    }
+
+    private void writeCode(HuffmanTable table, int symbol) throws IOException {
+        writeBits(table.codes[symbol], table.sizes[symbol]);
+    }
+
+    /**
+     * The low bits of a coefficient，negative values as their one's complement
+     */
+    private void writeValue(int value, int size) throws IOException {
+        if (size > 0) {
+            writeBits(value < 0 ? value - 1 : value, size);
+        }
+    }
+
+    private void writeBits(int bits, int size) throws IOException {
+        bitBuffer = (bitBuffer << size) | (bits & ((1 << size) - 1));
+        bitCount += size;
+        while (bitCount >= 8) {
+            int b = (bitBuffer >> (bitCount - 8)) & 0xFF;
+            writeByte(b);
+            if (b == 0xFF) {
+                // A 0xFF in the entropy coded data is followed by a stuffed zero
+                writeByte(0);
+            }
+            bitCount -= 8;
+        }
+        bitBuffer &= (1 << bitCount) - 1;
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (bufferLength == buffer.length) {
+            out.write(buffer, 0, bufferLength);
+            bufferLength = 0;
+        }
+        buffer[bufferLength++] = (byte) b;
+    }
+
+    private void writeShort(int value) throws IOException {
+        writeByte(value >> 8);
+        writeByte(value);
+    }
+
+    private void writeMarker(int marker, int length) throws IOException {
+        writeByte(0xFF);
+        writeByte(marker);
+        writeShort(length);
+    }
+
+    private void writeHeaders() throws IOException {
+        // SOI
+        writeByte(0xFF);
+        writeByte(0xD8);
+        // APP0 JFIF 1.1，no density，no thumbnail
+        writeMarker(0xE0, 16);
+        writeByte('J');
+        writeByte('F');
+        writeByte('I');
+        writeByte('F');
+        writeByte(0);
+        writeByte(1);
+        writeByte(1);
+        writeByte(0);
+        writeShort(1);
+        writeShort(1);
+        writeByte(0);
+        writeByte(0);
+        // DQT，in zigzag order
+        writeMarker(0xDB, 2 + 2 * 65);
+        writeByte(0);
+        for (int i = 0; i < 64; i++) {
+            writeByte(luminanceQuant[ZIGZAG[i]]);
+        }
+        writeByte(1);
+        for (int i = 0; i < 64; i++) {
+            writeByte(chrominanceQuant[ZIGZAG[i]]);
+        }
+        // SOF0，Y sampled 2x2，Cb and Cr 1x1
+        writeMarker(0xC0, 17);
+        writeByte(8);
+        writeShort(height);
+        writeShort(width);
+        writeByte(3);
+        writeByte(1);
+        writeByte(0x22);
+        writeByte(0);
+        writeByte(2);
+        writeByte(0x11);
+        writeByte(1);
+        writeByte(3);
+        writeByte(0x11);
+        writeByte(1);
+        // DHT
+        writeMarker(0xC4, 2 + dcLuminance.length() + acLuminance.length()
+                + dcChrominance.length() + acChrominance.length());
+        dcLuminance.write(0x00);
+        acLuminance.write(0x10);
+        dcChrominance.write(0x01);
+        acChrominance.write(0x11);
+        // SOS，full spectral range
+        writeMarker(0xDA, 12);
+        writeByte(3);
+        writeByte(1);
+        writeByte(0x00);
+        writeByte(2);
+        writeByte(0x11);
+        writeByte(3);
+        writeByte(0x11);
+        writeByte(0);
+        writeByte(63);
+        writeByte(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        try {
+            if (writtenRows != height) {
+                throw new IllegalStateException("Rows written: " + writtenRows + ", height: " + height);
+            }
+            if (bandRows > 0) {
+                // The last band repeats the last row of the image
+                int last = (bandRows - 1) * bandWidth;
+                for (int row = bandRows; row < BAND_HEIGHT; row++) {
+                    System.arraycopy(luminanceBand, last, luminanceBand, row * bandWidth, bandWidth);
+                    System.arraycopy(blueBand, last, blueBand, row * bandWidth, bandWidth);
+                    System.arraycopy(redBand, last, redBand, row * bandWidth, bandWidth);
+                }
+                encodeBand();
+                bandRows = 0;
+            }
+            if (bitCount > 0) {
+                // Pad the last byte with ones
+                writeBits(0x7F, 8 - bitCount);
+            }
+            // EOI
+            writeByte(0xFF);
+            writeByte(0xD9);
+            out.write(buffer, 0, bufferLength);
+            bufferLength = 0;
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Canonical codes built from the count of codes of each length and the symbols in code order
+     */
+    private final class HuffmanTable {
+        private final int[] bits;
+        private final int[] values;
+        private final int[] codes = new int[256];
+        private final int[] sizes = new int[256];
+
+        private HuffmanTable(int[] bits, int[] values) {
+            this.bits = bits;
+            this.values = values;
+            int code = 0;
+            int index = 0;
+            for (int length = 1; length <= 16; length++) {
+                for (int i = 0; i < bits[length - 1]; i++) {
+                    codes[values[index]] = code++;
+                    sizes[values[index]] = length;
+                    index++;
+                }
+                code <<= 1;
+            }
+        }
+
+        private int length() {
+            return 1 + 16 + values.length;
+        }
+
+        private void write(int tableClass) throws IOException {
+            writeByte(tableClass);
+            for (int count : bits) {
+                writeByte(count);
+            }
+            for (int value : values) {
+                writeByte(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.yalantis.ucrop.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 23:10
+ * @describe：RGBA PNG encoder fed a strip of rows at a time，each row is filtered and deflated as it arrives，
+ * only one row and one IDAT chunk are held
+ */
+public final class PngStripWriter implements StripImageWriter {
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int BYTES_PER_PIXEL = 4;
+    private static final int CHUNK_SIZE = 64 * 1024;
+    /**
+     * Each byte is stored as the difference to the byte of the pixel on its left
+     */
+    private static final int FILTER_SUB = 1;
+
+    private final OutputStream out;
+    private final int width;
+    private final int height;
+    private final byte[] row;
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+    private int chunkLength;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final CRC32 crc = new CRC32();
+    private int writtenRows;
+    private boolean isClosed;
+
+    public PngStripWriter(OutputStream out, int width, int height) throws IOException {
+        if (width <= 0 || height <= 0 || (long) width * BYTES_PER_PIXEL + 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid size: " + width + "x" + height);
+        }
+        this.out = out;
+        this.width = width;
+        this.height = height;
+        this.row = new byte[1 + width * BYTES_PER_PIXEL];
+        out.write(SIGNATURE);
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        // 8 bit depth, truecolor with alpha, deflate, adaptive filtering, no interlace
+        header[8] = 8;
+        header[9] = 6;
+        writeChunk("IHDR", header, header.length);
+    }
+
+    @Override
+    public void writeRows(int[] argb, int offset, int stride, int rowCount) throws IOException {
+        if (writtenRows + rowCount > height) {
+            throw new IllegalStateException("More rows than the height: " + height);
+        }
+        for (int y = 0; y < rowCount; y++) {
+            int start = offset + y * stride;
+            row[0] = FILTER_SUB;
+            for (int x = 0, i = 1; x < width; x++) {
+                int color = argb[start + x];
+                row[i++] = (byte) (color >> 16);
+                row[i++] = (byte) (color >> 8);
+                row[i++] = (byte) color;
+                row[i++] = (byte) (color >>> 24);
+            }
+            // Back to front, so each byte is diffed against the unfiltered byte on its left
+            for (int i = row.length - 1; i > BYTES_PER_PIXEL; i--) {
+                row[i] -= row[i - BYTES_PER_PIXEL];
+            }
+            deflater.setInput(row);
+            while (!deflater.needsInput()) {
+                deflate();
+            }
+            writtenRows++;
+        }
+    }
+
+    private void deflate() throws IOException {
+        chunkLength += deflater.deflate(chunk, chunkLength, chunk.length - chunkLength);
+        if (chunkLength == chunk.length) {
+            writeChunk("IDAT", chunk, chunkLength);
+            chunkLength = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        try {
+            if (writtenRows != height) {
+                throw new IllegalStateException("Rows written: " + writtenRows + ", height: " + height);
+            }
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate();
+            }
+            if (chunkLength > 0) {
+                writeChunk("IDAT", chunk, chunkLength);
+            }
+            writeChunk("IEND", chunk, 0);
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes("US-ASCII");
+        byte[] lengthBytes = new byte[4];
+        putInt(lengthBytes, 0, length);
+        out.write(lengthBytes);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        crc.reset();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        byte[] crcBytes = new byte[4];
+        putInt(crcBytes, 0, (int) crc.getValue());
+        out.write(crcBytes);
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+}
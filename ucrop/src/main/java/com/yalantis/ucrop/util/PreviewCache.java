@@ -0,0 +1,203 @@
+package com.yalantis.ucrop.util;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yalantis.ucrop.model.ExifInfo;
+import com.yalantis.ucrop.model.ImageState;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author：luck
+ * @date：2026-10-18 00:40
+ * @describe：Decoded，EXIF-transformed crop previews keyed by input uri，least recently used evicted first once over
+ * the byte limit，plus the crop state the user left each image in. An evicted preview is only dropped，never recycled
+ * or pooled，since a crop view may still be showing it
+ */
+public final class PreviewCache {
+    private static final String TAG = "PreviewCache";
+
+    private long maxSize;
+    private long size;
+    /**
+     * Access order，the eldest is evicted first
+     */
+    private final LinkedHashMap<String, Entry> previews = new LinkedHashMap<>(8, 0.75f, true);
+    private final Map<String, ImageState> imageStates = new HashMap<>();
+
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    private long evictionCount;
+
+    public PreviewCache() {
+        this(Runtime.getRuntime().maxMemory() / 8);
+    }
+
+    public PreviewCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public static final class Entry {
+        private final Bitmap bitmap;
+        private final ExifInfo exifInfo;
+        private final String inputPath;
+        /**
+         * Taken on put，a recycled bitmap no longer reports its size
+         */
+        private final int bytes;
+
+        private Entry(Bitmap bitmap, ExifInfo exifInfo, String inputPath) {
+            this.bitmap = bitmap;
+            this.exifInfo = exifInfo;
+            this.inputPath = inputPath;
+            this.bytes = bitmap.getAllocationByteCount();
+        }
+
+        public Bitmap getBitmap() {
+            return bitmap;
+        }
+
+        public ExifInfo getExifInfo() {
+            return exifInfo;
+        }
+
+        public String getInputPath() {
+            return inputPath;
+        }
+    }
+
+    /**
+     * @param key
+     * @return null if not cached，or the preview was recycled by a crop meanwhile
+     */
+    @Nullable
+    public synchronized Entry get(@NonNull String key) {
+        Entry entry = previews.get(key);
+        if (entry != null && entry.bitmap.isRecycled()) {
+            remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return entry;
+    }
+
+    public synchronized boolean contains(@NonNull String key) {
+        Entry entry = previews.get(key);
+        return entry != null && !entry.bitmap.isRecycled();
+    }
+
+    /**
+     * @param key
+     * @param bitmap    the preview as shown，EXIF rotation already applied
+     * @param exifInfo
+     * @param inputPath the path the bitmap was decoded from
+     */
+    public synchronized void put(@NonNull String key, @NonNull Bitmap bitmap, @NonNull ExifInfo exifInfo, @NonNull String inputPath) {
+        if (bitmap.isRecycled() || bitmap.getAllocationByteCount() > maxSize) {
+            return;
+        }
+        remove(key);
+        Entry entry = new Entry(bitmap, exifInfo, inputPath);
+        previews.put(key, entry);
+        size += entry.bytes;
+        putCount++;
+        trimToSize(maxSize);
+    }
+
+    private void remove(String key) {
+        Entry entry = previews.remove(key);
+        if (entry != null) {
+            size -= entry.bytes;
+        }
+    }
+
+    public synchronized void putImageState(@NonNull String key, @Nullable ImageState imageState) {
+        if (imageState == null) {
+            imageStates.remove(key);
+        } else {
+            imageStates.put(key, imageState);
+        }
+    }
+
+    @Nullable
+    public synchronized ImageState getImageState(@NonNull String key) {
+        return imageStates.get(key);
+    }
+
+    /**
+     * Connect to ComponentCallbacks2#onTrimMemory，only the previews are released，the crop states are kept
+     *
+     * @param level
+     */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            trimToSize(maxSize / 2);
+        }
+    }
+
+    public void clear() {
+        trimToSize(0);
+    }
+
+    public synchronized void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+        trimToSize(maxSize);
+    }
+
+    private synchronized void trimToSize(long targetSize) {
+        Iterator<Entry> iterator = previews.values().iterator();
+        while (size > targetSize && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            iterator.remove();
+            size -= entry.bytes;
+            evictionCount++;
+        }
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getPutCount() {
+        return putCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public void logStats() {
+        Log.i(TAG, toString());
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PreviewCache{size=" + size + ", max=" + maxSize + ", count=" + previews.size()
+                + ", states=" + imageStates.size() + ", hit=" + hitCount + ", miss=" + missCount
+                + ", put=" + putCount + ", evicted=" + evictionCount + "}";
+    }
+}
@@ -0,0 +1,32 @@
+package com.yalantis.ucrop.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * @author：luck
+ * @date：2026-10-17 23:10
+ * @describe：An image encoder fed from top to bottom a strip of rows at a time，
+ * so an image larger than the heap can be written without holding it as one bitmap
+ */
+public interface StripImageWriter extends Closeable {
+
+    /**
+     * Append rows below the ones already written
+     *
+     * @param argb     colors as Bitmap#getPixels returns them
+     * @param offset   index of the first color of the first row
+     * @param stride   colors between the starts of two rows
+     * @param rowCount
+     * @throws IOException
+     */
+    void writeRows(int[] argb, int offset, int stride, int rowCount) throws IOException;
+
+    /**
+     * Finish the image and close the stream，every row must have been written
+     *
+     * @throws IOException
+     */
+    @Override
+    void close() throws IOException;
+}
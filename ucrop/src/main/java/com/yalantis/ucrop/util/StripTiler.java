@@ -0,0 +1,138 @@
+package com.yalantis.ucrop.util;
+
+/**
+ * @author：luck
+ * @date：2026-10-18 16:20
+ * @describe：Plans the source regions of a strip crop. A rotated strip maps back to a source region about as tall
+ * as the output is wide，so every strip is also split into column tiles until each decoded region fits the budget
+ */
+public final class StripTiler {
+    private static final int BYTES_PER_PIXEL = 4;
+
+    /**
+     * Output -> source，in Matrix#getValues order，affine only
+     */
+    private final float[] inverse;
+    private final int sourceWidth;
+    private final int sourceHeight;
+    private final int width;
+    private final int sampleSize;
+
+    private int stripHeight;
+    private int tileWidth;
+    private long bytes;
+
+    /**
+     * @param inverse      output -> source，as Matrix#getValues returns it
+     * @param sourceWidth
+     * @param sourceHeight
+     * @param width        output width
+     * @param sampleSize   inSampleSize of the region decodes
+     */
+    public StripTiler(float[] inverse, int sourceWidth, int sourceHeight, int width, int sampleSize) {
+        this.inverse = inverse;
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+        this.width = width;
+        this.sampleSize = Math.max(1, sampleSize);
+    }
+
+    /**
+     * Halve the strip height until a full width strip bitmap, its pixel array and the decoded region fit，
+     * if none does，halve it again splitting every strip into the widest column tiles that fit
+     *
+     * @param maxStripHeight
+     * @param minStripHeight also the smallest tile width
+     * @param budgetBytes
+     * @return false if even the smallest strip and tile do not fit
+     */
+    public boolean plan(int maxStripHeight, int minStripHeight, long budgetBytes) {
+        for (stripHeight = maxStripHeight; ; stripHeight = Math.max(minStripHeight, stripHeight / 2)) {
+            if (fit(width, budgetBytes) || stripHeight <= minStripHeight) {
+                break;
+            }
+        }
+        if (bytes <= budgetBytes) {
+            return true;
+        }
+        for (stripHeight = maxStripHeight; ; stripHeight = Math.max(minStripHeight, stripHeight / 2)) {
+            int tile = width;
+            do {
+                tile = Math.max(minStripHeight, tile / 2);
+            } while (!fit(tile, budgetBytes) && tile > minStripHeight);
+            if (bytes <= budgetBytes || stripHeight <= minStripHeight) {
+                return bytes <= budgetBytes;
+            }
+        }
+    }
+
+    private boolean fit(int tileWidth, long budgetBytes) {
+        this.tileWidth = tileWidth;
+        this.bytes = 2L * width * stripHeight * BYTES_PER_PIXEL + estimateRegionBytes(tileWidth, stripHeight);
+        return bytes <= budgetBytes;
+    }
+
+    /**
+     * Bytes of the decode of one tile，sized as if not cut by the source bounds
+     *
+     * @param tileWidth
+     * @param stripHeight
+     * @return
+     */
+    public long estimateRegionBytes(int tileWidth, int stripHeight) {
+        float[] bounds = mapRect(0, 0, tileWidth, stripHeight);
+        long regionWidth = Math.min(sourceWidth, (long) Math.ceil(bounds[2] - bounds[0]) + 2L * sampleSize);
+        long regionHeight = Math.min(sourceHeight, (long) Math.ceil(bounds[3] - bounds[1]) + 2L * sampleSize);
+        return ((regionWidth + sampleSize - 1) / sampleSize) * ((regionHeight + sampleSize - 1) / sampleSize) * BYTES_PER_PIXEL;
+    }
+
+    /**
+     * The source region of an output rect，one sample pixel wider on every side for filtered sampling
+     *
+     * @param left
+     * @param top
+     * @param right
+     * @param bottom
+     * @return {left, top, right, bottom}，null if outside of the source
+     */
+    public int[] getRegion(int left, int top, int right, int bottom) {
+        float[] bounds = mapRect(left, top, right, bottom);
+        int regionLeft = Math.max(0, (int) Math.floor(bounds[0]) - sampleSize);
+        int regionTop = Math.max(0, (int) Math.floor(bounds[1]) - sampleSize);
+        int regionRight = Math.min(sourceWidth, (int) Math.ceil(bounds[2]) + sampleSize);
+        int regionBottom = Math.min(sourceHeight, (int) Math.ceil(bounds[3]) + sampleSize);
+        if (regionLeft >= regionRight || regionTop >= regionBottom) {
+            return null;
+        }
+        return new int[]{regionLeft, regionTop, regionRight, regionBottom};
+    }
+
+    private float[] mapRect(float left, float top, float right, float bottom) {
+        float[] points = {left, top, right, top, left, bottom, right, bottom};
+        float[] bounds = {Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        for (int i = 0; i < points.length; i += 2) {
+            float x = inverse[0] * points[i] + inverse[1] * points[i + 1] + inverse[2];
+            float y = inverse[3] * points[i] + inverse[4] * points[i + 1] + inverse[5];
+            bounds[0] = Math.min(bounds[0], x);
+            bounds[1] = Math.min(bounds[1], y);
+            bounds[2] = Math.max(bounds[2], x);
+            bounds[3] = Math.max(bounds[3], y);
+        }
+        return bounds;
+    }
+
+    public int getStripHeight() {
+        return stripHeight;
+    }
+
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    /**
+     * Strip bitmap, pixel array and one decoded tile of the plan
+     */
+    public long getBytes() {
+        return bytes;
+    }
+}
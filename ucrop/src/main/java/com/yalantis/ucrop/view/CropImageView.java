@@ -23,7 +23,6 @@ import com.yalantis.ucrop.util.RectUtils;
 
 import java.lang.ref.WeakReference;
 import java.util.Arrays;
-import java.util.concurrent.Executors;
 
 /**
  * Created by Oleksii Shliama (https://github.com/shliama).
@@ -73,6 +72,15 @@ public class CropImageView extends TransformImageView {
      */
     private float mMaxScale, mMinScale;
     private int mMaxResultImageSizeX = 0, mMaxResultImageSizeY = 0;
+    private boolean mIsFullResolutionCrop;
+    /**
+     * 正在裁剪保存的任务
+     */
+    private BitmapCropTask mCropTask;
+    /**
+     * 图片布局完成后恢复到的裁剪状态
+     */
+    private ImageState mSavedImageState;
     private long mImageToWrapCropBoundsAnimDuration = DEFAULT_IMAGE_TO_CROP_BOUNDS_ANIM_DURATION;
 
     public CropImageView(Context context) {
@@ -112,10 +120,46 @@ public class CropImageView extends TransformImageView {
                 mMaxResultImageSizeX, mMaxResultImageSizeY,
                 compressFormat, compressQuality,
                 getImageInputPath(), getImageOutputPath(), getExifInfo());
+        cropParameters.setFullResolution(mIsFullResolutionCrop);
+
+        //剪裁操作放到裁剪线程中执行,将原图片,裁剪信息和约束参数传入
+        if (mCropTask != null) {
+            mCropTask.cancel();
+        }
+        mCropTask = new BitmapCropTask(getContext(), getViewBitmap(), imageState, cropParameters, cropCallback);
+        mCropTask.execute();
+    }
+
+    /**
+     * 当前的裁剪状态,用于再次打开同一张图片时恢复
+     *
+     * @return null 图片还没有布局完成
+     */
+    @Nullable
+    public ImageState getImageState() {
+        if (!mBitmapLaidOut) {
+            return null;
+        }
+        return new ImageState(new RectF(mCropRect), RectUtils.trapToRect(mCurrentImageCorners),
+                getCurrentScale(), getCurrentAngle());
+    }
+
+    /**
+     * 图片布局完成后恢复到{@link #getImageState()}保存的状态,裁剪框大小变了则不恢复
+     *
+     * @param imageState
+     */
+    public void setSavedImageState(@Nullable ImageState imageState) {
+        mSavedImageState = imageState;
+    }
 
-        //剪裁操作放到AsyncTask中执行,将原图片,裁剪信息和约束参数传入
-        new BitmapCropTask(getContext(), getViewBitmap(), imageState, cropParameters, cropCallback)
-                .executeOnExecutor(Executors.newCachedThreadPool());
+    @Override
+    public void cancelTasks() {
+        super.cancelTasks();
+        if (mCropTask != null) {
+            mCropTask.cancel();
+            mCropTask = null;
+        }
     }
 
     /**
@@ -217,6 +261,16 @@ public class CropImageView extends TransformImageView {
         mMaxResultImageSizeY = maxResultImageSizeY;
     }
 
+    /**
+     * This method sets whether the crop is decoded from the original image instead of the view bitmap
+     * 是否从原图解码裁剪区域,输出原图分辨率
+     *
+     * @param isFullResolutionCrop
+     */
+    public void setFullResolutionCrop(boolean isFullResolutionCrop) {
+        mIsFullResolutionCrop = isFullResolutionCrop;
+    }
+
     /**
      * This method sets animation duration for image to wrap the crop bounds
      * 图片填充空白动画的持续时间
@@ -495,6 +549,9 @@ public class CropImageView extends TransformImageView {
         calculateImageScaleBounds(drawableWidth, drawableHeight);
         //计算图片初始位置
         setupInitialImagePosition(drawableWidth, drawableHeight);
+        if (mSavedImageState != null) {
+            restoreImageState(mSavedImageState);
+        }
 
         if (mCropBoundsChangeListener != null) {
             mCropBoundsChangeListener.onCropAspectRatioChanged(mTargetAspectRatio);
@@ -630,6 +687,26 @@ public class CropImageView extends TransformImageView {
         setImageMatrix(mCurrentImageMatrix);
     }
 
+    /**
+     * 从初始位置旋转、缩放到保存的角度和比例,再把图片中心移回保存的位置
+     *
+     * @param imageState
+     */
+    private void restoreImageState(@NonNull ImageState imageState) {
+        RectF cropRect = imageState.getCropRect();
+        if (Math.abs(cropRect.width() - mCropRect.width()) > 1
+                || Math.abs(cropRect.height() - mCropRect.height()) > 1) {
+            return;
+        }
+        postRotate(imageState.getCurrentAngle() - getCurrentAngle(), mCurrentImageCenter[0], mCurrentImageCenter[1]);
+        super.postScale(imageState.getCurrentScale() / getCurrentScale(), mCurrentImageCenter[0], mCurrentImageCenter[1]);
+        RectF imageRect = imageState.getCurrentImageRect();
+        postTranslate(imageRect.centerX() - mCurrentImageCenter[0], imageRect.centerY() - mCurrentImageCenter[1]);
+        if (!isImageWrapCropBounds()) {
+            setImageToWrapCropBounds(false);
+        }
+    }
+
     /**
      * This method extracts all needed values from the styled attributes.
      * Those are used to configure the view.
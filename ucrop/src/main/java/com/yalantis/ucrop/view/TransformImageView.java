@@ -16,8 +16,10 @@ import androidx.appcompat.widget.AppCompatImageView;
 
 import com.yalantis.ucrop.callback.BitmapLoadCallback;
 import com.yalantis.ucrop.model.ExifInfo;
+import com.yalantis.ucrop.task.BitmapLoadTask;
 import com.yalantis.ucrop.util.BitmapLoadUtils;
 import com.yalantis.ucrop.util.FastBitmapDrawable;
+import com.yalantis.ucrop.util.PreviewCache;
 import com.yalantis.ucrop.util.RectUtils;
 
 /**
@@ -94,6 +96,14 @@ public class TransformImageView extends AppCompatImageView {
      * 图片元数据
      */
     private ExifInfo mExifInfo;
+    /**
+     * 正在解码的图片,换图或控件销毁时取消
+     */
+    private BitmapLoadTask mLoadTask;
+    /**
+     * 已解码的预览图,命中时不再解码
+     */
+    private PreviewCache mPreviewCache;
 
     /**
      * Interface for rotation and scale change notifying.
@@ -191,25 +201,36 @@ public class TransformImageView extends AppCompatImageView {
         //这个方法计算bitmap的最大宽高,默认实现为设备屏幕对角线大小
         int maxBitmapSize = getMaxBitmapSize();
 
-        BitmapLoadUtils.decodeBitmapInBackground(getContext(), imageUri, outputUri, maxBitmapSize, maxBitmapSize,
+        if (mLoadTask != null) {
+            mLoadTask.cancel();
+            mLoadTask = null;
+        }
+        final String cacheKey = imageUri.toString();
+        if (mPreviewCache != null) {
+            PreviewCache.Entry entry = mPreviewCache.get(cacheKey);
+            if (entry != null) {
+                setDecodedBitmap(entry.getBitmap(), entry.getExifInfo(), entry.getInputPath(),
+                        outputUri == null ? null : outputUri.getPath());
+                return;
+            }
+        }
+        mLoadTask = BitmapLoadUtils.decodeBitmapInBackground(getContext(), imageUri, outputUri, maxBitmapSize, maxBitmapSize,
                 new BitmapLoadCallback() {
 
                     @Override
                     public void onBitmapLoaded(@NonNull Bitmap bitmap, @NonNull ExifInfo exifInfo,
                                                @NonNull String imageInputPath, @Nullable String imageOutputPath) {
-                        mImageInputPath = imageInputPath;
-                        mImageOutputPath = imageOutputPath;
-                        mExifInfo = exifInfo;
-
-                        //图片加载完成,包括图片尺寸缩放和方向旋转
-                        mBitmapDecoded = true;
-
-                        //展示图片,会触发onLayout
-                        setImageBitmap(bitmap);
+                        mLoadTask = null;
+                        //网络图片或拷贝出来的图片存放在输出路径,会被裁剪结果覆盖,不缓存
+                        if (mPreviewCache != null && !imageInputPath.equals(imageOutputPath)) {
+                            mPreviewCache.put(cacheKey, bitmap, exifInfo, imageInputPath);
+                        }
+                        setDecodedBitmap(bitmap, exifInfo, imageInputPath, imageOutputPath);
                     }
 
                     @Override
                     public void onFailure(@NonNull Exception bitmapWorkerException) {
+                        mLoadTask = null;
                         Log.e(TAG, "onFailure: setImageUri", bitmapWorkerException);
                         if (mTransformImageListener != null) {
                             mTransformImageListener.onLoadFailure(bitmapWorkerException);
@@ -218,6 +239,44 @@ public class TransformImageView extends AppCompatImageView {
                 });
     }
 
+    private void setDecodedBitmap(@NonNull Bitmap bitmap, @NonNull ExifInfo exifInfo,
+                                  @NonNull String imageInputPath, @Nullable String imageOutputPath) {
+        mImageInputPath = imageInputPath;
+        mImageOutputPath = imageOutputPath;
+        mExifInfo = exifInfo;
+
+        //图片加载完成,包括图片尺寸缩放和方向旋转
+        mBitmapDecoded = true;
+
+        //展示图片,会触发onLayout
+        setImageBitmap(bitmap);
+    }
+
+    /**
+     * 设置预览图缓存,{@link #setImageUri(Uri, Uri)}先从缓存中取,解码出的图片也放入缓存
+     *
+     * @param previewCache
+     */
+    public void setPreviewCache(@Nullable PreviewCache previewCache) {
+        mPreviewCache = previewCache;
+    }
+
+    /**
+     * 取消还没回调的后台任务,取消后结果直接丢弃
+     */
+    public void cancelTasks() {
+        if (mLoadTask != null) {
+            mLoadTask.cancel();
+            mLoadTask = null;
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        cancelTasks();
+        super.onDetachedFromWindow();
+    }
+
     /**
      * @return - current image scale value.
      * [1.0f - for original image, 2.0f - for 200% scaled image, etc.]
@@ -0,0 +1,184 @@
+package com.yalantis.ucrop.util;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author：luck
+ * @date：2026-10-18 10:50
+ * @describe：Strip encoders against the JDK decoders，and a gigapixel encode under the -Xmx of the unit test task
+ */
+public class StripImageWriterTest {
+    /**
+     * 32768 x 32768 ARGB is 4GB as one bitmap
+     */
+    private static final int GIGAPIXEL_SIZE = 32768;
+    private static final int STRIP_ROWS = 64;
+
+    @Test
+    public void pngRoundTripsExactly() throws IOException {
+        int width = 257;
+        int height = 131;
+        int[] argb = createPixels(width, height, true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeInStrips(new PngStripWriter(out, width, height), argb, width, height, 10);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        assertNotNull(image);
+        assertEquals(width, image.getWidth());
+        assertEquals(height, image.getHeight());
+        assertArrayEquals(argb, image.getRGB(0, 0, width, height, null, 0, width));
+    }
+
+    @Test
+    public void jpegIsCloseToTheJdkEncoder() throws IOException {
+        // Not a multiple of the 16 pixel MCU in either direction
+        int width = 333;
+        int height = 250;
+        int[] argb = createPixels(width, height, false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeInStrips(new JpegStripWriter(out, width, height, 90), argb, width, height, 7);
+        BufferedImage strip = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        assertNotNull(strip);
+        assertEquals(width, strip.getWidth());
+        assertEquals(height, strip.getHeight());
+
+        BufferedImage source = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        source.setRGB(0, 0, width, height, argb, 0, width);
+        ByteArrayOutputStream jdkOut = new ByteArrayOutputStream();
+        // The JDK writer's default quality is 75
+        ImageIO.write(source, "jpg", jdkOut);
+        BufferedImage jdk = ImageIO.read(new ByteArrayInputStream(jdkOut.toByteArray()));
+
+        double stripPsnr = psnr(argb, strip.getRGB(0, 0, width, height, null, 0, width));
+        double jdkPsnr = psnr(argb, jdk.getRGB(0, 0, width, height, null, 0, width));
+        assertTrue("strip " + stripPsnr + "dB, jdk " + jdkPsnr + "dB", stripPsnr >= jdkPsnr - 1);
+    }
+
+    @Test
+    public void gigapixelPngStaysUnderTheHeap() throws IOException {
+        assertGigapixelExceedsHeap();
+        TailOutputStream out = new TailOutputStream();
+        writeGigapixel(new PngStripWriter(out, GIGAPIXEL_SIZE, GIGAPIXEL_SIZE));
+        assertTrue(out.count > 0);
+        // IEND chunk with its fixed CRC
+        assertArrayEquals(new byte[]{0, 0, 0, 0, 'I', 'E', 'N', 'D', (byte) 0xAE, 0x42, 0x60, (byte) 0x82},
+                out.tail(12));
+    }
+
+    @Test
+    public void gigapixelJpegStaysUnderTheHeap() throws IOException {
+        assertGigapixelExceedsHeap();
+        TailOutputStream out = new TailOutputStream();
+        writeGigapixel(new JpegStripWriter(out, GIGAPIXEL_SIZE, GIGAPIXEL_SIZE, 80));
+        assertTrue(out.count > 0);
+        assertArrayEquals(new byte[]{(byte) 0xFF, (byte) 0xD9}, out.tail(2));
+    }
+
+    /**
+     * The unit test task bounds the heap，a gigapixel that fits as one bitmap would prove nothing
+     */
+    private static void assertGigapixelExceedsHeap() {
+        long bitmapBytes = (long) GIGAPIXEL_SIZE * GIGAPIXEL_SIZE * 4;
+        long maxMemory = Runtime.getRuntime().maxMemory();
+        assertTrue("Run with a bounded -Xmx, max heap is " + maxMemory, bitmapBytes > maxMemory * 16);
+    }
+
+    private static void writeGigapixel(StripImageWriter writer) throws IOException {
+        int[] strip = new int[GIGAPIXEL_SIZE * STRIP_ROWS];
+        try {
+            for (int top = 0; top < GIGAPIXEL_SIZE; top += STRIP_ROWS) {
+                int rowCount = Math.min(STRIP_ROWS, GIGAPIXEL_SIZE - top);
+                for (int y = 0; y < rowCount; y++) {
+                    int row = top + y;
+                    for (int x = 0, i = y * GIGAPIXEL_SIZE; x < GIGAPIXEL_SIZE; x++, i++) {
+                        strip[i] = 0xFF000000 | ((x >> 7) & 0xFF) << 16 | ((row >> 7) & 0xFF) << 8 | ((x ^ row) & 0xFF);
+                    }
+                }
+                writer.writeRows(strip, 0, GIGAPIXEL_SIZE, rowCount);
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void writeInStrips(StripImageWriter writer, int[] argb, int width, int height, int stripRows)
+            throws IOException {
+        try {
+            for (int top = 0; top < height; top += stripRows) {
+                writer.writeRows(argb, top * width, width, Math.min(stripRows, height - top));
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Smooth gradients with some detail，like a photo more than noise
+     */
+    private static int[] createPixels(int width, int height, boolean isAlpha) {
+        int[] argb = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int alpha = isAlpha ? (x * 7 + y * 3) & 0xFF : 0xFF;
+                int r = x * 255 / width;
+                int g = y * 255 / height;
+                int b = (int) (128 + 100 * Math.sin(x / 9.0) * Math.cos(y / 13.0));
+                argb[y * width + x] = alpha << 24 | r << 16 | g << 8 | b;
+            }
+        }
+        return argb;
+    }
+
+    private static double psnr(int[] expected, int[] actual) {
+        double error = 0;
+        for (int i = 0; i < expected.length; i++) {
+            for (int shift = 0; shift <= 16; shift += 8) {
+                int diff = ((expected[i] >> shift) & 0xFF) - ((actual[i] >> shift) & 0xFF);
+                error += diff * diff;
+            }
+        }
+        double mse = error / (expected.length * 3.0);
+        return 10 * Math.log10(255 * 255 / mse);
+    }
+
+    /**
+     * Counts what is written and keeps only the last bytes
+     */
+    private static final class TailOutputStream extends OutputStream {
+        private final byte[] tail = new byte[16];
+        private long count;
+
+        @Override
+        public void write(int b) {
+            tail[(int) (count++ % tail.length)] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        private byte[] tail(int length) {
+            byte[] result = new byte[length];
+            for (int i = 0; i < length; i++) {
+                result[i] = tail[(int) ((count - length + i) % tail.length)];
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.yalantis.ucrop.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author：luck
+ * @date：2026-10-18 16:40
+ * @describe：Strip and tile planning of the strip crop，a rotated strip must not decode a source region as tall as the output is wide
+ */
+public class StripTilerTest {
+    private static final int MAX_STRIP_HEIGHT = 256;
+    private static final int MIN_STRIP_HEIGHT = 16;
+    private static final long BUDGET = 16L * 1024 * 1024;
+
+    @Test
+    public void axisAlignedStripIsOneTile() {
+        int width = 12000;
+        StripTiler tiler = new StripTiler(new float[]{1, 0, 0, 0, 1, 0, 0, 0, 1}, width, 9000, width, 1);
+        assertTrue(tiler.plan(MAX_STRIP_HEIGHT, MIN_STRIP_HEIGHT, BUDGET));
+        assertEquals(width, tiler.getTileWidth());
+        assertTrue(tiler.getBytes() <= BUDGET);
+    }
+
+    @Test
+    public void rotatedStripIsSplitIntoTiles() {
+        int width = 20000;
+        int height = 20000;
+        float[] inverse = rotate45(width);
+        int sourceSize = (int) Math.ceil(width * Math.sqrt(2)) + 1;
+        StripTiler tiler = new StripTiler(inverse, sourceSize, sourceSize, width, 1);
+        // One full width strip of the smallest height maps back to about width / sqrt(2) squared
+        assertTrue(tiler.estimateRegionBytes(width, MIN_STRIP_HEIGHT) > BUDGET);
+
+        assertTrue(tiler.plan(MAX_STRIP_HEIGHT, MIN_STRIP_HEIGHT, BUDGET));
+        assertTrue(tiler.getTileWidth() < width);
+        assertTrue(tiler.getBytes() <= BUDGET);
+
+        int stripHeight = tiler.getStripHeight();
+        int tileWidth = tiler.getTileWidth();
+        long stripBytes = 2L * width * stripHeight * 4;
+        for (int top = 0; top < height; top += stripHeight * 37) {
+            int bottom = Math.min(height, top + stripHeight);
+            for (int left = 0; left < width; left += tileWidth) {
+                int right = Math.min(width, left + tileWidth);
+                int[] region = tiler.getRegion(left, top, right, bottom);
+                assertNotNull(region);
+                long regionBytes = 4L * (region[2] - region[0]) * (region[3] - region[1]);
+                assertTrue("tile " + left + "," + top + " " + regionBytes, stripBytes + regionBytes <= BUDGET);
+                // Every corner of the tile is decoded
+                float[] corners = {left, top, right, top, left, bottom, right, bottom};
+                for (int i = 0; i < corners.length; i += 2) {
+                    float x = inverse[0] * corners[i] + inverse[1] * corners[i + 1] + inverse[2];
+                    float y = inverse[3] * corners[i] + inverse[4] * corners[i + 1] + inverse[5];
+                    assertTrue(x >= region[0] && x <= region[2] && y >= region[1] && y <= region[3]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void stripsThatNeverFitAreRejected() {
+        int width = 20000;
+        StripTiler tiler = new StripTiler(rotate45(width), 30000, 30000, width, 1);
+        // Less than the smallest strip bitmap and its pixel array
+        assertFalse(tiler.plan(MAX_STRIP_HEIGHT, MIN_STRIP_HEIGHT, 2L * width * MIN_STRIP_HEIGHT * 4));
+    }
+
+    /**
+     * Output -> source of a crop rotated by 45 degrees，shifted so the source coordinates are positive
+     */
+    private static float[] rotate45(int width) {
+        float c = (float) Math.cos(Math.PI / 4);
+        float s = (float) Math.sin(Math.PI / 4);
+        return new float[]{c, -s, s * width, s, c, 0, 0, 0, 1};
+    }
+}